@@ -0,0 +1,108 @@
+package org.togetherjava.tjbot.commands.help;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.togetherjava.tjbot.commands.utils.LongHashSet;
+import org.togetherjava.tjbot.db.Database;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessages.HELP_CHANNEL_MESSAGES;
+
+/**
+ * Compares how {@link AutoPruneHelperRoutine} determines inactive members of a full helper role,
+ * with a single grouped query for all active authors against a count query per member, as done
+ * before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class HelperActivityBenchmark {
+    private static final long GUILD_ID = 1;
+    private static final int MESSAGE_COUNT = 200_000;
+    private static final int AUTHOR_COUNT = 2_000;
+    private static final int ROLE_MEMBER_COUNT = 100;
+    private static final Duration RECORDED_PERIOD = Duration.ofDays(90);
+    private static final Duration INACTIVE_AFTER = Duration.ofDays(60);
+
+    private Database database;
+    private long[] memberIds;
+    private Instant latestActiveMoment;
+
+    @Setup
+    public void setUp() {
+        database = Database.createMemoryDatabase(HELP_CHANNEL_MESSAGES);
+        Random random = new Random(1);
+        Instant now = Instant.now();
+
+        database.write(context -> {
+            var insert = context.insertInto(HELP_CHANNEL_MESSAGES, HELP_CHANNEL_MESSAGES.MESSAGE_ID,
+                    HELP_CHANNEL_MESSAGES.GUILD_ID, HELP_CHANNEL_MESSAGES.CHANNEL_ID,
+                    HELP_CHANNEL_MESSAGES.AUTHOR_ID, HELP_CHANNEL_MESSAGES.SENT_AT,
+                    HELP_CHANNEL_MESSAGES.MESSAGE_LENGTH);
+            for (long messageId = 0; messageId < MESSAGE_COUNT; messageId++) {
+                Instant sentAt =
+                        now.minusSeconds(random.nextLong(RECORDED_PERIOD.toSeconds()));
+                insert = insert.values(messageId, GUILD_ID, 1L,
+                        (long) random.nextInt(AUTHOR_COUNT), sentAt, 10L);
+                if (messageId % 1_000 == 999) {
+                    insert.execute();
+                    insert = context.insertInto(HELP_CHANNEL_MESSAGES,
+                            HELP_CHANNEL_MESSAGES.MESSAGE_ID, HELP_CHANNEL_MESSAGES.GUILD_ID,
+                            HELP_CHANNEL_MESSAGES.CHANNEL_ID, HELP_CHANNEL_MESSAGES.AUTHOR_ID,
+                            HELP_CHANNEL_MESSAGES.SENT_AT, HELP_CHANNEL_MESSAGES.MESSAGE_LENGTH);
+                }
+            }
+        });
+
+        memberIds = random.longs(ROLE_MEMBER_COUNT, 0, AUTHOR_COUNT * 3 / 2).toArray();
+        latestActiveMoment = now.minus(INACTIVE_AFTER);
+    }
+
+    @Benchmark
+    public int groupedQuery() {
+        LongHashSet activeAuthorIds = database.read(context -> {
+            LongHashSet authorIds = new LongHashSet();
+            context.select(HELP_CHANNEL_MESSAGES.AUTHOR_ID)
+                .from(HELP_CHANNEL_MESSAGES)
+                .where(HELP_CHANNEL_MESSAGES.GUILD_ID.eq(GUILD_ID)
+                    .and(HELP_CHANNEL_MESSAGES.SENT_AT.greaterThan(latestActiveMoment)))
+                .groupBy(HELP_CHANNEL_MESSAGES.AUTHOR_ID)
+                .fetch()
+                .forEach(author -> authorIds.add(author.value1()));
+            return authorIds;
+        });
+
+        int inactiveMembers = 0;
+        for (long memberId : memberIds) {
+            if (!activeAuthorIds.contains(memberId)) {
+                inactiveMembers++;
+            }
+        }
+        return inactiveMembers;
+    }
+
+    @Benchmark
+    public int countQueryPerMember() {
+        int inactiveMembers = 0;
+        for (long memberId : memberIds) {
+            boolean isInactive = database.read(context -> context.fetchCount(HELP_CHANNEL_MESSAGES,
+                    HELP_CHANNEL_MESSAGES.GUILD_ID.eq(GUILD_ID)
+                        .and(HELP_CHANNEL_MESSAGES.AUTHOR_ID.eq(memberId))
+                        .and(HELP_CHANNEL_MESSAGES.SENT_AT.greaterThan(latestActiveMoment)))) == 0;
+            if (isInactive) {
+                inactiveMembers++;
+            }
+        }
+        return inactiveMembers;
+    }
+}
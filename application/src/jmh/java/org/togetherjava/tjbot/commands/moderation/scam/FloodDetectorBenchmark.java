@@ -0,0 +1,61 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many messages per second the {@link FloodDetector} can record, on a stream of
+ * messages by many authors in many channels.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class FloodDetectorBenchmark {
+    private static final int STREAM_LENGTH = 1 << 16;
+    private static final int AUTHOR_COUNT = 5_000;
+    private static final int CHANNEL_COUNT = 50;
+    private static final int CONTENT_COUNT = 1_000;
+    private static final long MILLIS_BETWEEN_MESSAGES = 5;
+
+    private FloodDetector detector;
+    private long[] authorIds;
+    private long[] channelIds;
+    private long[] contentFingerprints;
+    private int nextMessage;
+    private long nextMessageId;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        detector = new FloodDetector(Duration.ofSeconds(30), 5, 16, 8192);
+        authorIds = new long[STREAM_LENGTH];
+        channelIds = new long[STREAM_LENGTH];
+        contentFingerprints = new long[STREAM_LENGTH];
+
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            authorIds[i] = random.nextInt(AUTHOR_COUNT);
+            channelIds[i] = random.nextInt(CHANNEL_COUNT);
+            contentFingerprints[i] = random.nextInt(CONTENT_COUNT);
+        }
+    }
+
+    @Benchmark
+    public List<FloodDetector.FloodMessage> recordMessage() {
+        int i = nextMessage;
+        nextMessage = (nextMessage + 1) & (STREAM_LENGTH - 1);
+        long messageId = nextMessageId++;
+
+        return detector.recordMessage(authorIds[i], channelIds[i], messageId,
+                contentFingerprints[i], messageId * MILLIS_BETWEEN_MESSAGES);
+    }
+}
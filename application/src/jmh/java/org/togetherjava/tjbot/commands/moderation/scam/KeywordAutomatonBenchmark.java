@@ -0,0 +1,70 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares checking messages for suspicious keywords with the {@link KeywordAutomaton} against
+ * lowercasing each token and checking it against every keyword.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class KeywordAutomatonBenchmark {
+    private static final Pattern TOKENIZER = Pattern.compile("[\\s,]");
+    private static final String MESSAGE = """
+            Hey everyone, I am trying to read a CSV file with a BufferedReader but my loop \
+            never ends and I get an ArrayIndexOutOfBoundsException in line 42. I already \
+            checked https://stackoverflow.com/questions/12345 but it did not help, any ideas?""";
+
+    @Param({"1", "100", "1000", "10000"})
+    public int keywordCount;
+
+    private List<String> keywords;
+    private KeywordAutomaton automaton;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        keywords = new ArrayList<>(keywordCount);
+        for (int i = 0; i < keywordCount; i++) {
+            // Random keywords, unlikely to be contained in the message, so it is fully scanned
+            StringBuilder keyword = new StringBuilder();
+            int length = 4 + random.nextInt(7);
+            for (int j = 0; j < length; j++) {
+                keyword.append((char) ('a' + random.nextInt(26)));
+            }
+            keywords.add(keyword.toString());
+        }
+
+        automaton = KeywordAutomaton.compile(keywords);
+    }
+
+    @Benchmark
+    public boolean automaton() {
+        return automaton.containsKeyword(MESSAGE);
+    }
+
+    @Benchmark
+    public boolean lowercaseTokens() {
+        return TOKENIZER.splitAsStream(MESSAGE)
+            .filter(token -> !token.isBlank())
+            .map(token -> token.toLowerCase(Locale.US))
+            .anyMatch(token -> keywords.stream()
+                .map(keyword -> keyword.toLowerCase(Locale.US))
+                .anyMatch(token::contains));
+    }
+}
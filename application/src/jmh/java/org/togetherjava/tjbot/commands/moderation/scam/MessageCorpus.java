@@ -0,0 +1,134 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the contents of messages from a corpus, to replay them through the {@link ScamDetector}.
+ * <p>
+ * Two formats are supported:
+ * <ul>
+ * <li>JSONL, one message per line, either as JSON string or as object with a {@code content}
+ * field</li>
+ * <li>CSV with a header row, the message content is taken from the {@code content} column
+ * (case-insensitive), as written by common Discord chat exporters</li>
+ * </ul>
+ * Files ending with {@code .csv} are read as CSV, anything else as JSONL.
+ */
+final class MessageCorpus {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final CsvMapper CSV = new CsvMapper();
+    private static final String CONTENT_FIELD = "content";
+
+    private MessageCorpus() {
+        throw new UnsupportedOperationException("Utility class, construction not supported");
+    }
+
+    /**
+     * Lazily streams the message contents of the given corpus file. The stream has to be closed
+     * after use.
+     *
+     * @param corpus the corpus file to read
+     * @return the contents of the messages in the corpus
+     * @throws IOException if the file could not be opened
+     */
+    static Stream<String> stream(Path corpus) throws IOException {
+        boolean isCsv = corpus.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        return stream(Files.newBufferedReader(corpus, StandardCharsets.UTF_8), isCsv);
+    }
+
+    /**
+     * Loads all message contents of the given JSONL corpus resource.
+     *
+     * @param resource the name of the resource, see {@link Class#getResourceAsStream(String)}
+     * @return the contents of the messages in the corpus
+     */
+    static List<String> loadJsonlResource(String resource) {
+        InputStream input = Objects.requireNonNull(
+                MessageCorpus.class.getResourceAsStream(resource), resource);
+
+        try (Stream<String> messages =
+                stream(new InputStreamReader(input, StandardCharsets.UTF_8), false)) {
+            return messages.toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Stream<String> stream(Reader reader, boolean isCsv) throws IOException {
+        if (!isCsv) {
+            BufferedReader lines = new BufferedReader(reader);
+            return lines.lines()
+                .filter(line -> !line.isBlank())
+                .map(MessageCorpus::parseJsonLine)
+                .onClose(() -> closeUnchecked(lines));
+        }
+
+        MappingIterator<Map<String, String>> rows = CSV.readerFor(Map.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .readValues(reader);
+        return StreamSupport
+            .stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false)
+            .map(MessageCorpus::contentOfCsvRow)
+            .onClose(() -> closeUnchecked(rows));
+    }
+
+    private static String parseJsonLine(String line) {
+        JsonNode message;
+        try {
+            message = JSON.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Corpus line is not valid JSON: " + line, e);
+        }
+
+        if (message.isTextual()) {
+            return message.asText();
+        }
+        JsonNode content = message.get(CONTENT_FIELD);
+        if (content == null) {
+            throw new IllegalArgumentException(
+                    "Corpus line has no '%s' field: %s".formatted(CONTENT_FIELD, line));
+        }
+        return content.asText();
+    }
+
+    private static String contentOfCsvRow(Map<String, String> row) {
+        return row.entrySet()
+            .stream()
+            .filter(column -> column.getKey().equalsIgnoreCase(CONTENT_FIELD))
+            .map(Map.Entry::getValue)
+            .findAny()
+            .orElseThrow(() -> new IllegalArgumentException(
+                    "Corpus has no '%s' column: %s".formatted(CONTENT_FIELD, row.keySet())));
+    }
+
+    private static void closeUnchecked(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to close the corpus", e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up near-duplicates of fingerprints with the {@link NearDuplicateIndex} against
+ * comparing with every stored fingerprint. The lookup time of the index should stay constant, also
+ * with hundreds of thousands of stored fingerprints.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class NearDuplicateIndexBenchmark {
+    private static final String MESSAGE = "@everyone Free Discord Nitro for 3 months, just claim "
+            + "it here https://dlscord-gift.com/nitro before it runs out!";
+    /**
+     * Amount of fingerprints stored per group, i.e. per author.
+     */
+    private static final int FINGERPRINTS_PER_GROUP = 10;
+    private static final int MAX_DISTANCE = 6;
+    private static final Instant SEEN_AT = Instant.ofEpochSecond(1_000_000);
+
+    @Param({"1000", "100000", "1000000"})
+    public int storedCount;
+
+    private NearDuplicateIndex<Long> index;
+    private long[] groups;
+    private long[] fingerprints;
+    private long queryGroup;
+    private long queryFingerprint;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        index = new NearDuplicateIndex<>(MAX_DISTANCE);
+        groups = new long[storedCount];
+        fingerprints = new long[storedCount];
+
+        for (int i = 0; i < storedCount; i++) {
+            groups[i] = i / FINGERPRINTS_PER_GROUP;
+            fingerprints[i] = random.nextLong();
+            index.add(groups[i], fingerprints[i], SEEN_AT);
+        }
+
+        // Unlikely to have a near-duplicate, so all candidates have to be checked
+        queryGroup = groups[storedCount / 2];
+        queryFingerprint = random.nextLong();
+    }
+
+    @Benchmark
+    public boolean index() {
+        return index.containsNearDuplicate(queryGroup, queryFingerprint, SEEN_AT);
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        for (int i = 0; i < storedCount; i++) {
+            if (groups[i] == queryGroup
+                    && SimHash.hammingDistance(fingerprints[i], queryFingerprint) <= MAX_DISTANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public long fingerprint() {
+        return SimHash.of(MESSAGE);
+    }
+}
@@ -0,0 +1,53 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.togetherjava.tjbot.config.ScamBlockerConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many messages per second the {@link ScamDetector} can analyze, on a small corpus of
+ * regular chat messages mixed with real scam messages. Larger corpora can be replayed with
+ * {@link ScamDetectorReplay}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class ScamDetectorBenchmark {
+    private static final String CONFIG_RESOURCE = "/scam/config.json";
+    private static final String CORPUS_RESOURCE = "/scam/messages.jsonl";
+
+    private ScamDetector detector;
+    private List<String> messages;
+    private int nextMessage;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream config = Objects.requireNonNull(
+                ScamDetectorBenchmark.class.getResourceAsStream(CONFIG_RESOURCE),
+                CONFIG_RESOURCE)) {
+            detector = new ScamDetector(
+                    new ObjectMapper().readValue(config, ScamBlockerConfig.class));
+        }
+        messages = MessageCorpus.loadJsonlResource(CORPUS_RESOURCE);
+    }
+
+    @Benchmark
+    public boolean isScam() {
+        String message = messages.get(nextMessage);
+        nextMessage = (nextMessage + 1) % messages.size();
+        return detector.isScam(message);
+    }
+}
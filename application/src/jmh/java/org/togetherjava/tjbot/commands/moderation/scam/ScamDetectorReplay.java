@@ -0,0 +1,285 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.togetherjava.tjbot.config.ScamBlockerConfig;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Command line tool that replays a corpus of messages through the {@link ScamDetector}, to tune
+ * the {@link ScamBlockerConfig} based on numbers instead of guesses.
+ * <p>
+ * Messages are read by {@link MessageCorpus} and analyzed in parallel on all cores. The tool
+ * reports the throughput, the latency per message and the amount of messages flagged as scam.
+ * Given a second config, it also reports the messages whose verdict differs between both configs.
+ * <p>
+ * Configs are either full bot configs or just their {@code scamBlocker} object. Run it with
+ * {@code gradlew :application:scamReplay --args="<corpus> <config> [<other config>]"}.
+ */
+public final class ScamDetectorReplay {
+    private static final int BATCH_SIZE = 1_000;
+    private static final int MAX_DIFF_EXAMPLES = 10;
+    private static final int MAX_EXAMPLE_LENGTH = 120;
+    private static final String SCAM_BLOCKER_FIELD = "scamBlocker";
+
+    private ScamDetectorReplay() {
+        throw new UnsupportedOperationException("Utility class, construction not supported");
+    }
+
+    /**
+     * Starts the tool.
+     *
+     * @param args the path to the corpus, the config and optionally another config to compare
+     *        verdicts with
+     * @throws IOException if the corpus or a config could not be read
+     * @throws InterruptedException if interrupted while waiting for the replay to finish
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: ScamDetectorReplay <corpus.jsonl|corpus.csv> <config.json>"
+                    + " [<other-config.json>]");
+            System.exit(1);
+        }
+
+        Path corpus = Path.of(args[0]);
+        List<ScamDetector> detectors = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            detectors.add(new ScamDetector(loadScamBlockerConfig(Path.of(args[i]))));
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        long startNanos = System.nanoTime();
+        ReplayStats stats = replay(corpus, detectors, threads);
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+        System.out.printf("Replayed %,d messages in %.2f s on %d threads, %,.0f messages/s%n",
+                stats.messages, seconds, threads, stats.messages / seconds);
+        for (int i = 0; i < detectors.size(); i++) {
+            LatencyHistogram latencies = stats.latencyNanos.get(i);
+            System.out.printf(
+                    "Config %s: %,d scam, %,d harmless; latency p50 %s, p99 %s, max %s;"
+                            + " host verdict cache hit rate %.1f%%%n",
+                    args[i + 1], stats.scamCounts[i], stats.messages - stats.scamCounts[i],
+                    formatNanos(latencies.percentile(0.5)),
+                    formatNanos(latencies.percentile(0.99)), formatNanos(latencies.max),
+                    detectors.get(i).getHostVerdictCacheStats().hitRate() * 100);
+        }
+
+        if (detectors.size() == 2) {
+            printDiff(stats);
+        }
+    }
+
+    private static ScamBlockerConfig loadScamBlockerConfig(Path path) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode config = mapper.readTree(path.toFile());
+        if (config.has(SCAM_BLOCKER_FIELD)) {
+            config = config.get(SCAM_BLOCKER_FIELD);
+        }
+        return mapper.treeToValue(config, ScamBlockerConfig.class);
+    }
+
+    private static ReplayStats replay(Path corpus, List<ScamDetector> detectors, int threads)
+            throws IOException, InterruptedException {
+        ReplayStats stats = new ReplayStats(detectors.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        // Limits the batches in memory, such that the corpus is streamed instead of loaded fully
+        Semaphore pendingBatches = new Semaphore(threads * 2);
+
+        try (Stream<String> messages = MessageCorpus.stream(corpus)) {
+            Iterator<String> messageIterator = messages.iterator();
+            while (messageIterator.hasNext()) {
+                List<String> batch = new ArrayList<>(BATCH_SIZE);
+                while (batch.size() < BATCH_SIZE && messageIterator.hasNext()) {
+                    batch.add(messageIterator.next());
+                }
+
+                pendingBatches.acquire();
+                executor.execute(() -> {
+                    try {
+                        stats.merge(replayBatch(batch, detectors));
+                    } finally {
+                        pendingBatches.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        if (!executor.awaitTermination(1, TimeUnit.DAYS)) {
+            throw new IllegalStateException("Replay did not finish in time");
+        }
+        return stats;
+    }
+
+    private static ReplayStats replayBatch(List<String> batch, List<ScamDetector> detectors) {
+        ReplayStats stats = new ReplayStats(detectors.size());
+        boolean[] verdicts = new boolean[detectors.size()];
+
+        for (String message : batch) {
+            for (int i = 0; i < detectors.size(); i++) {
+                long startNanos = System.nanoTime();
+                verdicts[i] = detectors.get(i).isScam(message);
+                stats.latencyNanos.get(i).add(System.nanoTime() - startNanos);
+
+                if (verdicts[i]) {
+                    stats.scamCounts[i]++;
+                }
+            }
+            stats.messages++;
+
+            if (verdicts.length == 2 && verdicts[0] != verdicts[1]) {
+                (verdicts[1] ? stats.becameScam : stats.becameHarmless).add(message);
+            }
+        }
+        return stats;
+    }
+
+    private static void printDiff(ReplayStats stats) {
+        System.out.printf("Verdicts differ for %,d messages%n",
+                stats.becameScam.count + stats.becameHarmless.count);
+        printDiffExamples("Only scam with the other config", stats.becameScam);
+        printDiffExamples("Only scam with the first config", stats.becameHarmless);
+    }
+
+    private static void printDiffExamples(String title, VerdictDiff diff) {
+        System.out.printf("%s: %,d messages%n", title, diff.count);
+        diff.examples.stream()
+            .map(message -> message.replaceAll("\\s+", " "))
+            .map(message -> message.length() > MAX_EXAMPLE_LENGTH
+                    ? message.substring(0, MAX_EXAMPLE_LENGTH) + "..."
+                    : message)
+            .forEach(message -> System.out.println("  " + message));
+    }
+
+    private static String formatNanos(long nanos) {
+        return "%.1f us".formatted(nanos / 1_000.0);
+    }
+
+    /**
+     * Statistics of replaying messages. Each batch collects its own statistics, which are then
+     * merged into the overall statistics.
+     */
+    private static final class ReplayStats {
+        private long messages;
+        private final long[] scamCounts;
+        private final List<LatencyHistogram> latencyNanos = new ArrayList<>();
+        private final VerdictDiff becameScam = new VerdictDiff();
+        private final VerdictDiff becameHarmless = new VerdictDiff();
+
+        ReplayStats(int detectorCount) {
+            scamCounts = new long[detectorCount];
+            for (int i = 0; i < detectorCount; i++) {
+                latencyNanos.add(new LatencyHistogram());
+            }
+        }
+
+        synchronized void merge(ReplayStats other) {
+            messages += other.messages;
+            for (int i = 0; i < scamCounts.length; i++) {
+                scamCounts[i] += other.scamCounts[i];
+                latencyNanos.get(i).addAll(other.latencyNanos.get(i));
+            }
+            becameScam.addAll(other.becameScam);
+            becameHarmless.addAll(other.becameHarmless);
+        }
+    }
+
+    /**
+     * Messages whose verdict differs between the configs. Only a few of them are kept as
+     * examples, to not run out of memory if the configs differ a lot.
+     */
+    private static final class VerdictDiff {
+        private long count;
+        private final List<String> examples = new ArrayList<>();
+
+        void add(String message) {
+            count++;
+            if (examples.size() < MAX_DIFF_EXAMPLES) {
+                examples.add(message);
+            }
+        }
+
+        void addAll(VerdictDiff other) {
+            count += other.count - other.examples.size();
+            other.examples.forEach(this::add);
+        }
+    }
+
+    /**
+     * Histogram of latencies with logarithmic buckets, to record the latency of millions of
+     * messages in constant memory.
+     * <p>
+     * Each power of two is split into {@value #SUB_BUCKETS} linear buckets, so percentiles are
+     * accurate to about {@code 1 / SUB_BUCKETS} of their value. The maximum is tracked exactly.
+     */
+    private static final class LatencyHistogram {
+        private static final int SUB_BUCKET_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final long[] counts = new long[Long.SIZE * SUB_BUCKETS];
+        private long count;
+        private long max;
+
+        void add(long nanos) {
+            long value = Math.max(0, nanos);
+            counts[bucketOf(value)]++;
+            count++;
+            max = Math.max(max, value);
+        }
+
+        void addAll(LatencyHistogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+
+        /**
+         * Gets the given percentile, as the upper bound of the bucket it falls into, but at most
+         * the maximum.
+         */
+        long percentile(double percentile) {
+            long rank = Math.max(1, (long) Math.ceil(percentile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        private static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+            return (shift + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long upperBoundOf(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = bucket / SUB_BUCKETS - 1;
+            long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+            return lowerBound + (1L << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.togetherjava.tjbot.commands.tags;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.togetherjava.tjbot.commands.utils.StringDistances;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares suggesting tags by the {@link TagIndex} against scanning all tag ids with
+ * {@link StringDistances}, as done for autocompletion and unknown tags.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TagIndexBenchmark {
+    private static final int TAG_COUNT = 10_000;
+    private static final int MAX_SUGGESTIONS = 25;
+
+    @Param({"", "j", "jav", "javsc"})
+    public String prefix;
+
+    private Set<String> ids;
+    private TagIndex index;
+    private String unknownId;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        ids = new HashSet<>(TAG_COUNT);
+        ids.add("java");
+        ids.add("javascript");
+        while (ids.size() < TAG_COUNT) {
+            ids.add(randomWord(random, 3 + random.nextInt(12)));
+        }
+
+        index = new TagIndex(ids);
+        unknownId = prefix + "tag";
+    }
+
+    @Benchmark
+    public Collection<String> closeMatchesIndex() {
+        return index.closeMatches(prefix, MAX_SUGGESTIONS);
+    }
+
+    @Benchmark
+    public Collection<String> closeMatchesScan() {
+        return StringDistances.closeMatches(prefix, ids, MAX_SUGGESTIONS);
+    }
+
+    @Benchmark
+    public Optional<String> closestMatchIndex() {
+        return index.closestMatch(unknownId);
+    }
+
+    @Benchmark
+    public Optional<String> closestMatchScan() {
+        return StringDistances.closestMatch(unknownId, ids);
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package org.togetherjava.tjbot.commands.tags;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.db.generated.tables.Tags;
+import org.togetherjava.tjbot.db.generated.tables.records.TagsRecord;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up the content of tags through the cache of the {@link TagSystem} against
+ * querying the database for whether the tag exists and then for its content, as done by
+ * {@code /tag} before the cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TagSystemBenchmark {
+    private static final int TAG_COUNT = 1_000;
+
+    private Database database;
+    private TagSystem tagSystem;
+    private String[] ids;
+    private int nextIdIndex;
+
+    @Setup
+    public void setUp() {
+        database = Database.createMemoryDatabase(Tags.TAGS);
+        ids = new String[TAG_COUNT];
+        for (int i = 0; i < TAG_COUNT; i++) {
+            String id = "tag-" + i;
+            ids[i] = id;
+            database.write(context -> context.newRecord(Tags.TAGS)
+                .setId(id)
+                .setContent("Content of " + id)
+                .insert());
+        }
+
+        tagSystem = new TagSystem(database);
+    }
+
+    @Benchmark
+    public Optional<String> lookupFromCache() {
+        return tagSystem.getTag(nextId());
+    }
+
+    @Benchmark
+    public Optional<String> lookupFromDatabase() {
+        String id = nextId();
+
+        boolean hasTag = database.readTransaction(context -> context.selectFrom(Tags.TAGS)
+            .where(Tags.TAGS.ID.eq(id))
+            .fetchOne() != null);
+        if (!hasTag) {
+            return Optional.empty();
+        }
+
+        return database.readTransaction(context -> Optional
+            .ofNullable(context.selectFrom(Tags.TAGS).where(Tags.TAGS.ID.eq(id)).fetchOne())
+            .map(TagsRecord::getContent));
+    }
+
+    private String nextId() {
+        nextIdIndex = (nextIdIndex + 1) % ids.length;
+        return ids[nextIdIndex];
+    }
+}
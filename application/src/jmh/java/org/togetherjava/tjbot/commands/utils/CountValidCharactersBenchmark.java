@@ -0,0 +1,47 @@
+package org.togetherjava.tjbot.commands.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares {@link MessageUtils#countValidCharacters(CharSequence)} against removing all invalid
+ * characters with a regex and taking the length of the result, as done by the top helpers before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CountValidCharactersBenchmark {
+    private static final Pattern INVALID_CHARACTERS = Pattern.compile("\\p{C}");
+
+    @Param({"ascii", "unicode"})
+    public String kind;
+
+    private String message;
+
+    @Setup
+    public void setUp() {
+        String line = "ascii".equals(kind)
+                ? "Have you tried calling list.stream().map(String::strip).toList() instead?\n"
+                : "Schau mal hier, das geht auch mit Umlauten äöü 😀\u200B\n";
+        message = line.repeat(20);
+    }
+
+    @Benchmark
+    public int countCodePoints() {
+        return MessageUtils.countValidCharacters(message);
+    }
+
+    @Benchmark
+    public int countRegex() {
+        return INVALID_CHARACTERS.matcher(message).replaceAll("").length();
+    }
+}
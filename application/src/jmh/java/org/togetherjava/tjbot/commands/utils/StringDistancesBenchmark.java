@@ -0,0 +1,140 @@
+package org.togetherjava.tjbot.commands.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the distance computations of {@link StringDistances} against allocating the full
+ * Levenshtein distance table, as well as finding close matches among many candidates, as done
+ * for unknown tags and autocompletion.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class StringDistancesBenchmark {
+    private static final int CANDIDATE_COUNT = 10_000;
+    private static final int MAX_DISTANCE = 2;
+    private static final int PREFIX_LENGTH = 4;
+    private static final int MATCH_LIMIT = 25;
+
+    @Param({"8", "32"})
+    public int length;
+
+    private String source;
+    private String destination;
+    private String prefix;
+    private List<String> candidates;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        source = randomWord(random, length);
+        destination = randomWord(random, length);
+        prefix = source.substring(0, PREFIX_LENGTH);
+
+        candidates = new ArrayList<>(CANDIDATE_COUNT);
+        for (int i = 0; i < CANDIDATE_COUNT; i++) {
+            candidates.add(randomWord(random, 3 + random.nextInt(length)));
+        }
+    }
+
+    @Benchmark
+    public int editDistance() {
+        return StringDistances.editDistance(source, destination);
+    }
+
+    @Benchmark
+    public int editDistanceWithMaximum() {
+        return StringDistances.editDistance(source, destination, MAX_DISTANCE);
+    }
+
+    @Benchmark
+    public int prefixEditDistance() {
+        return StringDistances.prefixEditDistance(source, destination);
+    }
+
+    @Benchmark
+    public int fullTable() {
+        int[][] table = computeFullTable(source, destination);
+        return table[source.length()][destination.length()];
+    }
+
+    @Benchmark
+    public Optional<String> closestMatch() {
+        return StringDistances.closestMatch(source, candidates);
+    }
+
+    @Benchmark
+    public Collection<String> closeMatches() {
+        return StringDistances.closeMatches(prefix, candidates, MATCH_LIMIT);
+    }
+
+    /**
+     * The straightforward way of finding close matches, scoring and sorting all candidates.
+     */
+    @Benchmark
+    public List<String> closeMatchesSortingAll() {
+        return candidates.stream()
+            .map(candidate -> Map.entry(candidate,
+                    StringDistances.prefixEditDistance(prefix, candidate)))
+            .sorted(Map.Entry.<String, Integer>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .limit(MATCH_LIMIT)
+            .takeWhile(match -> match.getValue() <= PREFIX_LENGTH / 2)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    /**
+     * The straightforward computation, allocating the full table and a stream per cell.
+     */
+    private static int[][] computeFullTable(CharSequence source, CharSequence destination) {
+        int rows = source.length() + 1;
+        int columns = destination.length() + 1;
+        int[][] table = new int[rows][columns];
+
+        for (int y = 0; y < columns; y++) {
+            table[0][y] = y;
+        }
+        for (int x = 0; x < rows; x++) {
+            table[x][0] = x;
+        }
+
+        for (int x = 1; x < rows; x++) {
+            for (int y = 1; y < columns; y++) {
+                int diagonalCandidate = table[x - 1][y - 1];
+                if (source.charAt(x - 1) != destination.charAt(y - 1)) {
+                    diagonalCandidate++;
+                }
+                table[x][y] = IntStream
+                    .of(table[x - 1][y] + 1, table[x][y - 1] + 1, diagonalCandidate)
+                    .min()
+                    .orElseThrow();
+            }
+        }
+        return table;
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
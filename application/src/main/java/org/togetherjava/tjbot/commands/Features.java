@@ -19,6 +19,7 @@ import org.togetherjava.tjbot.commands.moderation.*;
 import org.togetherjava.tjbot.commands.moderation.ReportCommand;
 import org.togetherjava.tjbot.commands.moderation.attachment.BlacklistedAttachmentListener;
 import org.togetherjava.tjbot.commands.moderation.modmail.ModMailCommand;
+import org.togetherjava.tjbot.commands.moderation.scam.FloodBlocker;
 import org.togetherjava.tjbot.commands.moderation.scam.ScamBlocker;
 import org.togetherjava.tjbot.commands.moderation.scam.ScamHistoryPurgeRoutine;
 import org.togetherjava.tjbot.commands.moderation.scam.ScamHistoryStore;
@@ -26,14 +27,18 @@ import org.togetherjava.tjbot.commands.moderation.temp.TemporaryModerationRoutin
 import org.togetherjava.tjbot.commands.reminder.RemindRoutine;
 import org.togetherjava.tjbot.commands.reminder.ReminderCommand;
 import org.togetherjava.tjbot.commands.system.BotCore;
+import org.togetherjava.tjbot.commands.system.GuildEntityCacheInvalidator;
 import org.togetherjava.tjbot.commands.system.LogLevelCommand;
 import org.togetherjava.tjbot.commands.tags.TagCommand;
 import org.togetherjava.tjbot.commands.tags.TagManageCommand;
 import org.togetherjava.tjbot.commands.tags.TagSystem;
 import org.togetherjava.tjbot.commands.tags.TagsCommand;
+import org.togetherjava.tjbot.commands.tophelper.HelpMessageBuffer;
 import org.togetherjava.tjbot.commands.tophelper.TopHelpersCommand;
 import org.togetherjava.tjbot.commands.tophelper.TopHelpersMessageListener;
 import org.togetherjava.tjbot.commands.tophelper.TopHelpersPurgeMessagesRoutine;
+import org.togetherjava.tjbot.commands.tophelper.TopHelpersShutdownListener;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.db.Database;
 import org.togetherjava.tjbot.moderation.ModAuditLogWriter;
@@ -70,10 +75,15 @@ public class Features {
         TagSystem tagSystem = new TagSystem(database);
         BookmarksSystem bookmarksSystem = new BookmarksSystem(config, database);
         ModerationActionsStore actionsStore = new ModerationActionsStore(database);
-        ModAuditLogWriter modAuditLogWriter = new ModAuditLogWriter(config);
-        ScamHistoryStore scamHistoryStore = new ScamHistoryStore(database);
-        HelpSystemHelper helpSystemHelper = new HelpSystemHelper(config, database);
+        GuildEntityResolver guildEntityResolver = new GuildEntityResolver();
+        ModAuditLogWriter modAuditLogWriter = new ModAuditLogWriter(config, guildEntityResolver);
+        ScamHistoryStore scamHistoryStore = new ScamHistoryStore(database, config);
+        ScamBlocker scamBlocker =
+                new ScamBlocker(actionsStore, scamHistoryStore, config, guildEntityResolver);
+        HelpSystemHelper helpSystemHelper =
+                new HelpSystemHelper(config, database, guildEntityResolver);
         CodeMessageHandler codeMessageHandler = new CodeMessageHandler();
+        HelpMessageBuffer helpMessageBuffer = new HelpMessageBuffer(database);
 
         // NOTE The system can add special system relevant commands also by itself,
         // hence this list may not necessarily represent the full list of all commands actually
@@ -82,7 +92,8 @@ public class Features {
 
         // Routines
         features.add(new ModAuditLogRoutine(database, config, modAuditLogWriter));
-        features.add(new TemporaryModerationRoutine(jda, actionsStore, config));
+        features
+            .add(new TemporaryModerationRoutine(jda, actionsStore, config, guildEntityResolver));
         features.add(new TopHelpersPurgeMessagesRoutine(database));
         features.add(new RemindRoutine(database));
         features.add(new ScamHistoryPurgeRoutine(scamHistoryStore));
@@ -94,9 +105,10 @@ public class Features {
         features.add(new LeftoverBookmarksCleanupRoutine(bookmarksSystem));
 
         // Message receivers
-        features.add(new TopHelpersMessageListener(database, config));
+        features.add(new TopHelpersMessageListener(helpMessageBuffer, config));
         features.add(new SuggestionsUpDownVoter(config));
-        features.add(new ScamBlocker(actionsStore, scamHistoryStore, config));
+        features.add(scamBlocker);
+        features.add(new FloodBlocker(scamBlocker, config));
         features.add(new MediaOnlyChannelListener(config));
         features.add(new FileSharingMessageListener(config));
         features.add(new BlacklistedAttachmentListener(config, modAuditLogWriter));
@@ -105,10 +117,12 @@ public class Features {
         features.add(new CodeMessageManualDetection(codeMessageHandler));
 
         // Event receivers
-        features.add(new RejoinModerationRoleListener(actionsStore, config));
+        features.add(new RejoinModerationRoleListener(actionsStore, config, guildEntityResolver));
         features.add(new GuildLeaveCloseThreadListener(config));
         features.add(new LeftoverBookmarksListener(bookmarksSystem));
         features.add(new HelpThreadCreatedListener(helpSystemHelper));
+        features.add(new GuildEntityCacheInvalidator(guildEntityResolver));
+        features.add(new TopHelpersShutdownListener(helpMessageBuffer));
 
         // Message context commands
 
@@ -127,14 +141,14 @@ public class Features {
         features.add(new BanCommand(actionsStore));
         features.add(new UnbanCommand(actionsStore));
         features.add(new AuditCommand(actionsStore));
-        features.add(new MuteCommand(actionsStore, config));
-        features.add(new UnmuteCommand(actionsStore, config));
-        features.add(new TopHelpersCommand(database));
+        features.add(new MuteCommand(actionsStore, config, guildEntityResolver));
+        features.add(new UnmuteCommand(actionsStore, config, guildEntityResolver));
+        features.add(new TopHelpersCommand(database, helpMessageBuffer));
         features.add(new RoleSelectCommand());
         features.add(new NoteCommand(actionsStore));
         features.add(new ReminderCommand(database));
-        features.add(new QuarantineCommand(actionsStore, config));
-        features.add(new UnquarantineCommand(actionsStore, config));
+        features.add(new QuarantineCommand(actionsStore, config, guildEntityResolver));
+        features.add(new UnquarantineCommand(actionsStore, config, guildEntityResolver));
         features.add(new WhoIsCommand());
         features.add(new WolframAlphaCommand(config));
         features.add(new ModMailCommand(jda, config));
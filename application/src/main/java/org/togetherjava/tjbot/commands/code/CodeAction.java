@@ -1,7 +1,5 @@
 package org.togetherjava.tjbot.commands.code;
 
-import net.dv8tion.jda.api.entities.MessageEmbed;
-
 import org.togetherjava.tjbot.commands.utils.CodeFence;
 
 /**
@@ -19,7 +17,7 @@ interface CodeAction {
      * Applies the action to the given code and returns a message.
      *
      * @param codeFence the code to apply the action to
-     * @return the message to send to the user
+     * @return the message to send to the user, and whether it may be reused for the same code
      */
-    MessageEmbed apply(CodeFence codeFence);
+    CodeActionResult apply(CodeFence codeFence);
 }
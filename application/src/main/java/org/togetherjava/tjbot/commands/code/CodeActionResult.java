@@ -0,0 +1,13 @@
+package org.togetherjava.tjbot.commands.code;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+/**
+ * Result of applying a {@link CodeAction}.
+ *
+ * @param message the message to send to the user
+ * @param isCacheable whether the same code always results in the same message, false for example if
+ *        the action was cut short by a timeout
+ */
+record CodeActionResult(MessageEmbed message, boolean isCacheable) {
+}
@@ -3,6 +3,7 @@ package org.togetherjava.tjbot.commands.code;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
@@ -22,6 +23,7 @@ import org.togetherjava.tjbot.commands.UserInteractor;
 import org.togetherjava.tjbot.commands.componentids.ComponentIdGenerator;
 import org.togetherjava.tjbot.commands.componentids.ComponentIdInteractor;
 import org.togetherjava.tjbot.commands.utils.CodeFence;
+import org.togetherjava.tjbot.commands.utils.Hashing;
 import org.togetherjava.tjbot.commands.utils.MessageUtils;
 
 import javax.annotation.Nullable;
@@ -48,6 +50,11 @@ public final class CodeMessageHandler extends MessageReceiverAdapter implements
 
     static final Color AMBIENT_COLOR = Color.decode("#FDFD96");
 
+    /**
+     * Upper bound for the memory used by {@link #codeActionResultCache}, in bytes.
+     */
+    private static final long MAX_CODE_ACTION_RESULT_CACHE_BYTES = 8L * 1024 * 1024;
+
     private final ComponentIdInteractor componentIdInteractor;
     private final Map<String, CodeAction> labelToCodeAction;
 
@@ -61,6 +68,23 @@ public final class CodeMessageHandler extends MessageReceiverAdapter implements
      */
     private final Cache<Long, Long> originalMessageToCodeReply =
             Caffeine.newBuilder().maximumSize(2_000).build();
+    /**
+     * Memorizes the hash of the code in a message, as it was when the message was last handled.
+     * That way, edits of the message that do not change the code can be ignored.
+     */
+    private final Cache<Long, Long> originalMessageToCodeHash =
+            Caffeine.newBuilder().maximumSize(2_000).build();
+    /**
+     * Results of applying code actions, shared by all actions. Keyed by the action and the code it
+     * was applied to, so the same code posted or edited by multiple users is only processed once.
+     * Bounded by the size of the code and the results.
+     */
+    private final Cache<CodeActionKey, MessageEmbed> codeActionResultCache = Caffeine.newBuilder()
+        .maximumWeight(MAX_CODE_ACTION_RESULT_CACHE_BYTES)
+        .weigher((CodeActionKey key, MessageEmbed result) -> (key.code().code().length()
+                + result.getLength()) * Character.BYTES)
+        .recordStats()
+        .build();
 
     /**
      * Creates a new instance.
@@ -114,6 +138,9 @@ public final class CodeMessageHandler extends MessageReceiverAdapter implements
         MessageCreateData codeReply =
                 createCodeReplyMessage(originalMessage.getIdLong(), showDeleteButton);
 
+        originalMessageToCodeHash.put(originalMessage.getIdLong(),
+                hashCodeFence(extractCodeOrFallback(originalMessage.getContentRaw())));
+
         originalMessage.reply(codeReply)
             .onSuccess(replyMessage -> originalMessageToCodeReply.put(originalMessage.getIdLong(),
                     replyMessage.getIdLong()))
@@ -182,10 +209,11 @@ public final class CodeMessageHandler extends MessageReceiverAdapter implements
                 originalMessageToCodeReply.put(originalMessageId, event.getMessageIdLong());
 
                 CodeFence code = extractCodeOrFallback(originalMessage.get().getContentRaw());
+                originalMessageToCodeHash.put(originalMessageId, hashCodeFence(code));
 
                 // Apply the selected action
                 return event.getHook()
-                    .editOriginalEmbeds(codeAction.apply(code))
+                    .editOriginalEmbeds(applyCodeAction(codeAction, code))
                     .setActionRow(createButtons(originalMessageId, codeAction));
             })
             .queue();
@@ -196,6 +224,7 @@ public final class CodeMessageHandler extends MessageReceiverAdapter implements
                 event.getUser().getId(), originalMessageId, event.getChannel().getName());
 
         originalMessageToCodeReply.invalidate(originalMessageId);
+        originalMessageToCodeHash.invalidate(originalMessageId);
         event.getMessage().delete().queue();
     }
 
@@ -213,9 +242,16 @@ public final class CodeMessageHandler extends MessageReceiverAdapter implements
             return;
         }
 
-        // Edit the code reply as well by re-applying the current action
         CodeFence code = extractCodeOrFallback(event.getMessage().getContentRaw());
+        long codeHash = hashCodeFence(code);
+        Long previousCodeHash = originalMessageToCodeHash.getIfPresent(originalMessageId);
+        if (previousCodeHash != null && previousCodeHash == codeHash) {
+            // Only the text around the code was edited, the code reply is still up-to-date
+            return;
+        }
+        originalMessageToCodeHash.put(originalMessageId, codeHash);
 
+        // Edit the code reply as well by re-applying the current action
         event.getChannel().retrieveMessageById(codeReplyMessageId).flatMap(codeReplyMessage -> {
             Optional<CodeAction> maybeCodeAction = getCurrentActionFromCodeReply(codeReplyMessage);
             if (maybeCodeAction.isEmpty()) {
@@ -224,7 +260,8 @@ public final class CodeMessageHandler extends MessageReceiverAdapter implements
             }
 
             // Re-apply the current action
-            return codeReplyMessage.editMessageEmbeds(maybeCodeAction.orElseThrow().apply(code));
+            return codeReplyMessage
+                .editMessageEmbeds(applyCodeAction(maybeCodeAction.orElseThrow(), code));
         }).queue(any -> {
         }, failure -> logger.warn(
                 "Attempted to update a code-reply-message ({}), but failed. The original code-message was {}",
@@ -253,6 +290,7 @@ public final class CodeMessageHandler extends MessageReceiverAdapter implements
 
         // Delete the code reply as well
         originalMessageToCodeReply.invalidate(originalMessageId);
+        originalMessageToCodeHash.invalidate(originalMessageId);
 
         event.getChannel().deleteMessageById(codeReplyMessageId).queue(any -> {
         }, failure -> logger.warn(
@@ -260,7 +298,31 @@ public final class CodeMessageHandler extends MessageReceiverAdapter implements
                 codeReplyMessageId, originalMessageId, failure));
     }
 
+    private MessageEmbed applyCodeAction(CodeAction codeAction, CodeFence code) {
+        CodeActionKey key = new CodeActionKey(codeAction.getLabel(), code);
+        MessageEmbed cachedResult = codeActionResultCache.getIfPresent(key);
+        if (cachedResult != null) {
+            return cachedResult;
+        }
+
+        logger.debug("Applying code action {}, result cache: {}", codeAction.getLabel(),
+                codeActionResultCache.stats());
+        CodeActionResult result = codeAction.apply(code);
+        if (result.isCacheable()) {
+            codeActionResultCache.put(key, result.message());
+        }
+        return result.message();
+    }
+
+    private static long hashCodeFence(CodeFence code) {
+        String language = code.language() == null ? "" : code.language();
+        return Hashing.hash64(Hashing.hash64(language), code.code());
+    }
+
     private static CodeFence extractCodeOrFallback(String content) {
         return MessageUtils.extractCode(content).orElseGet(() -> new CodeFence("java", content));
     }
+
+    private record CodeActionKey(String actionLabel, CodeFence code) {
+    }
 }
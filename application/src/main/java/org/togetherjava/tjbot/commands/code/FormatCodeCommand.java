@@ -5,13 +5,22 @@ import net.dv8tion.jda.api.entities.MessageEmbed;
 
 import org.togetherjava.tjbot.commands.utils.CodeFence;
 import org.togetherjava.tjbot.formatter.Formatter;
+import org.togetherjava.tjbot.formatter.formatting.FormattingBudget;
+import org.togetherjava.tjbot.formatter.formatting.FormattingResult;
+
+import java.time.Duration;
 
 /**
  * Formats the given code.
  * <p>
  * While it will attempt formatting for any language, best results are achieved for Java code.
+ * <p>
+ * Formatting is limited to what can be displayed in the embed, huge or malicious code is truncated
+ * instead.
  */
 final class FormatCodeCommand implements CodeAction {
+    private static final Duration FORMAT_TIMEOUT = Duration.ofSeconds(2);
+
     private final Formatter formatter = new Formatter();
 
     @Override
@@ -20,20 +29,31 @@ final class FormatCodeCommand implements CodeAction {
     }
 
     @Override
-    public MessageEmbed apply(CodeFence codeFence) {
-        String formattedCode = formatCode(codeFence.code());
+    public CodeActionResult apply(CodeFence codeFence) {
         // Any syntax highlighting is better than none
         String language = codeFence.language() == null ? "java" : codeFence.language();
+        StringBuilder formattedCode = new StringBuilder();
+        FormattingResult formattingResult = formatCode(codeFence.code(), language, formattedCode);
 
-        CodeFence formattedCodeFence = new CodeFence(language, formattedCode);
+        CodeFence formattedCodeFence = new CodeFence(language, formattedCode.toString());
 
-        return new EmbedBuilder().setTitle("Formatted code")
+        MessageEmbed message = new EmbedBuilder().setTitle("Formatted code")
             .setDescription(formattedCodeFence.toMarkdown())
             .setColor(CodeMessageHandler.AMBIENT_COLOR)
             .build();
+        // How far formatting gets within the timeout depends on the load
+        boolean isCacheable = formattingResult != FormattingResult.TIMEOUT_REACHED;
+        return new CodeActionResult(message, isCacheable);
     }
 
-    private String formatCode(CharSequence code) {
-        return formatter.format(code);
+    private FormattingResult formatCode(CharSequence code, String language,
+            StringBuilder formattedCode) {
+        int codeFenceLength = new CodeFence(language, "").toMarkdown().length();
+        int maxCharacters = MessageEmbed.DESCRIPTION_MAX_LENGTH - codeFenceLength;
+        // Each token outputs at least one character, so more tokens can not be displayed anyway
+        FormattingBudget budget =
+                new FormattingBudget(maxCharacters, maxCharacters, FORMAT_TIMEOUT);
+
+        return formatter.format(code, formattedCode, budget);
     }
 }
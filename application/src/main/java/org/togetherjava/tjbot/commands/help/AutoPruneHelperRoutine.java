@@ -9,6 +9,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.togetherjava.tjbot.commands.Routine;
+import org.togetherjava.tjbot.commands.utils.LongHashSet;
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.db.Database;
 import org.togetherjava.tjbot.moderation.ModAuditLogWriter;
@@ -69,25 +70,50 @@ public final class AutoPruneHelperRoutine implements Routine {
     }
 
     private void pruneForGuild(Guild guild) {
-        ForumChannel helpForum = guild.getForumChannels()
-            .stream()
-            .filter(channel -> helper.isHelpForumName(channel.getName()))
-            .findAny()
-            .orElseThrow();
+        Optional<ForumChannel> maybeHelpForum = helper
+            .handleRequireHelpForum(guild, channelPattern -> logger.warn(
+                    "Unable to auto prune helper roles, did not find a help forum matching the configured pattern '{}' for guild '{}'",
+                    channelPattern, guild.getName()));
+
+        if (maybeHelpForum.isEmpty()) {
+            return;
+        }
+
+        ForumChannel helpForum = maybeHelpForum.orElseThrow();
         Instant now = Instant.now();
+        LongHashSet activeAuthorIds = fetchActiveAuthorIds(guild, now.minus(INACTIVE_AFTER));
 
         allCategories.stream()
             .map(category -> helper.handleFindRoleForCategory(category, guild))
             .filter(Optional::isPresent)
             .map(Optional::orElseThrow)
-            .forEach(role -> pruneRoleIfFull(role, helpForum, now));
+            .forEach(role -> pruneRoleIfFull(role, helpForum, now, activeAuthorIds));
     }
 
-    private void pruneRoleIfFull(Role role, ForumChannel helpForum, Instant when) {
+    /**
+     * Fetches the ids of all members who wrote help messages in the given guild after the given
+     * moment, with a single query for all helper roles.
+     */
+    private LongHashSet fetchActiveAuthorIds(Guild guild, Instant latestActiveMoment) {
+        return database.read(context -> {
+            LongHashSet activeAuthorIds = new LongHashSet();
+            context.select(HELP_CHANNEL_MESSAGES.AUTHOR_ID)
+                .from(HELP_CHANNEL_MESSAGES)
+                .where(HELP_CHANNEL_MESSAGES.GUILD_ID.eq(guild.getIdLong())
+                    .and(HELP_CHANNEL_MESSAGES.SENT_AT.greaterThan(latestActiveMoment)))
+                .groupBy(HELP_CHANNEL_MESSAGES.AUTHOR_ID)
+                .fetch()
+                .forEach(author -> activeAuthorIds.add(author.value1()));
+            return activeAuthorIds;
+        });
+    }
+
+    private void pruneRoleIfFull(Role role, ForumChannel helpForum, Instant when,
+            LongHashSet activeAuthorIds) {
         role.getGuild().findMembersWithRoles(role).onSuccess(members -> {
             if (isRoleFull(members)) {
                 logger.debug("Helper role {} is full, starting to prune.", role.getName());
-                pruneRole(role, members, helpForum, when);
+                pruneRole(role, members, helpForum, when, activeAuthorIds);
             }
         });
     }
@@ -97,12 +123,12 @@ public final class AutoPruneHelperRoutine implements Routine {
     }
 
     private void pruneRole(Role role, List<? extends Member> members, ForumChannel helpForum,
-            Instant when) {
+            Instant when, LongHashSet activeAuthorIds) {
         List<Member> membersShuffled = new ArrayList<>(members);
         Collections.shuffle(membersShuffled);
 
         List<Member> membersToPrune = membersShuffled.stream()
-            .filter(member -> isMemberInactive(member, when))
+            .filter(member -> isMemberInactive(member, when, activeAuthorIds))
             .limit(PRUNE_MEMBER_AMOUNT)
             .toList();
         if (membersToPrune.size() < PRUNE_MEMBER_AMOUNT) {
@@ -123,7 +149,8 @@ public final class AutoPruneHelperRoutine implements Routine {
         membersToPrune.forEach(member -> pruneMemberFromRole(member, role, helpForum));
     }
 
-    private boolean isMemberInactive(Member member, Instant when) {
+    private static boolean isMemberInactive(Member member, Instant when,
+            LongHashSet activeAuthorIds) {
         if (member.hasTimeJoined()) {
             Instant memberJoined = member.getTimeJoined().toInstant();
             if (Duration.between(memberJoined, when).toDays() <= RECENTLY_JOINED_DAYS) {
@@ -133,13 +160,8 @@ public final class AutoPruneHelperRoutine implements Routine {
             }
         }
 
-        Instant latestActiveMoment = when.minus(INACTIVE_AFTER);
-
         // Has no recent help message
-        return database.read(context -> context.fetchCount(HELP_CHANNEL_MESSAGES,
-                HELP_CHANNEL_MESSAGES.GUILD_ID.eq(member.getGuild().getIdLong())
-                    .and(HELP_CHANNEL_MESSAGES.AUTHOR_ID.eq(member.getIdLong()))
-                    .and(HELP_CHANNEL_MESSAGES.SENT_AT.greaterThan(latestActiveMoment)))) == 0;
+        return !activeAuthorIds.contains(member.getIdLong());
     }
 
     private void pruneMemberFromRole(Member member, Role role, ForumChannel helpForum) {
@@ -0,0 +1,137 @@
+package org.togetherjava.tjbot.commands.help;
+
+import javax.annotation.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timer wheel of deadlines by id, for example the moment a thread becomes inactive.
+ * <p>
+ * Time is divided into ticks and each deadline is put into the slot of its tick, slots are reused
+ * every rotation of the wheel. Pushing a deadline further back is constant time, the id stays in
+ * its slot and is only moved to the slot of its new deadline once the old one is reached. Deadlines
+ * further away than a rotation are handled the same way.
+ * <p>
+ * Deadlines are precise up to a tick. The wheel is thread safe.
+ */
+final class DeadlineTimerWheel {
+    private final long tickMillis;
+    private final List<List<Long>> slots;
+    private final Map<Long, Instant> idToDeadline = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tickDuration the precision of the deadlines
+     * @param slotCount the amount of slots, ideally covering the typical distance of deadlines
+     * @param now the current moment, deadlines are reached once the wheel is advanced past them
+     */
+    DeadlineTimerWheel(Duration tickDuration, int slotCount, Instant now) {
+        tickMillis = tickDuration.toMillis();
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException(
+                    "The tick duration must be at least a millisecond, but was " + tickDuration);
+        }
+
+        slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        currentTick = toTick(now);
+    }
+
+    /**
+     * Schedules the given deadline for the id. If the id already has a later deadline, it is kept.
+     *
+     * @param id the id to schedule the deadline for
+     * @param deadline the moment the deadline is reached
+     */
+    synchronized void schedule(long id, Instant deadline) {
+        Instant currentDeadline = idToDeadline.get(id);
+        if (currentDeadline != null) {
+            if (deadline.isAfter(currentDeadline)) {
+                idToDeadline.put(id, deadline);
+            }
+            return;
+        }
+
+        idToDeadline.put(id, deadline);
+        addToSlot(id, deadline);
+    }
+
+    /**
+     * Gets the deadline of the given id.
+     *
+     * @param id the id to get the deadline of
+     * @return the deadline, or {@code null} if the id has none
+     */
+    @Nullable
+    synchronized Instant getDeadline(long id) {
+        return idToDeadline.get(id);
+    }
+
+    /**
+     * Gets the amount of ids with a deadline.
+     *
+     * @return the amount of ids with a deadline
+     */
+    synchronized int size() {
+        return idToDeadline.size();
+    }
+
+    /**
+     * Advances the wheel to the given moment and removes all ids whose deadline is reached.
+     *
+     * @param now the current moment
+     * @return the ids whose deadline is reached, they have no deadline anymore
+     */
+    synchronized List<Long> advance(Instant now) {
+        long nowTick = toTick(now);
+        List<Long> expiredIds = new ArrayList<>();
+
+        // Visiting each slot once is enough, even if more time passed. The current tick is visited
+        // again, since deadlines may have been added to it after the last advance.
+        long fromTick = Math.max(currentTick, nowTick - slots.size() + 1);
+        currentTick = nowTick;
+        for (long tick = fromTick; tick <= nowTick; tick++) {
+            int slotIndex = toSlotIndex(tick);
+            List<Long> slot = slots.get(slotIndex);
+            if (slot.isEmpty()) {
+                continue;
+            }
+            slots.set(slotIndex, new ArrayList<>());
+
+            for (long id : slot) {
+                Instant deadline = idToDeadline.get(id);
+                if (deadline.isAfter(now)) {
+                    // Deadline was pushed back, or is more than a rotation away
+                    addToSlot(id, deadline);
+                } else {
+                    idToDeadline.remove(id);
+                    expiredIds.add(id);
+                }
+            }
+        }
+        return expiredIds;
+    }
+
+    private void addToSlot(long id, Instant deadline) {
+        // Deadlines that are already reached are handled by the next advance
+        long tick = Math.max(toTick(deadline), currentTick);
+        slots.get(toSlotIndex(tick)).add(id);
+    }
+
+    private long toTick(Instant moment) {
+        return Math.floorDiv(moment.toEpochMilli(), tickMillis);
+    }
+
+    private int toSlotIndex(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+}
@@ -19,6 +19,7 @@ import net.dv8tion.jda.internal.requests.CompletedRestAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.commands.utils.MessageUtils;
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.config.HelpSystemConfig;
@@ -59,16 +60,21 @@ public final class HelpSystemHelper {
     private final Set<String> threadActivityTagNames;
     private final String categoryRoleSuffix;
     private final Database database;
+    private final GuildEntityResolver guildEntityResolver;
+    private final HelpThreadActivityTracker activityTracker = new HelpThreadActivityTracker();
 
     /**
      * Creates a new instance.
      *
      * @param config the config to use
      * @param database the database to store help thread metadata in
+     * @param guildEntityResolver the resolver to find the help forum and helper roles with
      */
-    public HelpSystemHelper(Config config, Database database) {
+    public HelpSystemHelper(Config config, Database database,
+            GuildEntityResolver guildEntityResolver) {
         HelpSystemConfig helpConfig = config.getHelpSystem();
         this.database = database;
+        this.guildEntityResolver = guildEntityResolver;
 
         helpForumPattern = helpConfig.getHelpForumPattern();
         isHelpForumName = Pattern.compile(helpForumPattern).asMatchPredicate();
@@ -156,7 +162,7 @@ public final class HelpSystemHelper {
 
     Optional<Role> handleFindRoleForCategory(String category, Guild guild) {
         String roleName = category + categoryRoleSuffix;
-        Optional<Role> maybeHelperRole = guild.getRolesByName(roleName, true).stream().findAny();
+        Optional<Role> maybeHelperRole = guildEntityResolver.findRoleByName(guild, roleName);
 
         if (maybeHelperRole.isEmpty()) {
             logger.warn("Unable to find the helper role '{}'.", roleName);
@@ -255,13 +261,9 @@ public final class HelpSystemHelper {
 
     Optional<ForumChannel> handleRequireHelpForum(Guild guild,
             Consumer<? super String> consumeChannelPatternIfNotFound) {
-        Predicate<String> isChannelName = this::isHelpForumName;
         String channelPattern = getHelpForumPattern();
-
-        Optional<ForumChannel> maybeChannel = guild.getForumChannelCache()
-            .stream()
-            .filter(channel -> isChannelName.test(channel.getName()))
-            .findAny();
+        Optional<ForumChannel> maybeChannel =
+                guildEntityResolver.findForumChannel(guild, channelPattern);
 
         if (maybeChannel.isEmpty()) {
             consumeChannelPatternIfNotFound.accept(channelPattern);
@@ -270,6 +272,10 @@ public final class HelpSystemHelper {
         return maybeChannel;
     }
 
+    HelpThreadActivityTracker getActivityTracker() {
+        return activityTracker;
+    }
+
     List<ThreadChannel> getActiveThreadsIn(IThreadContainer channel) {
         return channel.getThreadChannels()
             .stream()
@@ -0,0 +1,164 @@
+package org.togetherjava.tjbot.commands.help;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.dv8tion.jda.api.utils.TimeUtil;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tracks the recent authors of help threads in memory, fed by message events, to determine the
+ * activity of threads without retrieving their message history.
+ * <p>
+ * Per thread, the authors of the most recent messages are kept in a small ring buffer, together
+ * with the amount of messages. Threads that existed before tracking started have an unknown history.
+ * Their activity can not be determined until the history was recovered once, see
+ * {@link #recoverThread(long, List)}.
+ * <p>
+ * The tracker is thread safe.
+ */
+final class HelpThreadActivityTracker {
+    /**
+     * Amount of recent messages the activity is determined by. Threads with at least that many
+     * messages are considered highly active.
+     */
+    static final int ACTIVITY_DETERMINE_MESSAGE_LIMIT = 11;
+    /**
+     * Stands in for the author of messages sent by the bot itself, which do not count as activity.
+     * Real ids are never zero.
+     */
+    static final long SELF_AUTHOR_ID = 0;
+    private static final int MAX_TRACKED_THREADS = 10_000;
+    private static final Duration FORGET_THREADS_AFTER = Duration.ofDays(7);
+
+    private final Instant trackingStartedAt = Instant.now();
+    private final Cache<Long, ThreadHistory> threadIdToHistory = Caffeine.newBuilder()
+        .maximumSize(MAX_TRACKED_THREADS)
+        .expireAfterAccess(FORGET_THREADS_AFTER)
+        .build();
+
+    /**
+     * Records a new message in the given thread.
+     *
+     * @param threadId the id of the thread the message was sent in
+     * @param authorId the id of the author of the message, or {@link #SELF_AUTHOR_ID} if sent by
+     *        the bot itself
+     */
+    void recordMessage(long threadId, long authorId) {
+        threadIdToHistory.get(threadId, this::createHistory).add(authorId);
+    }
+
+    /**
+     * Resets the activity of the given thread, such that only messages from now on count.
+     *
+     * @param threadId the id of the thread to reset
+     */
+    void resetThread(long threadId) {
+        threadIdToHistory.put(threadId, new ThreadHistory(true));
+    }
+
+    /**
+     * Recovers the history of a thread whose activity is unknown, for example since it was created
+     * before tracking started.
+     *
+     * @param threadId the id of the thread to recover
+     * @param recentAuthorIds the authors of the most recent messages in the thread, oldest first,
+     *        see {@link #recordMessage(long, long)}
+     * @return the activity of the thread
+     */
+    HelpSystemHelper.ThreadActivity recoverThread(long threadId, List<Long> recentAuthorIds) {
+        ThreadHistory history = new ThreadHistory(true);
+        recentAuthorIds.forEach(history::add);
+
+        threadIdToHistory.put(threadId, history);
+        return history.computeActivity();
+    }
+
+    /**
+     * Determines the activity of the given thread based on its recent messages.
+     *
+     * @param threadId the id of the thread
+     * @return the activity of the thread, or empty if its history is unknown and has to be
+     *         recovered first
+     */
+    Optional<HelpSystemHelper.ThreadActivity> getActivity(long threadId) {
+        ThreadHistory history = threadIdToHistory.getIfPresent(threadId);
+        if (history == null) {
+            // Threads without any recorded message are only known if they are new
+            history = createHistory(threadId);
+        }
+
+        return history.isComplete ? Optional.of(history.computeActivity()) : Optional.empty();
+    }
+
+    private ThreadHistory createHistory(long threadId) {
+        return new ThreadHistory(isCreatedWhileTracking(threadId));
+    }
+
+    private boolean isCreatedWhileTracking(long threadId) {
+        return TimeUtil.getTimeCreated(threadId).toInstant().isAfter(trackingStartedAt);
+    }
+
+    /**
+     * The authors of the most recent messages of a thread.
+     */
+    private static final class ThreadHistory {
+        /**
+         * Whether all messages of the thread were recorded, or at least the most recent ones up to
+         * the limit.
+         */
+        private final boolean isComplete;
+        private final long[] recentAuthorIds = new long[ACTIVITY_DETERMINE_MESSAGE_LIMIT];
+        private int nextIndex;
+        private int messageCount;
+
+        ThreadHistory(boolean isComplete) {
+            this.isComplete = isComplete;
+        }
+
+        synchronized void add(long authorId) {
+            recentAuthorIds[nextIndex] = authorId;
+            nextIndex = (nextIndex + 1) % recentAuthorIds.length;
+            messageCount = Math.min(messageCount + 1, recentAuthorIds.length);
+        }
+
+        synchronized HelpSystemHelper.ThreadActivity computeActivity() {
+            if (messageCount >= ACTIVITY_DETERMINE_MESSAGE_LIMIT) {
+                // There are likely even more messages, but we hit the limit
+                return HelpSystemHelper.ThreadActivity.HIGH;
+            }
+
+            // Until the limit is hit, the buffer holds all messages, starting at index 0
+            int authorCount = 0;
+            boolean hasRepeatedAuthor = false;
+            for (int i = 0; i < messageCount; i++) {
+                long authorId = recentAuthorIds[i];
+                if (authorId == SELF_AUTHOR_ID) {
+                    continue;
+                }
+
+                if (hasMessageOf(authorId, i)) {
+                    hasRepeatedAuthor = true;
+                } else {
+                    authorCount++;
+                }
+            }
+
+            boolean isThereActivity = authorCount >= 2 && hasRepeatedAuthor;
+            return isThereActivity ? HelpSystemHelper.ThreadActivity.MEDIUM
+                    : HelpSystemHelper.ThreadActivity.LOW;
+        }
+
+        private boolean hasMessageOf(long authorId, int endIndex) {
+            for (int i = 0; i < endIndex; i++) {
+                if (recentAuthorIds[i] == authorId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
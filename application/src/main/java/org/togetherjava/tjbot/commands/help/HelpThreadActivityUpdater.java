@@ -1,27 +1,26 @@
 package org.togetherjava.tjbot.commands.help;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
-import net.dv8tion.jda.api.entities.MessageHistory;
-import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
-import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.internal.requests.CompletedRestAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.togetherjava.tjbot.commands.MessageReceiverAdapter;
 import org.togetherjava.tjbot.commands.Routine;
 
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -29,19 +28,16 @@ import java.util.stream.Collectors;
  * <p>
  * The activity indicates to helpers which channels are in most need of help and which likely
  * already received attention by helpers.
+ * <p>
+ * Messages sent in help threads are recorded by the {@link HelpThreadActivityTracker} as they
+ * arrive, such that the activity is determined without retrieving the message history of each
+ * thread. Only threads that existed before the bot started have their history retrieved once.
  */
-public final class HelpThreadActivityUpdater implements Routine {
+public final class HelpThreadActivityUpdater extends MessageReceiverAdapter implements Routine {
     private static final Logger logger = LoggerFactory.getLogger(HelpThreadActivityUpdater.class);
     private static final int SCHEDULE_MINUTES = 30;
-    private static final int ACTIVITY_DETERMINE_MESSAGE_LIMIT = 11;
-    private static final int CHANNEL_ACTIVITY_CACHE_LIFETIME = 12;
-    private static final ChronoUnit CHANNEL_ACTIVITY_CACHE_LIFETIME_UNIT = ChronoUnit.HOURS;
     private final HelpSystemHelper helper;
-    public static final Cache<Long, Long> manuallyResetChannelActivityCache = Caffeine.newBuilder()
-        .maximumSize(1_000)
-        .expireAfterWrite(CHANNEL_ACTIVITY_CACHE_LIFETIME,
-                TimeUnit.of(CHANNEL_ACTIVITY_CACHE_LIFETIME_UNIT))
-        .build();
+    private final HelpThreadActivityTracker activityTracker;
 
     /**
      * Creates a new instance.
@@ -49,7 +45,23 @@ public final class HelpThreadActivityUpdater implements Routine {
      * @param helper the helper to use
      */
     public HelpThreadActivityUpdater(HelpSystemHelper helper) {
+        super(Pattern.compile(".*"));
+
         this.helper = helper;
+        activityTracker = helper.getActivityTracker();
+    }
+
+    @Override
+    public void onMessageReceived(MessageReceivedEvent event) {
+        if (event.getChannel().getType() != ChannelType.GUILD_PUBLIC_THREAD) {
+            return;
+        }
+        ThreadChannel thread = event.getChannel().asThreadChannel();
+        if (!helper.isHelpForumName(thread.getParentChannel().getName())) {
+            return;
+        }
+
+        activityTracker.recordMessage(thread.getIdLong(), toTrackedAuthorId(event.getMessage()));
     }
 
     @Override
@@ -81,44 +93,35 @@ public final class HelpThreadActivityUpdater implements Routine {
     }
 
     private void updateActivityForThread(ThreadChannel threadChannel) {
+        // Does not send any request if the activity did not change
         determineActivity(threadChannel)
             .flatMap(threadActivity -> helper.changeChannelActivity(threadChannel, threadActivity))
             .queue();
     }
 
-    private static RestAction<HelpSystemHelper.ThreadActivity> determineActivity(
-            MessageChannel channel) {
-
-        return getRelevantHistory(channel).map(messages -> {
-            if (messages.size() >= ACTIVITY_DETERMINE_MESSAGE_LIMIT) {
-                // There are likely even more messages, but we hit the limit
-                return HelpSystemHelper.ThreadActivity.HIGH;
-            }
-
-            Map<User, List<Message>> authorToMessages = messages.stream()
-                .filter(Predicate.not(HelpThreadActivityUpdater::isBotMessage))
-                .collect(Collectors.groupingBy(Message::getAuthor));
-
-            boolean isThereActivity = authorToMessages.size() >= 2 && authorToMessages.values()
-                .stream()
-                .anyMatch(messagesByAuthor -> messagesByAuthor.size() >= 2);
-
-            return isThereActivity ? HelpSystemHelper.ThreadActivity.MEDIUM
-                    : HelpSystemHelper.ThreadActivity.LOW;
-        });
-    }
-
-    private static RestAction<List<Message>> getRelevantHistory(MessageChannel channel) {
-        Long mostRecentMessageId =
-                manuallyResetChannelActivityCache.getIfPresent(channel.getIdLong());
+    private RestAction<HelpSystemHelper.ThreadActivity> determineActivity(ThreadChannel channel) {
+        Optional<HelpSystemHelper.ThreadActivity> trackedActivity =
+                activityTracker.getActivity(channel.getIdLong());
+        if (trackedActivity.isPresent()) {
+            return new CompletedRestAction<>(channel.getJDA(), trackedActivity.orElseThrow());
+        }
 
-        return mostRecentMessageId != null
-                ? channel.getHistoryAfter(mostRecentMessageId, ACTIVITY_DETERMINE_MESSAGE_LIMIT)
-                    .map(MessageHistory::getRetrievedHistory)
-                : channel.getHistory().retrievePast(ACTIVITY_DETERMINE_MESSAGE_LIMIT);
+        logger.debug("Recovering the activity of help thread {}", channel.getId());
+        return channel.getHistory()
+            .retrievePast(HelpThreadActivityTracker.ACTIVITY_DETERMINE_MESSAGE_LIMIT)
+            .map(messages -> {
+                // History is newest first
+                List<Long> recentAuthorIds = messages.stream()
+                    .map(HelpThreadActivityUpdater::toTrackedAuthorId)
+                    .collect(Collectors.toCollection(ArrayList::new));
+                Collections.reverse(recentAuthorIds);
+                return activityTracker.recoverThread(channel.getIdLong(), recentAuthorIds);
+            });
     }
 
-    private static boolean isBotMessage(Message message) {
-        return message.getAuthor().equals(message.getJDA().getSelfUser());
+    private static long toTrackedAuthorId(Message message) {
+        return message.getAuthor().equals(message.getJDA().getSelfUser())
+                ? HelpThreadActivityTracker.SELF_AUTHOR_ID
+                : message.getAuthor().getIdLong();
     }
 }
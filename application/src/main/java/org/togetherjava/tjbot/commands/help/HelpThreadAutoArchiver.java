@@ -4,13 +4,16 @@ import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.utils.TimeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.togetherjava.tjbot.commands.MessageReceiverAdapter;
 import org.togetherjava.tjbot.commands.Routine;
 
 import java.time.Duration;
@@ -18,17 +21,31 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
- * Routine, which periodically checks all help threads and archives them if there has not been any
- * recent activity.
+ * Routine, which archives help threads if there has not been any recent activity.
+ * <p>
+ * Each help thread has a deadline, after which it is inactive. Deadlines are pushed back by every
+ * message sent in the thread and kept in a {@link DeadlineTimerWheel}, which is checked every
+ * minute. That way, threads are archived right after they became inactive, without checking all
+ * threads. Every few hours, all threads are checked anyway, to catch up on missed messages, for
+ * example after a restart.
  */
-public final class HelpThreadAutoArchiver implements Routine {
+public final class HelpThreadAutoArchiver extends MessageReceiverAdapter implements Routine {
     private static final Logger logger = LoggerFactory.getLogger(HelpThreadAutoArchiver.class);
-    private static final int SCHEDULE_MINUTES = 60;
+    private static final int SCHEDULE_MINUTES = 1;
+    private static final Duration RECONCILE_EVERY = Duration.ofHours(6);
     private static final Duration ARCHIVE_AFTER_INACTIVITY_OF = Duration.ofHours(12);
+    /**
+     * Slots of the timer wheel, one per minute, covering the inactivity period.
+     */
+    private static final int DEADLINE_SLOTS = 1024;
 
     private final HelpSystemHelper helper;
+    private final DeadlineTimerWheel threadIdToDeadline =
+            new DeadlineTimerWheel(Duration.ofMinutes(1), DEADLINE_SLOTS, Instant.now());
+    private Instant nextReconciliationAt = Instant.MIN;
 
     /**
      * Creates a new instance.
@@ -36,9 +53,26 @@ public final class HelpThreadAutoArchiver implements Routine {
      * @param helper the helper to use
      */
     public HelpThreadAutoArchiver(HelpSystemHelper helper) {
+        super(Pattern.compile(".*"));
+
         this.helper = helper;
     }
 
+    @Override
+    public void onMessageReceived(MessageReceivedEvent event) {
+        if (event.getChannel().getType() != ChannelType.GUILD_PUBLIC_THREAD) {
+            return;
+        }
+        ThreadChannel thread = event.getChannel().asThreadChannel();
+        if (!helper.isHelpForumName(thread.getParentChannel().getName())) {
+            return;
+        }
+
+        Instant lastActivity = event.getMessage().getTimeCreated().toInstant();
+        threadIdToDeadline.schedule(thread.getIdLong(),
+                lastActivity.plus(ARCHIVE_AFTER_INACTIVITY_OF));
+    }
+
     @Override
     public Schedule createSchedule() {
         return new Schedule(ScheduleMode.FIXED_RATE, 0, SCHEDULE_MINUTES, TimeUnit.MINUTES);
@@ -46,10 +80,17 @@ public final class HelpThreadAutoArchiver implements Routine {
 
     @Override
     public void runRoutine(JDA jda) {
-        jda.getGuildCache().forEach(this::autoArchiveForGuild);
+        Instant now = Instant.now();
+        if (!now.isBefore(nextReconciliationAt)) {
+            jda.getGuildCache().forEach(this::reconcileForGuild);
+            nextReconciliationAt = now.plus(RECONCILE_EVERY);
+        }
+
+        threadIdToDeadline.advance(now)
+            .forEach(threadId -> autoArchiveForThread(jda, threadId, now));
     }
 
-    private void autoArchiveForGuild(Guild guild) {
+    private void reconcileForGuild(Guild guild) {
         Optional<ForumChannel> maybeHelpForum = helper
             .handleRequireHelpForum(guild, channelPattern -> logger.warn(
                     "Unable to auto archive help threads, did not find a help forum matching the configured pattern '{}' for guild '{}'",
@@ -59,43 +100,48 @@ public final class HelpThreadAutoArchiver implements Routine {
             return;
         }
 
-        logger.debug("Auto archiving of help threads");
+        logger.debug("Reconciling deadlines for auto archiving of help threads");
 
         List<ThreadChannel> activeThreads = helper.getActiveThreadsIn(maybeHelpForum.orElseThrow());
         logger.debug("Found {} active questions", activeThreads.size());
 
-        Instant archiveAfterMoment = computeArchiveAfterMoment();
-        activeThreads
-            .forEach(activeThread -> autoArchiveForThread(activeThread, archiveAfterMoment));
+        activeThreads.forEach(activeThread -> threadIdToDeadline
+            .schedule(activeThread.getIdLong(), computeDeadline(activeThread)));
     }
 
-    private Instant computeArchiveAfterMoment() {
-        return Instant.now().minus(ARCHIVE_AFTER_INACTIVITY_OF);
-    }
+    private void autoArchiveForThread(JDA jda, long threadId, Instant now) {
+        ThreadChannel threadChannel = jda.getThreadChannelById(threadId);
+        if (threadChannel == null || threadChannel.isArchived()) {
+            return;
+        }
 
-    private void autoArchiveForThread(ThreadChannel threadChannel, Instant archiveAfterMoment) {
-        if (shouldBeArchived(threadChannel, archiveAfterMoment)) {
-            logger.debug("Auto archiving help thread {}", threadChannel.getId());
+        // In case a message was missed
+        Instant deadline = computeDeadline(threadChannel);
+        if (deadline.isAfter(now)) {
+            threadIdToDeadline.schedule(threadId, deadline);
+            return;
+        }
 
-            MessageEmbed embed = new EmbedBuilder().setDescription("""
-                    Closed the thread due to inactivity.
+        logger.debug("Auto archiving help thread {}", threadChannel.getId());
 
-                    If your question was not resolved yet, feel free to just post a message \
-                    to reopen it, or create a new thread. But try to improve the quality of \
-                    your question to make it easier to help you 👍""")
-                .setColor(HelpSystemHelper.AMBIENT_COLOR)
-                .build();
+        MessageEmbed embed = new EmbedBuilder().setDescription("""
+                Closed the thread due to inactivity.
 
-            threadChannel.sendMessageEmbeds(embed)
-                .flatMap(any -> threadChannel.getManager().setArchived(true))
-                .queue();
-        }
+                If your question was not resolved yet, feel free to just post a message \
+                to reopen it, or create a new thread. But try to improve the quality of \
+                your question to make it easier to help you 👍""")
+            .setColor(HelpSystemHelper.AMBIENT_COLOR)
+            .build();
+
+        threadChannel.sendMessageEmbeds(embed)
+            .flatMap(any -> threadChannel.getManager().setArchived(true))
+            .queue();
     }
 
-    private static boolean shouldBeArchived(MessageChannel channel, Instant archiveAfterMoment) {
+    private static Instant computeDeadline(MessageChannel channel) {
         Instant lastActivity =
                 TimeUtil.getTimeCreated(channel.getLatestMessageIdLong()).toInstant();
 
-        return lastActivity.isBefore(archiveAfterMoment);
+        return lastActivity.plus(ARCHIVE_AFTER_INACTIVITY_OF);
     }
 }
@@ -28,8 +28,6 @@ import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static org.togetherjava.tjbot.commands.help.HelpThreadActivityUpdater.manuallyResetChannelActivityCache;
-
 /**
  * Implements the {@code /help-thread} command, used to maintain certain aspects of help threads,
  * such as renaming or closing them.
@@ -203,14 +201,12 @@ public final class HelpThreadCommand extends SlashCommandAdapter {
     private void resetActivity(SlashCommandInteractionEvent event, ThreadChannel helpThread) {
         refreshCooldownFor(Subcommand.RESET_ACTIVITY, helpThread);
 
-        helpThread.getHistory()
-            .retrievePast(1)
-            .map(messages -> messages.get(0))
-            .queue(lastMessage -> manuallyResetChannelActivityCache.put(helpThread.getIdLong(),
-                    lastMessage.getIdLong()));
+        helper.getActivityTracker().resetThread(helpThread.getIdLong());
 
-        helper.changeChannelActivity(helpThread, HelpSystemHelper.ThreadActivity.LOW);
-        event.reply("Activities have been reset.").queue();
+        event.reply("Activities have been reset.")
+            .flatMap(any -> helper.changeChannelActivity(helpThread,
+                    HelpSystemHelper.ThreadActivity.LOW))
+            .queue();
     }
 
     private static Stream<Subcommand> streamSubcommands() {
@@ -11,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.togetherjava.tjbot.commands.moderation.modmail.ModMailCommand;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.commands.utils.MessageUtils;
 import org.togetherjava.tjbot.config.Config;
 
@@ -330,11 +331,12 @@ public class ModerationUtils {
      *
      * @param guild the guild to get the muted role from
      * @param config the config used to identify the muted role
+     * @param guildEntityResolver the resolver to find the role with
      * @return the muted role, if found
      */
-    public static Optional<Role> getMutedRole(Guild guild, Config config) {
-        Predicate<String> isMutedRole = getIsMutedRolePredicate(config);
-        return guild.getRoles().stream().filter(role -> isMutedRole.test(role.getName())).findAny();
+    public static Optional<Role> getMutedRole(Guild guild, Config config,
+            GuildEntityResolver guildEntityResolver) {
+        return guildEntityResolver.findRole(guild, config.getMutedRolePattern());
     }
 
     /**
@@ -352,14 +354,12 @@ public class ModerationUtils {
      *
      * @param guild the guild to get the quarantined role from
      * @param config the config used to identify the quarantined role
+     * @param guildEntityResolver the resolver to find the role with
      * @return the quarantined role, if found
      */
-    public static Optional<Role> getQuarantinedRole(Guild guild, Config config) {
-        Predicate<String> isQuarantinedRole = getIsQuarantinedRolePredicate(config);
-        return guild.getRoles()
-            .stream()
-            .filter(role -> isQuarantinedRole.test(role.getName()))
-            .findAny();
+    public static Optional<Role> getQuarantinedRole(Guild guild, Config config,
+            GuildEntityResolver guildEntityResolver) {
+        return guildEntityResolver.findRole(guild, config.getQuarantinedRolePattern());
     }
 
     /**
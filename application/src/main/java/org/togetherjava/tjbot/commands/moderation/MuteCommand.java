@@ -14,6 +14,7 @@ import org.slf4j.LoggerFactory;
 
 import org.togetherjava.tjbot.commands.CommandVisibility;
 import org.togetherjava.tjbot.commands.SlashCommandAdapter;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.logging.LogMarkers;
 
@@ -43,14 +44,17 @@ public final class MuteCommand extends SlashCommandAdapter {
             "3 hours", "1 day", "3 days", "7 days", ModerationUtils.PERMANENT_DURATION);
     private final ModerationActionsStore actionsStore;
     private final Config config;
+    private final GuildEntityResolver guildEntityResolver;
 
     /**
      * Constructs an instance.
      *
      * @param actionsStore used to store actions issued by this command
      * @param config the config to use for this
+     * @param guildEntityResolver the resolver to find the muted role with
      */
-    public MuteCommand(ModerationActionsStore actionsStore, Config config) {
+    public MuteCommand(ModerationActionsStore actionsStore, Config config,
+            GuildEntityResolver guildEntityResolver) {
         super(COMMAND_NAME, "Mutes the given user so that they can not send messages anymore",
                 CommandVisibility.GUILD);
 
@@ -63,6 +67,7 @@ public final class MuteCommand extends SlashCommandAdapter {
             .addOption(OptionType.STRING, REASON_OPTION, "Why the user should be muted", true);
 
         this.config = config;
+        this.guildEntityResolver = guildEntityResolver;
         this.actionsStore = Objects.requireNonNull(actionsStore);
     }
 
@@ -107,9 +112,9 @@ public final class MuteCommand extends SlashCommandAdapter {
         actionsStore.addAction(guild.getIdLong(), author.getIdLong(), target.getIdLong(),
                 ModerationAction.MUTE, expiresAt, reason);
 
-        return guild
-            .addRoleToMember(target, ModerationUtils.getMutedRole(guild, config).orElseThrow())
-            .reason(reason);
+        Role mutedRole =
+                ModerationUtils.getMutedRole(guild, config, guildEntityResolver).orElseThrow();
+        return guild.addRoleToMember(target, mutedRole).reason(reason);
     }
 
     private void muteUserFlow(Member target, Member author,
@@ -127,9 +132,10 @@ public final class MuteCommand extends SlashCommandAdapter {
 
     private boolean handleChecks(Member bot, Member author, @Nullable Member target,
             CharSequence reason, Guild guild, IReplyCallback event) {
-        if (!ModerationUtils.handleRoleChangeChecks(
-                ModerationUtils.getMutedRole(guild, config).orElse(null), ACTION_VERB, target, bot,
-                author, guild, reason, event)) {
+        Role mutedRole =
+                ModerationUtils.getMutedRole(guild, config, guildEntityResolver).orElse(null);
+        if (!ModerationUtils.handleRoleChangeChecks(mutedRole, ACTION_VERB, target, bot, author,
+                guild, reason, event)) {
             return false;
         }
         if (Objects.requireNonNull(target)
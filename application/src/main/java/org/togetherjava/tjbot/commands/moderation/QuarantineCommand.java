@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 
 import org.togetherjava.tjbot.commands.CommandVisibility;
 import org.togetherjava.tjbot.commands.SlashCommandAdapter;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.logging.LogMarkers;
 
@@ -36,14 +37,17 @@ public final class QuarantineCommand extends SlashCommandAdapter {
     private static final String ACTION_VERB = "quarantine";
     private final ModerationActionsStore actionsStore;
     private final Config config;
+    private final GuildEntityResolver guildEntityResolver;
 
     /**
      * Constructs an instance.
      *
      * @param actionsStore used to store actions issued by this command
      * @param config the config to use for this
+     * @param guildEntityResolver the resolver to find the quarantined role with
      */
-    public QuarantineCommand(ModerationActionsStore actionsStore, Config config) {
+    public QuarantineCommand(ModerationActionsStore actionsStore, Config config,
+            GuildEntityResolver guildEntityResolver) {
         super(COMMAND_NAME,
                 "Puts the given user under quarantine. They can not interact with anyone anymore then.",
                 CommandVisibility.GUILD);
@@ -54,6 +58,7 @@ public final class QuarantineCommand extends SlashCommandAdapter {
                     true);
 
         this.config = config;
+        this.guildEntityResolver = guildEntityResolver;
         this.actionsStore = Objects.requireNonNull(actionsStore);
     }
 
@@ -92,10 +97,10 @@ public final class QuarantineCommand extends SlashCommandAdapter {
         actionsStore.addAction(guild.getIdLong(), author.getIdLong(), target.getIdLong(),
                 ModerationAction.QUARANTINE, null, reason);
 
-        return guild
-            .addRoleToMember(target,
-                    ModerationUtils.getQuarantinedRole(guild, config).orElseThrow())
-            .reason(reason);
+        Role quarantinedRole =
+                ModerationUtils.getQuarantinedRole(guild, config, guildEntityResolver)
+                    .orElseThrow();
+        return guild.addRoleToMember(target, quarantinedRole).reason(reason);
     }
 
     private void quarantineUserFlow(Member target, Member author, String reason, Guild guild,
@@ -112,9 +117,10 @@ public final class QuarantineCommand extends SlashCommandAdapter {
 
     private boolean handleChecks(Member bot, Member author, @Nullable Member target,
             CharSequence reason, Guild guild, IReplyCallback event) {
-        if (!ModerationUtils.handleRoleChangeChecks(
-                ModerationUtils.getQuarantinedRole(guild, config).orElse(null), ACTION_VERB, target,
-                bot, author, guild, reason, event)) {
+        Role quarantinedRole =
+                ModerationUtils.getQuarantinedRole(guild, config, guildEntityResolver).orElse(null);
+        if (!ModerationUtils.handleRoleChangeChecks(quarantinedRole, ACTION_VERB, target, bot,
+                author, guild, reason, event)) {
             return false;
         }
 
@@ -10,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.togetherjava.tjbot.commands.EventReceiver;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.logging.LogMarkers;
 
@@ -39,16 +40,21 @@ public final class RejoinModerationRoleListener implements EventReceiver {
      * @param actionsStore used to store actions issued by this command and to retrieve whether a
      *        user should be e.g. muted
      * @param config the config to use for this
+     * @param guildEntityResolver the resolver to find the moderation roles with
      */
-    public RejoinModerationRoleListener(ModerationActionsStore actionsStore, Config config) {
+    public RejoinModerationRoleListener(ModerationActionsStore actionsStore, Config config,
+            GuildEntityResolver guildEntityResolver) {
         this.actionsStore = actionsStore;
 
         moderationRoles = List.of(
                 new ModerationRole("mute", ModerationAction.MUTE, ModerationAction.UNMUTE,
-                        guild -> ModerationUtils.getMutedRole(guild, config).orElseThrow()),
+                        guild -> ModerationUtils.getMutedRole(guild, config, guildEntityResolver)
+                            .orElseThrow()),
                 new ModerationRole("quarantine", ModerationAction.QUARANTINE,
                         ModerationAction.UNQUARANTINE,
-                        guild -> ModerationUtils.getQuarantinedRole(guild, config).orElseThrow()));
+                        guild -> ModerationUtils
+                            .getQuarantinedRole(guild, config, guildEntityResolver)
+                            .orElseThrow()));
     }
 
     @Override
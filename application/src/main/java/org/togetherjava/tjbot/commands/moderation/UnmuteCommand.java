@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 
 import org.togetherjava.tjbot.commands.CommandVisibility;
 import org.togetherjava.tjbot.commands.SlashCommandAdapter;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.logging.LogMarkers;
 
@@ -35,14 +36,17 @@ public final class UnmuteCommand extends SlashCommandAdapter {
     private static final String ACTION_VERB = "unmute";
     private final ModerationActionsStore actionsStore;
     private final Config config;
+    private final GuildEntityResolver guildEntityResolver;
 
     /**
      * Constructs an instance.
      *
      * @param actionsStore used to store actions issued by this command
      * @param config the config to use for this
+     * @param guildEntityResolver the resolver to find the muted role with
      */
-    public UnmuteCommand(ModerationActionsStore actionsStore, Config config) {
+    public UnmuteCommand(ModerationActionsStore actionsStore, Config config,
+            GuildEntityResolver guildEntityResolver) {
         super(COMMAND_NAME,
                 "Unmutes the given already muted user so that they can send messages again",
                 CommandVisibility.GUILD);
@@ -51,6 +55,7 @@ public final class UnmuteCommand extends SlashCommandAdapter {
             .addOption(OptionType.STRING, REASON_OPTION, "Why the user should be unmuted", true);
 
         this.config = config;
+        this.guildEntityResolver = guildEntityResolver;
         this.actionsStore = Objects.requireNonNull(actionsStore);
     }
 
@@ -89,9 +94,9 @@ public final class UnmuteCommand extends SlashCommandAdapter {
         actionsStore.addAction(guild.getIdLong(), author.getIdLong(), target.getIdLong(),
                 ModerationAction.UNMUTE, null, reason);
 
-        return guild
-            .removeRoleFromMember(target, ModerationUtils.getMutedRole(guild, config).orElseThrow())
-            .reason(reason);
+        Role mutedRole =
+                ModerationUtils.getMutedRole(guild, config, guildEntityResolver).orElseThrow();
+        return guild.removeRoleFromMember(target, mutedRole).reason(reason);
     }
 
     private void unmuteUserFlow(Member target, Member author, String reason, Guild guild,
@@ -106,9 +111,10 @@ public final class UnmuteCommand extends SlashCommandAdapter {
 
     private boolean handleChecks(Member bot, Member author, @Nullable Member target,
             CharSequence reason, Guild guild, IReplyCallback event) {
-        if (!ModerationUtils.handleRoleChangeChecks(
-                ModerationUtils.getMutedRole(guild, config).orElse(null), ACTION_VERB, target, bot,
-                author, guild, reason, event)) {
+        Role mutedRole =
+                ModerationUtils.getMutedRole(guild, config, guildEntityResolver).orElse(null);
+        if (!ModerationUtils.handleRoleChangeChecks(mutedRole, ACTION_VERB, target, bot, author,
+                guild, reason, event)) {
             return false;
         }
         if (Objects.requireNonNull(target)
@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 
 import org.togetherjava.tjbot.commands.CommandVisibility;
 import org.togetherjava.tjbot.commands.SlashCommandAdapter;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.logging.LogMarkers;
 
@@ -36,14 +37,17 @@ public final class UnquarantineCommand extends SlashCommandAdapter {
     private static final String ACTION_VERB = "unquarantine";
     private final ModerationActionsStore actionsStore;
     private final Config config;
+    private final GuildEntityResolver guildEntityResolver;
 
     /**
      * Constructs an instance.
      *
      * @param actionsStore used to store actions issued by this command
      * @param config the config to use for this
+     * @param guildEntityResolver the resolver to find the quarantined role with
      */
-    public UnquarantineCommand(ModerationActionsStore actionsStore, Config config) {
+    public UnquarantineCommand(ModerationActionsStore actionsStore, Config config,
+            GuildEntityResolver guildEntityResolver) {
         super(COMMAND_NAME,
                 "Unquarantines the given already quarantined user so that they can interact again",
                 CommandVisibility.GUILD);
@@ -55,6 +59,7 @@ public final class UnquarantineCommand extends SlashCommandAdapter {
                     true);
 
         this.config = config;
+        this.guildEntityResolver = guildEntityResolver;
         this.actionsStore = Objects.requireNonNull(actionsStore);
     }
 
@@ -93,10 +98,10 @@ public final class UnquarantineCommand extends SlashCommandAdapter {
         actionsStore.addAction(guild.getIdLong(), author.getIdLong(), target.getIdLong(),
                 ModerationAction.UNQUARANTINE, null, reason);
 
-        return guild
-            .removeRoleFromMember(target,
-                    ModerationUtils.getQuarantinedRole(guild, config).orElseThrow())
-            .reason(reason);
+        Role quarantinedRole =
+                ModerationUtils.getQuarantinedRole(guild, config, guildEntityResolver)
+                    .orElseThrow();
+        return guild.removeRoleFromMember(target, quarantinedRole).reason(reason);
     }
 
     private void unquarantineUserFlow(Member target, Member author, String reason, Guild guild,
@@ -111,9 +116,10 @@ public final class UnquarantineCommand extends SlashCommandAdapter {
 
     private boolean handleChecks(Member bot, Member author, @Nullable Member target,
             CharSequence reason, Guild guild, IReplyCallback event) {
-        if (!ModerationUtils.handleRoleChangeChecks(
-                ModerationUtils.getQuarantinedRole(guild, config).orElse(null), ACTION_VERB, target,
-                bot, author, guild, reason, event)) {
+        Role quarantinedRole =
+                ModerationUtils.getQuarantinedRole(guild, config, guildEntityResolver).orElse(null);
+        if (!ModerationUtils.handleRoleChangeChecks(quarantinedRole, ACTION_VERB, target, bot,
+                author, guild, reason, event)) {
             return false;
         }
 
@@ -0,0 +1,91 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+
+import org.togetherjava.tjbot.commands.MessageReceiverAdapter;
+import org.togetherjava.tjbot.commands.utils.Hashing;
+import org.togetherjava.tjbot.config.Config;
+import org.togetherjava.tjbot.config.ScamBlockerConfig;
+
+import javax.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Listener that receives all sent messages from channels and checks whether an author floods
+ * multiple channels with the same message, as it is typical for compromised accounts spreading
+ * scam.
+ * <p>
+ * Floods are handed over to the {@link ScamBlocker}, which takes the same actions as for detected
+ * scam. Members with the soft moderation role are exempt, since they legitimately post the same
+ * message in multiple channels, for example announcements.
+ */
+public final class FloodBlocker extends MessageReceiverAdapter {
+    private static final Duration FLOOD_WINDOW = Duration.ofSeconds(30);
+    private static final int FLOOD_CHANNEL_THRESHOLD = 5;
+    private static final int MESSAGES_PER_AUTHOR = 16;
+    private static final int AUTHOR_CAPACITY = 8192;
+    /**
+     * Short messages, such as greetings, are commonly posted in multiple channels and are hence
+     * ignored.
+     */
+    private static final int MIN_CONTENT_LENGTH = 16;
+
+    private final ScamBlocker scamBlocker;
+    private final ScamBlockerConfig.Mode mode;
+    private final Predicate<String> isSoftModerationRole;
+    private final FloodDetector floodDetector = new FloodDetector(FLOOD_WINDOW,
+            FLOOD_CHANNEL_THRESHOLD, MESSAGES_PER_AUTHOR, AUTHOR_CAPACITY);
+
+    /**
+     * Creates a new listener to receive all message sent in any channel.
+     *
+     * @param scamBlocker the blocker to hand over detected floods to
+     * @param config the config to use for this
+     */
+    public FloodBlocker(ScamBlocker scamBlocker, Config config) {
+        super(Pattern.compile(".*"));
+
+        this.scamBlocker = scamBlocker;
+        mode = config.getScamBlocker().getMode();
+        isSoftModerationRole =
+                Pattern.compile(config.getSoftModerationRolePattern()).asMatchPredicate();
+    }
+
+    @Override
+    public void onMessageReceived(MessageReceivedEvent event) {
+        if (event.getAuthor().isBot() || event.isWebhookMessage() || !event.isFromGuild()) {
+            return;
+        }
+
+        if (mode == ScamBlockerConfig.Mode.OFF) {
+            return;
+        }
+
+        Message message = event.getMessage();
+        String content = message.getContentRaw();
+        if (content.length() < MIN_CONTENT_LENGTH) {
+            return;
+        }
+
+        List<FloodDetector.FloodMessage> flood = floodDetector.recordMessage(
+                event.getAuthor().getIdLong(), event.getChannel().getIdLong(),
+                message.getIdLong(), Hashing.hash64(content),
+                message.getTimeCreated().toInstant().toEpochMilli());
+        if (!flood.isEmpty() && !isSoftModerator(event.getMember())) {
+            scamBlocker.onFloodDetected(event, flood);
+        }
+    }
+
+    private boolean isSoftModerator(@Nullable Member member) {
+        // Only checked for floods, to not match the roles of every message
+        return member != null
+                && member.getRoles().stream().map(Role::getName).anyMatch(isSoftModerationRole);
+    }
+}
@@ -0,0 +1,206 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.togetherjava.tjbot.commands.utils.Hashing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detects authors flooding multiple channels with the same message in a short time, which is
+ * typical for compromised accounts.
+ * <p>
+ * Messages are recorded using {@link #recordMessage(long, long, long, long, long)}. An author
+ * floods once they sent messages with the same content into at least a certain amount of distinct
+ * channels within a sliding time window.
+ * <p>
+ * Memory is bounded, the detector remembers the recent messages of a fixed amount of authors only.
+ * If more authors are active at the same time, some of them are forgotten early, which is
+ * acceptable since floods are short and intense.
+ * <p>
+ * The detector is thread safe. Slots are guarded by a fixed set of locks, such that messages of
+ * different authors rarely wait for each other.
+ */
+final class FloodDetector {
+    private static final int LOCK_COUNT = 64;
+
+    private final long windowMillis;
+    private final int channelThreshold;
+    private final int messagesPerAuthor;
+
+    /**
+     * Recent messages by author, addressed by the hash of the author id. An author whose slot is
+     * taken by another author is forgotten. Slots are guarded by their lock in {@link #slotLocks}.
+     */
+    private final AuthorActivity[] authorSlots;
+    private final int authorSlotMask;
+    private final Object[] slotLocks = new Object[LOCK_COUNT];
+
+    /**
+     * Creates a new detector.
+     *
+     * @param window the time window in which messages of a flood have to be sent
+     * @param channelThreshold the amount of distinct channels that have to receive the same
+     *        message within the window for it to be a flood
+     * @param messagesPerAuthor the amount of recent messages remembered per author, at least the
+     *        channel threshold
+     * @param authorCapacity the amount of authors remembered at most, rounded up to a power of two
+     */
+    FloodDetector(Duration window, int channelThreshold, int messagesPerAuthor,
+            int authorCapacity) {
+        if (messagesPerAuthor < channelThreshold) {
+            throw new IllegalArgumentException(
+                    "Messages per author (%d) must be at least the channel threshold (%d)"
+                        .formatted(messagesPerAuthor, channelThreshold));
+        }
+
+        windowMillis = window.toMillis();
+        this.channelThreshold = channelThreshold;
+        this.messagesPerAuthor = messagesPerAuthor;
+
+        int slotCount = Integer.highestOneBit(Math.max(1, authorCapacity - 1)) << 1;
+        authorSlots = new AuthorActivity[slotCount];
+        authorSlotMask = slotCount - 1;
+        for (int i = 0; i < slotLocks.length; i++) {
+            slotLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Records the given message and determines whether it is part of a flood.
+     * <p>
+     * Once a flood is detected, all its messages are returned. Further messages of the same flood
+     * are returned by themselves, i.e. each message is returned only once.
+     *
+     * @param authorId the id of the author who sent the message
+     * @param channelId the id of the channel the message was sent in
+     * @param messageId the id of the message
+     * @param contentFingerprint a fingerprint of the messages content, for example
+     *        {@link Hashing#hash64(CharSequence)}
+     * @param sentAtMillis when the message was sent, as milliseconds since the epoch
+     * @return the messages of the flood that have not been returned yet, including the given
+     *         message; empty if the message is not part of a flood
+     */
+    List<FloodMessage> recordMessage(long authorId, long channelId, long messageId,
+            long contentFingerprint, long sentAtMillis) {
+        int slot = (int) Hashing.hash64(authorId) & authorSlotMask;
+
+        synchronized (slotLocks[slot % LOCK_COUNT]) {
+            AuthorActivity activity = authorSlots[slot];
+            if (activity == null) {
+                activity = new AuthorActivity(messagesPerAuthor);
+                authorSlots[slot] = activity;
+            }
+            if (activity.authorId != authorId) {
+                // Forget the previous author of the slot, reusing its buffer
+                activity.reset(authorId);
+            }
+
+            return activity.record(channelId, messageId, contentFingerprint, sentAtMillis);
+        }
+    }
+
+    /**
+     * Recent messages of a single author, as ring buffer of primitive arrays. Changed in place,
+     * guarded by the lock of its slot.
+     */
+    private final class AuthorActivity {
+        private final long[] contentFingerprints;
+        private final long[] channelIds;
+        private final long[] messageIds;
+        private final long[] sentAtMillis;
+        private final boolean[] isReported;
+        private long authorId;
+        private int size;
+        private int nextIndex;
+
+        AuthorActivity(int capacity) {
+            contentFingerprints = new long[capacity];
+            channelIds = new long[capacity];
+            messageIds = new long[capacity];
+            sentAtMillis = new long[capacity];
+            isReported = new boolean[capacity];
+        }
+
+        void reset(long newAuthorId) {
+            authorId = newAuthorId;
+            size = 0;
+            nextIndex = 0;
+        }
+
+        List<FloodMessage> record(long channelId, long messageId, long contentFingerprint,
+                long sentAt) {
+            boolean isFloodReportedAlready = false;
+            int distinctChannels = 1;
+            for (int i = 0; i < size; i++) {
+                if (!isSameContentInWindow(i, contentFingerprint, sentAt)) {
+                    continue;
+                }
+                isFloodReportedAlready |= isReported[i];
+                if (isFirstOccurrenceOfChannel(i, contentFingerprint, sentAt)
+                        && channelIds[i] != channelId) {
+                    distinctChannels++;
+                }
+            }
+
+            int index = add(channelId, messageId, contentFingerprint, sentAt);
+            FloodMessage message = new FloodMessage(channelId, messageId);
+
+            if (isFloodReportedAlready) {
+                isReported[index] = true;
+                return List.of(message);
+            }
+            if (distinctChannels < channelThreshold) {
+                return List.of();
+            }
+
+            List<FloodMessage> flood = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (i != index && isSameContentInWindow(i, contentFingerprint, sentAt)) {
+                    isReported[i] = true;
+                    flood.add(new FloodMessage(channelIds[i], messageIds[i]));
+                }
+            }
+            isReported[index] = true;
+            flood.add(message);
+            return flood;
+        }
+
+        private boolean isSameContentInWindow(int i, long contentFingerprint, long sentAt) {
+            return contentFingerprints[i] == contentFingerprint
+                    && sentAt - sentAtMillis[i] <= windowMillis;
+        }
+
+        private boolean isFirstOccurrenceOfChannel(int i, long contentFingerprint, long sentAt) {
+            for (int j = 0; j < i; j++) {
+                if (channelIds[j] == channelIds[i]
+                        && isSameContentInWindow(j, contentFingerprint, sentAt)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int add(long channelId, long messageId, long contentFingerprint, long sentAt) {
+            int index = nextIndex;
+            contentFingerprints[index] = contentFingerprint;
+            channelIds[index] = channelId;
+            messageIds[index] = messageId;
+            sentAtMillis[index] = sentAt;
+            isReported[index] = false;
+
+            nextIndex = (nextIndex + 1) % contentFingerprints.length;
+            size = Math.min(size + 1, contentFingerprints.length);
+            return index;
+        }
+    }
+
+    /**
+     * A message that is part of a flood.
+     *
+     * @param channelId the id of the channel the message was sent in
+     * @param messageId the id of the message
+     */
+    record FloodMessage(long channelId, long messageId) {
+    }
+}
@@ -0,0 +1,131 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import javax.annotation.Nullable;
+
+import java.net.URI;
+
+/**
+ * Utility to extract the host of URLs, identical to {@link URI#getHost()}.
+ * <p>
+ * Most URLs posted in messages have the simple shape {@code http(s)://host/path?query#fragment}.
+ * Those are handled by a single scan over the URL, without the allocations of parsing a full
+ * {@link URI}. Anything else, for example URLs with a port, user information, non-ASCII characters
+ * or IP addresses, falls back to {@link URI}.
+ */
+final class HostExtractor {
+    private static final String HTTP_PREFIX = "http://";
+    private static final String HTTPS_PREFIX = "https://";
+    /**
+     * Characters that may appear in the path, query and fragment of a URL, besides letters, digits
+     * and escaped octets.
+     */
+    private static final String URL_PUNCTUATION = "-_.!~*'();/?:@&=+$,";
+
+    private HostExtractor() {
+        throw new UnsupportedOperationException("Utility class, construction not supported");
+    }
+
+    /**
+     * Extracts the host of the given URL.
+     *
+     * @param url the URL to extract the host from
+     * @return the host, or {@code null} if the URL is invalid or has no host
+     */
+    @Nullable
+    static String extractHost(String url) {
+        int hostStart;
+        if (url.startsWith(HTTPS_PREFIX)) {
+            hostStart = HTTPS_PREFIX.length();
+        } else if (url.startsWith(HTTP_PREFIX)) {
+            hostStart = HTTP_PREFIX.length();
+        } else {
+            return extractHostWithUri(url);
+        }
+
+        int hostEnd = hostStart;
+        while (hostEnd < url.length() && !isHostEnd(url.charAt(hostEnd))) {
+            hostEnd++;
+        }
+
+        if (!isSimpleHostName(url, hostStart, hostEnd) || !isSimpleRemainder(url, hostEnd)) {
+            return extractHostWithUri(url);
+        }
+        return url.substring(hostStart, hostEnd);
+    }
+
+    @Nullable
+    private static String extractHostWithUri(String url) {
+        try {
+            return URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isHostEnd(char c) {
+        return c == '/' || c == '?' || c == '#';
+    }
+
+    /**
+     * Whether the given part of the URL is a host name consisting of dot-separated labels, each
+     * made of ASCII letters, digits and inner hyphens, where the last label starts with a letter.
+     * Ports, user information, IP addresses and trailing dots are not considered simple.
+     */
+    private static boolean isSimpleHostName(String url, int start, int end) {
+        int labelStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i != end && url.charAt(i) != '.') {
+                char c = url.charAt(i);
+                if (!isAsciiLetterOrDigit(c) && c != '-') {
+                    return false;
+                }
+                continue;
+            }
+
+            if (i == labelStart || url.charAt(labelStart) == '-' || url.charAt(i - 1) == '-') {
+                return false;
+            }
+            labelStart = i + 1;
+        }
+
+        int topLabelStart = url.lastIndexOf('.', end - 1) + 1;
+        return isAsciiLetter(url.charAt(Math.max(topLabelStart, start)));
+    }
+
+    /**
+     * Whether the rest of the URL, after its host, consists of characters that are valid in any
+     * position of the path, query and fragment. That is, the URL is known to be valid without
+     * further parsing.
+     */
+    private static boolean isSimpleRemainder(String url, int start) {
+        boolean hasFragment = false;
+        for (int i = start; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (isAsciiLetterOrDigit(c) || URL_PUNCTUATION.indexOf(c) != -1) {
+                continue;
+            }
+
+            if (c == '#' && !hasFragment) {
+                hasFragment = true;
+            } else if (c == '%' && i + 2 < url.length() && isHexDigit(url.charAt(i + 1))
+                    && isHexDigit(url.charAt(i + 2))) {
+                i += 2;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
@@ -0,0 +1,198 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.togetherjava.tjbot.commands.utils.StringDistances;
+
+import java.util.Collection;
+
+/**
+ * Checks hosts for being similar to a fixed set of keywords, using a bit-parallel edit distance
+ * computation (Myers' algorithm).
+ * <p>
+ * A host is similar to a keyword if any window of the host, with the same length as the keyword,
+ * has an edit distance of at most the configured maximal distance to the keyword. The result is
+ * identical to sliding such a window over the host and computing
+ * {@link StringDistances#editDistance(CharSequence, CharSequence)} for each, but without creating
+ * substrings or distance tables. The computation of a window stops early once it can not end within
+ * the maximal distance anymore.
+ * <p>
+ * Use {@link #compile(Collection, int)} to create an instance, and
+ * {@link #isSimilarToAnyKeyword(CharSequence)} to check hosts. Instances are immutable and
+ * thread-safe.
+ */
+final class HostKeywordMatcher {
+    /**
+     * Keywords up to this length fit into a single bit-vector.
+     */
+    private static final int MAX_BIT_PARALLEL_LENGTH = Long.SIZE;
+    private static final int ASCII_SIZE = 128;
+
+    private final CompiledKeyword[] keywords;
+    private final int maxDistance;
+
+    private HostKeywordMatcher(CompiledKeyword[] keywords, int maxDistance) {
+        this.keywords = keywords;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Compiles the given keywords into a matcher.
+     *
+     * @param keywords the keywords to check for, case-sensitive
+     * @param maxDistance the maximal edit distance for a host window to still be similar to a
+     *        keyword
+     * @return the compiled matcher
+     */
+    static HostKeywordMatcher compile(Collection<String> keywords, int maxDistance) {
+        CompiledKeyword[] compiledKeywords =
+                keywords.stream().map(CompiledKeyword::of).toArray(CompiledKeyword[]::new);
+        return new HostKeywordMatcher(compiledKeywords, maxDistance);
+    }
+
+    /**
+     * Whether the given host is similar to any of the keywords, see the class description for
+     * details.
+     *
+     * @param host the host to check
+     * @return whether any keyword is similar to a window of the host
+     */
+    boolean isSimilarToAnyKeyword(CharSequence host) {
+        for (CompiledKeyword keyword : keywords) {
+            if (isSimilarToKeyword(host, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSimilarToKeyword(CharSequence host, CompiledKeyword keyword) {
+        int keywordLength = keyword.text.length();
+        if (maxDistance < 0 || keywordLength > host.length()) {
+            return false;
+        }
+        if (keywordLength <= maxDistance) {
+            // The distance between two words of same length is at most their length
+            return true;
+        }
+
+        for (int windowStart = 0; windowStart + keywordLength <= host.length(); windowStart++) {
+            if (isWindowWithinDistance(host, windowStart, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isWindowWithinDistance(CharSequence host, int windowStart,
+            CompiledKeyword keyword) {
+        int keywordLength = keyword.text.length();
+        if (!keyword.isBitParallel()) {
+            // Rare, does not fit into a single bit-vector
+            CharSequence window = host.subSequence(windowStart, windowStart + keywordLength);
+            return StringDistances.editDistance(keyword.text, window, maxDistance) <= maxDistance;
+        }
+
+        // Myers' algorithm, in the formulation of Hyyrö, for the global edit distance.
+        // The bit-vectors encode the vertical deltas of the current column of the distance table,
+        // 'positive' and 'negative', the distance itself is tracked for the last row only.
+        long lastRowBit = 1L << (keywordLength - 1);
+        long positiveVertical = -1L;
+        long negativeVertical = 0L;
+        int distance = keywordLength;
+
+        for (int i = 0; i < keywordLength; i++) {
+            long matches = keyword.matchMaskOf(host.charAt(windowStart + i));
+            long verticalCandidates = matches | negativeVertical;
+            long horizontalCandidates =
+                    (((matches & positiveVertical) + positiveVertical) ^ positiveVertical)
+                            | matches;
+            long positiveHorizontal = negativeVertical | ~(horizontalCandidates | positiveVertical);
+            long negativeHorizontal = positiveVertical & horizontalCandidates;
+
+            if ((positiveHorizontal & lastRowBit) != 0) {
+                distance++;
+            } else if ((negativeHorizontal & lastRowBit) != 0) {
+                distance--;
+            }
+
+            // Each remaining character can lower the distance by at most one
+            int remainingCharacters = keywordLength - i - 1;
+            if (distance - remainingCharacters > maxDistance) {
+                return false;
+            }
+
+            // Shifting in a one, since the first row of the table grows by one per column
+            positiveHorizontal = (positiveHorizontal << 1) | 1L;
+            negativeHorizontal <<= 1;
+            positiveVertical = negativeHorizontal | ~(verticalCandidates | positiveHorizontal);
+            negativeVertical = positiveHorizontal & verticalCandidates;
+        }
+
+        return distance <= maxDistance;
+    }
+
+    /**
+     * A keyword with its precomputed match masks. Bit {@code i} of the mask of a character is set
+     * if the keyword has that character at index {@code i}.
+     */
+    private static final class CompiledKeyword {
+        private final String text;
+        private final long[] asciiMatchMasks;
+        /**
+         * Distinct non-ASCII characters of the keyword, with their masks at the same index in
+         * {@link #otherMatchMasks}. Keywords rarely contain any, so a linear search suffices.
+         */
+        private final char[] otherCharacters;
+        private final long[] otherMatchMasks;
+
+        private CompiledKeyword(String text, long[] asciiMatchMasks, char[] otherCharacters,
+                long[] otherMatchMasks) {
+            this.text = text;
+            this.asciiMatchMasks = asciiMatchMasks;
+            this.otherCharacters = otherCharacters;
+            this.otherMatchMasks = otherMatchMasks;
+        }
+
+        static CompiledKeyword of(String text) {
+            if (text.length() > MAX_BIT_PARALLEL_LENGTH) {
+                return new CompiledKeyword(text, null, null, null);
+            }
+
+            long[] asciiMatchMasks = new long[ASCII_SIZE];
+            String otherCharacters = text.chars()
+                .filter(c -> c >= ASCII_SIZE)
+                .distinct()
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString();
+            long[] otherMatchMasks = new long[otherCharacters.length()];
+
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                long bit = 1L << i;
+                if (c < ASCII_SIZE) {
+                    asciiMatchMasks[c] |= bit;
+                } else {
+                    otherMatchMasks[otherCharacters.indexOf(c)] |= bit;
+                }
+            }
+
+            return new CompiledKeyword(text, asciiMatchMasks, otherCharacters.toCharArray(),
+                    otherMatchMasks);
+        }
+
+        boolean isBitParallel() {
+            return asciiMatchMasks != null;
+        }
+
+        long matchMaskOf(char c) {
+            if (c < ASCII_SIZE) {
+                return asciiMatchMasks[c];
+            }
+            for (int i = 0; i < otherCharacters.length; i++) {
+                if (otherCharacters[i] == c) {
+                    return otherMatchMasks[i];
+                }
+            }
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.regex.Pattern;
+
+/**
+ * Checks texts for a fixed set of keywords in a single pass, using an Aho-Corasick automaton.
+ * <p>
+ * Matching is case-insensitive and works on tokens, a keyword only matches if it is contained in
+ * a single token of the text. Tokens are separated by whitespace or commas. The result is identical
+ * to lowercasing each non-blank token and checking whether it contains any of the lowercased
+ * keywords, but without splitting or lowercasing the text.
+ * <p>
+ * Use {@link #compile(Collection)} to create an instance, and
+ * {@link #containsKeyword(CharSequence)} to check texts. Instances are immutable and thread-safe.
+ */
+final class KeywordAutomaton {
+    private static final Pattern TOKENIZER = Pattern.compile("[\\s,]");
+
+    private static final int ROOT = 0;
+    private static final int NO_TRANSITION = -1;
+    private static final long EMPTY_SLOT = -1;
+
+    private static final byte NO_MATCH = 0;
+    /**
+     * The state matched a keyword that consists of whitespace only, or is empty. Such a keyword
+     * only counts if its token also contains non-whitespace, since blank tokens are skipped.
+     */
+    private static final byte MATCH_IF_TOKEN_NOT_BLANK = 1;
+    private static final byte MATCH = 2;
+
+    /**
+     * Transitions of the automaton, in an open-addressing hash table keyed by
+     * {@link #transitionKey(int, char)}.
+     */
+    private final long[] transitionKeys;
+    private final int[] transitionTargets;
+    private final int transitionMask;
+    /**
+     * For each state, the state for the longest proper suffix of its text that is also in the
+     * automaton. Followed if a state has no transition for the next character.
+     */
+    private final int[] failureLinks;
+    /**
+     * For each state, whether it matches a keyword, including keywords matched by suffixes.
+     */
+    private final byte[] matchKinds;
+
+    private KeywordAutomaton(long[] transitionKeys, int[] transitionTargets, int[] failureLinks,
+            byte[] matchKinds) {
+        this.transitionKeys = transitionKeys;
+        this.transitionTargets = transitionTargets;
+        transitionMask = transitionKeys.length - 1;
+        this.failureLinks = failureLinks;
+        this.matchKinds = matchKinds;
+    }
+
+    /**
+     * Compiles the given keywords into an automaton.
+     *
+     * @param keywords the keywords to check for, case-insensitive
+     * @return the compiled automaton
+     */
+    static KeywordAutomaton compile(Collection<String> keywords) {
+        TrieNode root = new TrieNode();
+        for (String keyword : keywords) {
+            String preparedKeyword = keyword.toLowerCase(Locale.US);
+            if (TOKENIZER.matcher(preparedKeyword).find()) {
+                // Can never be contained in a single token
+                continue;
+            }
+
+            TrieNode node = root;
+            for (char c : preparedKeyword.toCharArray()) {
+                node = node.children.computeIfAbsent(c, any -> new TrieNode());
+            }
+            byte matchKind = preparedKeyword.isBlank() ? MATCH_IF_TOKEN_NOT_BLANK : MATCH;
+            node.matchKind = (byte) Math.max(node.matchKind, matchKind);
+        }
+
+        List<TrieNode> nodesInBreadthFirstOrder = linkFailures(root);
+        return flatten(nodesInBreadthFirstOrder);
+    }
+
+    private static List<TrieNode> linkFailures(TrieNode root) {
+        List<TrieNode> visitedNodes = new ArrayList<>();
+        Queue<TrieNode> nodesToVisit = new ArrayDeque<>();
+        root.failure = root;
+        nodesToVisit.add(root);
+
+        while (!nodesToVisit.isEmpty()) {
+            TrieNode node = nodesToVisit.poll();
+            node.id = visitedNodes.size();
+            visitedNodes.add(node);
+
+            node.children.forEach((c, child) -> {
+                child.failure = node == root ? root : findFailure(root, node.failure, c);
+                // Keywords matched by a suffix are also matched by the child
+                child.matchKind = (byte) Math.max(child.matchKind, child.failure.matchKind);
+                nodesToVisit.add(child);
+            });
+        }
+
+        return visitedNodes;
+    }
+
+    private static TrieNode findFailure(TrieNode root, TrieNode candidate, char c) {
+        TrieNode current = candidate;
+        while (true) {
+            TrieNode next = current.children.get(c);
+            if (next != null) {
+                return next;
+            }
+            if (current == root) {
+                return root;
+            }
+            current = current.failure;
+        }
+    }
+
+    private static KeywordAutomaton flatten(List<TrieNode> nodes) {
+        int transitionCount = nodes.stream().mapToInt(node -> node.children.size()).sum();
+        // Load factor of at most 0.5, keeps probe sequences short
+        int tableSize = Integer.highestOneBit(Math.max(1, transitionCount) * 2) * 2;
+        long[] transitionKeys = new long[tableSize];
+        Arrays.fill(transitionKeys, EMPTY_SLOT);
+        int[] transitionTargets = new int[tableSize];
+
+        int[] failureLinks = new int[nodes.size()];
+        byte[] matchKinds = new byte[nodes.size()];
+
+        for (TrieNode node : nodes) {
+            failureLinks[node.id] = node.failure.id;
+            matchKinds[node.id] = node.matchKind;
+
+            node.children.forEach((c, child) -> {
+                long key = transitionKey(node.id, c);
+                int slot = slotOf(key, tableSize - 1);
+                while (transitionKeys[slot] != EMPTY_SLOT) {
+                    slot = (slot + 1) & (tableSize - 1);
+                }
+                transitionKeys[slot] = key;
+                transitionTargets[slot] = child.id;
+            });
+        }
+
+        return new KeywordAutomaton(transitionKeys, transitionTargets, failureLinks, matchKinds);
+    }
+
+    /**
+     * Whether the given text contains any of the keywords, see the class description for details.
+     *
+     * @param text the text to check
+     * @return whether any keyword is contained in a token of the text
+     */
+    boolean containsKeyword(CharSequence text) {
+        if (requiresStringLowercasing(text)) {
+            return containsKeywordLowercasingTokens(text);
+        }
+
+        int state = ROOT;
+        boolean isTokenBlank = true;
+        boolean hasWeakMatch = matchKinds[ROOT] == MATCH_IF_TOKEN_NOT_BLANK;
+
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (isTokenSeparator(c)) {
+                if (hasWeakMatch && !isTokenBlank) {
+                    return true;
+                }
+
+                state = ROOT;
+                isTokenBlank = true;
+                hasWeakMatch = matchKinds[ROOT] == MATCH_IF_TOKEN_NOT_BLANK;
+                i++;
+                continue;
+            }
+
+            int codePoint = Character.codePointAt(text, i);
+            i += Character.charCount(codePoint);
+            isTokenBlank &= Character.isWhitespace(codePoint);
+
+            int lowerCodePoint = Character.toLowerCase(codePoint);
+            if (Character.isBmpCodePoint(lowerCodePoint)) {
+                state = step(state, (char) lowerCodePoint);
+            } else {
+                // Keywords are matched per char, like String#contains does
+                state = step(state, Character.highSurrogate(lowerCodePoint));
+                if (matchKinds[state] == MATCH) {
+                    return true;
+                }
+                hasWeakMatch |= matchKinds[state] == MATCH_IF_TOKEN_NOT_BLANK;
+
+                state = step(state, Character.lowSurrogate(lowerCodePoint));
+            }
+
+            if (matchKinds[state] == MATCH) {
+                return true;
+            }
+            hasWeakMatch |= matchKinds[state] == MATCH_IF_TOKEN_NOT_BLANK;
+        }
+
+        return hasWeakMatch && !isTokenBlank;
+    }
+
+    private static boolean requiresStringLowercasing(CharSequence text) {
+        // Lowercasing the capital dotted I and the capital sigma changes the length or depends on
+        // the context, so they can not be lowercased per code point
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\u0130' || c == '\u03A3') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean containsKeywordLowercasingTokens(CharSequence text) {
+        for (String token : TOKENIZER.split(text)) {
+            if (token.isBlank()) {
+                continue;
+            }
+
+            int state = ROOT;
+            if (matchKinds[state] != NO_MATCH) {
+                return true;
+            }
+            for (char c : token.toLowerCase(Locale.US).toCharArray()) {
+                state = step(state, c);
+                if (matchKinds[state] != NO_MATCH) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the given character separates tokens, i.e. is whitespace or a comma.
+     *
+     * @param c the character to test
+     * @return whether the character separates tokens
+     */
+    static boolean isTokenSeparator(char c) {
+        // Same as the [\s,] of the tokenizer
+        return switch (c) {
+            case ' ', '\t', '\n', '\u000B', '\f', '\r', ',' -> true;
+            default -> false;
+        };
+    }
+
+    private int step(int state, char c) {
+        int current = state;
+        while (true) {
+            int next = transition(current, c);
+            if (next != NO_TRANSITION) {
+                return next;
+            }
+            if (current == ROOT) {
+                return ROOT;
+            }
+            current = failureLinks[current];
+        }
+    }
+
+    private int transition(int state, char c) {
+        long key = transitionKey(state, c);
+        int slot = slotOf(key, transitionMask);
+        while (true) {
+            long slotKey = transitionKeys[slot];
+            if (slotKey == key) {
+                return transitionTargets[slot];
+            }
+            if (slotKey == EMPTY_SLOT) {
+                return NO_TRANSITION;
+            }
+            slot = (slot + 1) & transitionMask;
+        }
+    }
+
+    private static long transitionKey(int state, char c) {
+        return (long) state << Character.SIZE | c;
+    }
+
+    private static int slotOf(long key, int mask) {
+        // Spreads the bits, states and characters are both small and dense numbers
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & mask;
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private TrieNode failure;
+        private byte matchKind = NO_MATCH;
+        private int id;
+    }
+}
@@ -0,0 +1,148 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * In-memory index of {@link SimHash} fingerprints, to find near-duplicates within a maximal
+ * Hamming distance in constant time.
+ * <p>
+ * Fingerprints are added to groups, for example a group per author, and near-duplicates are only
+ * searched within the same group. Each fingerprint carries the time it was seen at, such that only
+ * recent near-duplicates are considered and old entries can be removed.
+ * <p>
+ * The index uses locality-sensitive hashing by splitting fingerprints into bands. If two
+ * fingerprints have a distance of at most {@code d}, they agree in at least one out of
+ * {@code d + 1} bands. So only entries sharing a band with the fingerprint are candidates that have
+ * to be checked, which are found by a hash lookup per band.
+ * <p>
+ * The index is thread safe.
+ *
+ * @param <G> the type of the groups
+ */
+final class NearDuplicateIndex<G> {
+    private final int maxDistance;
+    private final int bandCount;
+
+    private final Map<BandKey<G>, Deque<Entry<G>>> bandToEntries = new HashMap<>();
+    /**
+     * All entries in the order they were added, to remove the oldest first.
+     */
+    private final Queue<Entry<G>> entriesInInsertionOrder = new ArrayDeque<>();
+
+    /**
+     * Creates a new empty index.
+     *
+     * @param maxDistance the maximal Hamming distance for two fingerprints to be near-duplicates,
+     *        between 0 (identical only) and 63
+     */
+    NearDuplicateIndex(int maxDistance) {
+        if (maxDistance < 0 || maxDistance >= Long.SIZE) {
+            throw new IllegalArgumentException(
+                    "The maximal distance must be between 0 and 63, but was " + maxDistance);
+        }
+
+        this.maxDistance = maxDistance;
+        bandCount = maxDistance + 1;
+    }
+
+    /**
+     * Adds the given fingerprint to the index.
+     * <p>
+     * Entries are expected to be added roughly in the order they were seen at. Otherwise, old
+     * entries might stay in the index for longer than needed.
+     *
+     * @param group the group to add the fingerprint to
+     * @param fingerprint the fingerprint to add
+     * @param seenAt when the fingerprint was seen
+     */
+    synchronized void add(G group, long fingerprint, Instant seenAt) {
+        Entry<G> entry = new Entry<>(group, fingerprint, seenAt);
+        entriesInInsertionOrder.add(entry);
+
+        for (int band = 0; band < bandCount; band++) {
+            bandToEntries
+                .computeIfAbsent(bandKeyOf(group, fingerprint, band), any -> new ArrayDeque<>())
+                .add(entry);
+        }
+    }
+
+    /**
+     * Whether the index contains a near-duplicate of the given fingerprint in the given group,
+     * which was seen not earlier than the given time.
+     *
+     * @param group the group to search in
+     * @param fingerprint the fingerprint to search near-duplicates for
+     * @param seenSince the earliest time a near-duplicate may have been seen at
+     * @return whether a near-duplicate is contained
+     */
+    synchronized boolean containsNearDuplicate(G group, long fingerprint, Instant seenSince) {
+        for (int band = 0; band < bandCount; band++) {
+            Deque<Entry<G>> candidates = bandToEntries.get(bandKeyOf(group, fingerprint, band));
+            if (candidates == null) {
+                continue;
+            }
+
+            // Candidates are of the same group already, since it is part of the band key
+            for (Entry<G> candidate : candidates) {
+                boolean isNearDuplicate =
+                        SimHash.hammingDistance(candidate.fingerprint, fingerprint) <= maxDistance;
+                if (isNearDuplicate && !candidate.seenAt.isBefore(seenSince)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all entries that were seen earlier than the given time.
+     *
+     * @param threshold entries seen earlier than this are removed
+     */
+    synchronized void removeSeenBefore(Instant threshold) {
+        while (!entriesInInsertionOrder.isEmpty()
+                && entriesInInsertionOrder.peek().seenAt.isBefore(threshold)) {
+            Entry<G> entry = entriesInInsertionOrder.remove();
+
+            for (int band = 0; band < bandCount; band++) {
+                BandKey<G> bandKey = bandKeyOf(entry.group, entry.fingerprint, band);
+                Deque<Entry<G>> entries = bandToEntries.get(bandKey);
+                // Being the oldest entry overall, it is also the oldest of each of its bands
+                entries.removeFirst();
+                if (entries.isEmpty()) {
+                    bandToEntries.remove(bandKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of entries in the index.
+     *
+     * @return the amount of entries
+     */
+    synchronized int size() {
+        return entriesInInsertionOrder.size();
+    }
+
+    private BandKey<G> bandKeyOf(G group, long fingerprint, int band) {
+        // Bands are of nearly equal width, covering all bits of the fingerprint
+        int bandStart = band * Long.SIZE / bandCount;
+        int bandEnd = (band + 1) * Long.SIZE / bandCount;
+        int bandWidth = bandEnd - bandStart;
+
+        long bandMask = bandWidth == Long.SIZE ? -1L : (1L << bandWidth) - 1;
+        return new BandKey<>(group, band, fingerprint >>> bandStart & bandMask);
+    }
+
+    private record BandKey<G>(G group, int band, long bits) {
+    }
+
+    private record Entry<G>(G group, long fingerprint, Instant seenAt) {
+    }
+}
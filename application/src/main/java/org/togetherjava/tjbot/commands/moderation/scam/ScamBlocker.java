@@ -28,11 +28,14 @@ import org.togetherjava.tjbot.commands.moderation.ModerationAction;
 import org.togetherjava.tjbot.commands.moderation.ModerationActionsStore;
 import org.togetherjava.tjbot.commands.moderation.ModerationUtils;
 import org.togetherjava.tjbot.commands.moderation.modmail.ModMailCommand;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.commands.utils.MessageUtils;
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.config.ScamBlockerConfig;
 import org.togetherjava.tjbot.logging.LogMarkers;
 
+import javax.annotation.Nullable;
+
 import java.awt.Color;
 import java.util.*;
 import java.util.function.Consumer;
@@ -56,12 +59,12 @@ public final class ScamBlocker extends MessageReceiverAdapter implements UserInt
 
     private final ScamBlockerConfig.Mode mode;
     private final String reportChannelPattern;
-    private final Predicate<TextChannel> isReportChannel;
     private final ScamDetector scamDetector;
     private final Config config;
     private final ModerationActionsStore actionsStore;
     private final ScamHistoryStore scamHistoryStore;
     private final Predicate<String> hasRequiredRole;
+    private final GuildEntityResolver guildEntityResolver;
 
     private final ComponentIdInteractor componentIdInteractor;
 
@@ -71,21 +74,21 @@ public final class ScamBlocker extends MessageReceiverAdapter implements UserInt
      * @param actionsStore to store quarantine actions in
      * @param scamHistoryStore to store and retrieve scam history from
      * @param config the config to use for this
+     * @param guildEntityResolver the resolver to find the report channel and the quarantined role
+     *        with
      */
     public ScamBlocker(ModerationActionsStore actionsStore, ScamHistoryStore scamHistoryStore,
-            Config config) {
+            Config config, GuildEntityResolver guildEntityResolver) {
         super(Pattern.compile(".*"));
 
         this.actionsStore = actionsStore;
         this.scamHistoryStore = scamHistoryStore;
         this.config = config;
+        this.guildEntityResolver = guildEntityResolver;
         mode = config.getScamBlocker().getMode();
         scamDetector = new ScamDetector(config);
 
         reportChannelPattern = config.getScamBlocker().getReportChannelPattern();
-        Predicate<String> isReportChannelName =
-                Pattern.compile(reportChannelPattern).asMatchPredicate();
-        isReportChannel = channel -> isReportChannelName.test(channel.getName());
         hasRequiredRole = Pattern.compile(config.getSoftModerationRolePattern()).asMatchPredicate();
 
         componentIdInteractor = new ComponentIdInteractor(getInteractionType(), getName());
@@ -132,17 +135,72 @@ public final class ScamBlocker extends MessageReceiverAdapter implements UserInt
             return;
         }
 
-        if (scamHistoryStore.hasRecentScamDuplicate(message)) {
-            takeActionWasAlreadyReported(event);
+        ScamHistoryStore.ContentFingerprint contentFingerprint =
+                ScamHistoryStore.fingerprintMessageContent(message);
+        if (scamHistoryStore.hasRecentScamDuplicate(message, contentFingerprint)) {
+            takeActionWasAlreadyReported(event, contentFingerprint);
+            return;
+        }
+
+        takeAction(event, contentFingerprint);
+    }
+
+    /**
+     * Handles a message that is part of a flood, as detected by {@link FloodBlocker}. The flood is
+     * treated like scam, i.e. the same actions are taken as if the message was detected as scam.
+     *
+     * @param event the event of the message that is part of the flood
+     * @param flood the messages of the flood that have not been handled yet, including the given
+     *        message
+     */
+    void onFloodDetected(MessageReceivedEvent event, List<FloodDetector.FloodMessage> flood) {
+        Message message = event.getMessage();
+        if (scamDetector.isScam(message.getContentDisplay())) {
+            // Already handled by the regular scam detection
+            return;
+        }
+
+        ScamHistoryStore.ContentFingerprint contentFingerprint =
+                ScamHistoryStore.fingerprintMessageContent(message);
+        boolean wasAlreadyReported =
+                scamHistoryStore.hasRecentScamDuplicate(message, contentFingerprint);
+
+        logger.warn(LogMarkers.SENSITIVE,
+                "Detected a flood of {} messages from user '{}' in guild '{}'.", flood.size(),
+                event.getAuthor().getId(), event.getGuild().getId());
+        addFloodToHistory(event, flood, contentFingerprint);
+
+        if (wasAlreadyReported) {
+            takeActionWasAlreadyReported(event, contentFingerprint);
             return;
         }
+        takeAction(event, contentFingerprint);
+    }
 
-        takeAction(event);
+    private void addFloodToHistory(MessageReceivedEvent event,
+            List<FloodDetector.FloodMessage> flood,
+            ScamHistoryStore.ContentFingerprint contentFingerprint) {
+        Guild guild = event.getGuild();
+        long authorId = event.getAuthor().getIdLong();
+        boolean shouldDeleteMessages = MODES_WITH_IMMEDIATE_DELETION.contains(mode);
+
+        // The message of the event itself is handled like any other scam message
+        flood.stream()
+            .filter(floodMessage -> floodMessage.messageId() != event.getMessageIdLong())
+            .forEach(floodMessage -> {
+                scamHistoryStore.addScam(guild.getIdLong(), floodMessage.channelId(),
+                        floodMessage.messageId(), authorId, contentFingerprint,
+                        shouldDeleteMessages);
+                if (shouldDeleteMessages) {
+                    deleteMessage(guild, floodMessage.channelId(), floodMessage.messageId());
+                }
+            });
     }
 
-    private void takeActionWasAlreadyReported(MessageReceivedEvent event) {
+    private void takeActionWasAlreadyReported(MessageReceivedEvent event,
+            ScamHistoryStore.ContentFingerprint contentFingerprint) {
         // The user recently send the same scam already, and that was already reported and handled
-        addScamToHistory(event);
+        addScamToHistory(event, contentFingerprint);
 
         boolean shouldDeleteMessage = MODES_WITH_IMMEDIATE_DELETION.contains(mode);
         if (shouldDeleteMessage) {
@@ -150,39 +208,46 @@ public final class ScamBlocker extends MessageReceiverAdapter implements UserInt
         }
     }
 
-    private void takeAction(MessageReceivedEvent event) {
+    private void takeAction(MessageReceivedEvent event,
+            ScamHistoryStore.ContentFingerprint contentFingerprint) {
         switch (mode) {
             case OFF -> throw new AssertionError(
                     "The OFF-mode should be detected earlier already to prevent expensive computation");
-            case ONLY_LOG -> takeActionLogOnly(event);
-            case APPROVE_FIRST -> takeActionApproveFirst(event);
+            case ONLY_LOG -> takeActionLogOnly(event, contentFingerprint);
+            case APPROVE_FIRST -> takeActionApproveFirst(event, contentFingerprint);
             case AUTO_DELETE_BUT_APPROVE_QUARANTINE -> takeActionAutoDeleteButApproveQuarantine(
-                    event);
-            case AUTO_DELETE_AND_QUARANTINE -> takeActionAutoDeleteAndQuarantine(event);
+                    event, contentFingerprint);
+            case AUTO_DELETE_AND_QUARANTINE -> takeActionAutoDeleteAndQuarantine(event,
+                    contentFingerprint);
             default -> throw new IllegalArgumentException("Mode not supported: " + mode);
         }
     }
 
-    private void takeActionLogOnly(MessageReceivedEvent event) {
-        addScamToHistory(event);
+    private void takeActionLogOnly(MessageReceivedEvent event,
+            ScamHistoryStore.ContentFingerprint contentFingerprint) {
+        addScamToHistory(event, contentFingerprint);
         logScamMessage(event);
     }
 
-    private void takeActionApproveFirst(MessageReceivedEvent event) {
-        addScamToHistory(event);
+    private void takeActionApproveFirst(MessageReceivedEvent event,
+            ScamHistoryStore.ContentFingerprint contentFingerprint) {
+        addScamToHistory(event, contentFingerprint);
         logScamMessage(event);
-        reportScamMessage(event, "Is this scam?", createConfirmDialog(event));
+        reportScamMessage(event, "Is this scam?", createConfirmDialog(event, contentFingerprint));
     }
 
-    private void takeActionAutoDeleteButApproveQuarantine(MessageReceivedEvent event) {
-        addScamToHistory(event);
+    private void takeActionAutoDeleteButApproveQuarantine(MessageReceivedEvent event,
+            ScamHistoryStore.ContentFingerprint contentFingerprint) {
+        addScamToHistory(event, contentFingerprint);
         logScamMessage(event);
         deleteMessage(event);
-        reportScamMessage(event, "Is this scam? (already deleted)", createConfirmDialog(event));
+        reportScamMessage(event, "Is this scam? (already deleted)",
+                createConfirmDialog(event, contentFingerprint));
     }
 
-    private void takeActionAutoDeleteAndQuarantine(MessageReceivedEvent event) {
-        addScamToHistory(event);
+    private void takeActionAutoDeleteAndQuarantine(MessageReceivedEvent event,
+            ScamHistoryStore.ContentFingerprint contentFingerprint) {
+        addScamToHistory(event, contentFingerprint);
         logScamMessage(event);
         deleteMessage(event);
         quarantineAuthor(event);
@@ -190,8 +255,10 @@ public final class ScamBlocker extends MessageReceiverAdapter implements UserInt
         reportScamMessage(event, "Detected and handled scam", List.of());
     }
 
-    private void addScamToHistory(MessageReceivedEvent event) {
-        scamHistoryStore.addScam(event.getMessage(), MODES_WITH_IMMEDIATE_DELETION.contains(mode));
+    private void addScamToHistory(MessageReceivedEvent event,
+            ScamHistoryStore.ContentFingerprint contentFingerprint) {
+        scamHistoryStore.addScam(event.getMessage(), contentFingerprint,
+                MODES_WITH_IMMEDIATE_DELETION.contains(mode));
     }
 
     private void logScamMessage(MessageReceivedEvent event) {
@@ -205,6 +272,18 @@ public final class ScamBlocker extends MessageReceiverAdapter implements UserInt
         event.getMessage().delete().queue();
     }
 
+    private static void deleteMessage(Guild guild, long channelId, long messageId) {
+        TextChannel channel = guild.getTextChannelById(channelId);
+        if (channel == null) {
+            logger.debug(
+                    "Attempted to delete scam messages, but the channel '{}' does not exist anymore, skipping deleting messages for this channel.",
+                    channelId);
+            return;
+        }
+
+        channel.deleteMessageById(messageId).mapToResult().queue();
+    }
+
     private void quarantineAuthor(MessageReceivedEvent event) {
         quarantineAuthor(event.getGuild(), event.getMember(), event.getJDA().getSelfUser());
     }
@@ -215,11 +294,10 @@ public final class ScamBlocker extends MessageReceiverAdapter implements UserInt
         actionsStore.addAction(guild.getIdLong(), bot.getIdLong(), author.getIdLong(),
                 ModerationAction.QUARANTINE, null, reason);
 
-        guild
-            .addRoleToMember(author,
-                    ModerationUtils.getQuarantinedRole(guild, config).orElseThrow())
-            .reason(reason)
-            .queue();
+        Role quarantinedRole =
+                ModerationUtils.getQuarantinedRole(guild, config, guildEntityResolver)
+                    .orElseThrow();
+        guild.addRoleToMember(author, quarantinedRole).reason(reason).queue();
     }
 
     private void reportScamMessage(MessageReceivedEvent event, String reportTitle,
@@ -274,14 +352,15 @@ public final class ScamBlocker extends MessageReceiverAdapter implements UserInt
     }
 
     private Optional<TextChannel> getReportChannel(Guild guild) {
-        return guild.getTextChannelCache().stream().filter(isReportChannel).findAny();
+        return guildEntityResolver.findTextChannel(guild, reportChannelPattern);
     }
 
-    private List<Button> createConfirmDialog(MessageReceivedEvent event) {
+    private List<Button> createConfirmDialog(MessageReceivedEvent event,
+            ScamHistoryStore.ContentFingerprint contentFingerprint) {
         ComponentIdArguments args = new ComponentIdArguments(mode, event.getGuild().getIdLong(),
                 event.getChannel().getIdLong(), event.getMessageIdLong(),
-                event.getAuthor().getIdLong(),
-                ScamHistoryStore.hashMessageContent(event.getMessage()));
+                event.getAuthor().getIdLong(), Long.toString(contentFingerprint.hash()),
+                contentFingerprint.simHash());
 
         return List.of(Button.success(generateComponentId(args), "Yes"),
                 Button.danger(generateComponentId(args), "No"));
@@ -324,20 +403,12 @@ public final class ScamBlocker extends MessageReceiverAdapter implements UserInt
             dmUser(guild, args.authorId, event.getJDA());
 
             // Delete all messages like this
-            Collection<ScamHistoryStore.ScamIdentification> scamMessages = scamHistoryStore
-                .markScamDuplicatesDeleted(args.guildId, args.authorId, args.contentHash);
-
-            scamMessages.forEach(scamMessage -> {
-                TextChannel channel = guild.getTextChannelById(scamMessage.channelId());
-                if (channel == null) {
-                    logger.debug(
-                            "Attempted to delete scam messages, but the channel '{}' does not exist anymore, skipping deleting messages for this channel.",
-                            scamMessage.channelId());
-                    return;
-                }
+            Collection<ScamHistoryStore.ScamIdentification> scamMessages =
+                    markScamDuplicatesDeleted(args);
 
-                channel.deleteMessageById(scamMessage.messageId()).mapToResult().queue();
-            });
+            Message report = event.getMessage();
+            ScamMessageCleanup.start(guild, scamMessages,
+                    progress -> reportCleanupProgress(report, progress));
         };
 
         Consumer<Throwable> onRetrieveAuthorFailure = new ErrorHandler()
@@ -353,8 +424,62 @@ public final class ScamBlocker extends MessageReceiverAdapter implements UserInt
             .queue(onRetrieveAuthorSuccess, onRetrieveAuthorFailure);
     }
 
+    private static void reportCleanupProgress(Message report,
+            ScamMessageCleanup.Progress progress) {
+        List<MessageEmbed> embeds = report.getEmbeds();
+        if (embeds.isEmpty()) {
+            return;
+        }
+
+        String progressText = "%d of %d deleted".formatted(progress.deletedMessages(),
+                progress.totalMessages());
+        if (progress.failedMessages() != 0) {
+            progressText += " (%d already gone)".formatted(progress.failedMessages());
+        }
+        if (!progress.isDone()) {
+            progressText += ", in progress...";
+        }
+
+        // Based on the embed as originally reported, to replace previous progress
+        MessageEmbed embed = new EmbedBuilder(embeds.get(0))
+            .addField("Scam messages", progressText, false)
+            .build();
+        report.editMessageEmbeds(embed).queue();
+    }
+
+    private Collection<ScamHistoryStore.ScamIdentification> markScamDuplicatesDeleted(
+            ComponentIdArguments args) {
+        // Dialogs created before fingerprints, or before similarity hashes, were introduced
+        if (args.hasLegacyContentHash()) {
+            return scamHistoryStore.markLegacyScamDuplicatesDeleted(args.guildId, args.authorId,
+                    args.contentHash);
+        }
+        long contentHash = Long.parseLong(args.contentHash);
+        if (args.contentSimHash == null) {
+            return scamHistoryStore.markScamDuplicatesDeleted(args.guildId, args.authorId,
+                    contentHash);
+        }
+
+        return scamHistoryStore.markScamDuplicatesDeleted(args.guildId, args.authorId,
+                new ScamHistoryStore.ContentFingerprint(contentHash, args.contentSimHash));
+    }
+
+    /**
+     * Arguments of the buttons of a confirm dialog.
+     * <p>
+     * The content hash is given as text, since dialogs that were created before fingerprints were
+     * introduced carry a legacy content hash instead. Those also do not have a similarity hash.
+     */
     private record ComponentIdArguments(ScamBlockerConfig.Mode mode, long guildId, long channelId,
-            long messageId, long authorId, String contentHash) {
+            long messageId, long authorId, String contentHash, @Nullable Long contentSimHash) {
+        /**
+         * Length of the hexadecimal SHA hashes that were used before fingerprints.
+         */
+        private static final int LEGACY_CONTENT_HASH_LENGTH = 40;
+        /**
+         * Encodes a missing sim hash.
+         */
+        private static final String NO_SIM_HASH = "";
 
         static ComponentIdArguments fromList(List<String> args) {
             ScamBlockerConfig.Mode mode = ScamBlockerConfig.Mode.valueOf(args.get(0));
@@ -363,13 +488,21 @@ public final class ScamBlocker extends MessageReceiverAdapter implements UserInt
             long messageId = Long.parseLong(args.get(3));
             long authorId = Long.parseLong(args.get(4));
             String contentHash = args.get(5);
+            Long contentSimHash = args.size() > 6 && !NO_SIM_HASH.equals(args.get(6))
+                    ? Long.parseLong(args.get(6))
+                    : null;
             return new ComponentIdArguments(mode, guildId, channelId, messageId, authorId,
-                    contentHash);
+                    contentHash, contentSimHash);
+        }
+
+        boolean hasLegacyContentHash() {
+            return contentHash.length() == LEGACY_CONTENT_HASH_LENGTH;
         }
 
         String[] toArray() {
             return new String[] {mode.name(), Long.toString(guildId), Long.toString(channelId),
-                    Long.toString(messageId), Long.toString(authorId), contentHash};
+                    Long.toString(messageId), Long.toString(authorId), contentHash,
+                    contentSimHash == null ? NO_SIM_HASH : Long.toString(contentSimHash)};
         }
     }
 }
@@ -1,13 +1,14 @@
 package org.togetherjava.tjbot.commands.moderation.scam;
 
-import org.togetherjava.tjbot.commands.utils.StringDistances;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.config.ScamBlockerConfig;
 
-import java.net.URI;
-import java.util.Locale;
-import java.util.regex.Pattern;
-
 /**
  * Detects whether a text message classifies as scam or not, using certain heuristics.
  *
@@ -15,8 +16,20 @@ import java.util.regex.Pattern;
  * {@link #isScam(CharSequence)}.
  */
 public final class ScamDetector {
-    private static final Pattern TOKENIZER = Pattern.compile("[\\s,]");
+    private static final Logger logger = LoggerFactory.getLogger(ScamDetector.class);
+    private static final String EVERYONE_PING = "@everyone";
+    private static final int MAX_HOST_VERDICT_CACHE_SIZE = 10_000;
+
     private final ScamBlockerConfig config;
+    private final KeywordAutomaton suspiciousKeywords;
+    private final HostKeywordMatcher suspiciousHostKeywords;
+    /**
+     * Verdicts of recently analyzed hosts, since most messages link to the same few hosts. The
+     * verdicts only depend on the config, which is fixed for the lifetime of a detector. A detector
+     * created for a changed config hence starts with an empty cache.
+     */
+    private final Cache<String, HostVerdict> hostToVerdict =
+            Caffeine.newBuilder().maximumSize(MAX_HOST_VERDICT_CACHE_SIZE).recordStats().build();
 
     /**
      * Creates a new instance with the given configuration
@@ -24,7 +37,20 @@ public final class ScamDetector {
      * @param config the scam blocker config to use
      */
     public ScamDetector(Config config) {
-        this.config = config.getScamBlocker();
+        this(config.getScamBlocker());
+    }
+
+    /**
+     * Creates a new instance with the given scam blocker configuration, for example to replay
+     * messages against a configuration without loading a full {@link Config}.
+     *
+     * @param config the scam blocker config to use
+     */
+    public ScamDetector(ScamBlockerConfig config) {
+        this.config = config;
+        suspiciousKeywords = KeywordAutomaton.compile(config.getSuspiciousKeywords());
+        suspiciousHostKeywords = HostKeywordMatcher.compile(config.getSuspiciousHostKeywords(),
+                config.getIsHostSimilarToKeywordDistanceThreshold());
     }
 
     /**
@@ -34,103 +60,103 @@ public final class ScamDetector {
      * @return Whether the message classifies as scam
      */
     public boolean isScam(CharSequence message) {
+        // All heuristics require a suspicious keyword, the other checks are only needed then
+        if (!suspiciousKeywords.containsKeyword(message)) {
+            return false;
+        }
+
         AnalyseResults results = new AnalyseResults();
-        TOKENIZER.splitAsStream(message).forEach(token -> analyzeToken(token, results));
+        String text = message.toString();
+        int tokenStart = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || KeywordAutomaton.isTokenSeparator(text.charAt(i))) {
+                analyzeToken(text, tokenStart, i, results);
+                tokenStart = i + 1;
+            }
+        }
+
         return isScam(results);
     }
 
-    private boolean isScam(AnalyseResults results) {
-        if (results.pingsEveryone && results.containsSuspiciousKeyword && results.hasUrl) {
+    private static boolean isScam(AnalyseResults results) {
+        if (results.pingsEveryone && results.hasUrl) {
             return true;
         }
-        return results.containsSuspiciousKeyword && results.hasSuspiciousUrl;
+        return results.hasSuspiciousUrl;
     }
 
-    private void analyzeToken(String token, AnalyseResults results) {
-        if (token.isBlank()) {
-            return;
-        }
+    private void analyzeToken(String text, int tokenStart, int tokenEnd, AnalyseResults results) {
+        int tokenLength = tokenEnd - tokenStart;
 
-        if (!results.pingsEveryone && "@everyone".equalsIgnoreCase(token)) {
+        if (!results.pingsEveryone && tokenLength == EVERYONE_PING.length()
+                && text.regionMatches(true, tokenStart, EVERYONE_PING, 0, tokenLength)) {
             results.pingsEveryone = true;
         }
 
-        if (!results.containsSuspiciousKeyword && containsSuspiciousKeyword(token)) {
-            results.containsSuspiciousKeyword = true;
-        }
-
-        if (token.startsWith("http")) {
-            analyzeUrl(token, results);
+        if (text.startsWith("http", tokenStart)) {
+            analyzeUrl(text.substring(tokenStart, tokenEnd), results);
         }
     }
 
     private void analyzeUrl(String url, AnalyseResults results) {
-        String host;
-        try {
-            host = URI.create(url).getHost();
-        } catch (IllegalArgumentException e) {
-            // Invalid urls are not scam
-            return;
-        }
-
+        String host = HostExtractor.extractHost(url);
+        // Invalid urls are not scam
         if (host == null) {
             return;
         }
 
         results.hasUrl = true;
 
-        if (config.getHostWhitelist().contains(host)) {
-            return;
+        HostVerdict verdict = hostToVerdict.get(host, this::analyzeHost);
+        if (verdict.isSuspicious()) {
+            results.hasSuspiciousUrl = true;
         }
+    }
+
+    private HostVerdict analyzeHost(String host) {
+        logger.debug("Analyzing host, verdict cache: {}", hostToVerdict.stats());
 
+        if (config.getHostWhitelist().contains(host)) {
+            return HostVerdict.WHITELISTED;
+        }
         if (config.getHostBlacklist().contains(host)) {
-            results.hasSuspiciousUrl = true;
-            return;
+            return HostVerdict.BLACKLISTED;
         }
-
-        for (String keyword : config.getSuspiciousHostKeywords()) {
-            if (isHostSimilarToKeyword(host, keyword)) {
-                results.hasSuspiciousUrl = true;
-                break;
-            }
+        if (suspiciousHostKeywords.isSimilarToAnyKeyword(host)) {
+            return HostVerdict.SIMILAR_TO_KEYWORD;
         }
+        return HostVerdict.CLEAN;
     }
 
-    private boolean containsSuspiciousKeyword(String token) {
-        String preparedToken = token.toLowerCase(Locale.US);
-
-        return config.getSuspiciousKeywords()
-            .stream()
-            .map(keyword -> keyword.toLowerCase(Locale.US))
-            .anyMatch(preparedToken::contains);
+    /**
+     * Gets statistics of the cache holding the verdicts of analyzed hosts, for example its hit
+     * rate.
+     *
+     * @return the statistics of the host verdict cache
+     */
+    public CacheStats getHostVerdictCacheStats() {
+        return hostToVerdict.stats();
     }
 
-    private boolean isHostSimilarToKeyword(String host, String keyword) {
-        // NOTE This algorithm is far from optimal.
-        // It is good enough for our purpose though and not that complex.
-
-        // Rolling window of keyword-size over host.
-        // If any window has a small distance, it is similar
-        int windowStart = 0;
-        int windowEnd = keyword.length();
-        while (windowEnd <= host.length()) {
-            String window = host.substring(windowStart, windowEnd);
-            int distance = StringDistances.editDistance(keyword, window);
+    private enum HostVerdict {
+        WHITELISTED(false),
+        BLACKLISTED(true),
+        SIMILAR_TO_KEYWORD(true),
+        CLEAN(false);
 
-            if (distance <= config.getIsHostSimilarToKeywordDistanceThreshold()) {
-                return true;
-            }
+        private final boolean isSuspicious;
 
-            windowStart++;
-            windowEnd++;
+        HostVerdict(boolean isSuspicious) {
+            this.isSuspicious = isSuspicious;
         }
 
-        return false;
+        boolean isSuspicious() {
+            return isSuspicious;
+        }
     }
 
     private static class AnalyseResults {
         private boolean pingsEveryone;
-        private boolean containsSuspiciousKeyword;
         private boolean hasUrl;
         private boolean hasSuspiciousUrl;
     }
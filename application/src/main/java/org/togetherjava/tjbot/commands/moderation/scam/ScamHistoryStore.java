@@ -1,17 +1,24 @@
 package org.togetherjava.tjbot.commands.moderation.scam;
 
 import net.dv8tion.jda.api.entities.Message;
-import org.jooq.Result;
+import net.dv8tion.jda.api.utils.TimeUtil;
+import org.jooq.Condition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.togetherjava.tjbot.commands.utils.Hashing;
+import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.db.Database;
 import org.togetherjava.tjbot.db.generated.tables.records.ScamHistoryRecord;
 
-import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
+
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Predicate;
 
 import static org.togetherjava.tjbot.db.generated.tables.ScamHistory.SCAM_HISTORY;
 
@@ -20,81 +27,183 @@ import static org.togetherjava.tjbot.db.generated.tables.ScamHistory.SCAM_HISTOR
  * events and further processing and handling of scam. For example, to delete a group of duplicate
  * scam messages after a moderator confirmed that it actually is scam and decided for an action.
  * <p>
- * Scam has to be added to the store using {@link #addScam(Message, boolean)} and can then be used
- * to determine {@link #hasRecentScamDuplicate(Message)} or for further processing, such as
- * {@link #markScamDuplicatesDeleted(Message)}.
+ * Scam has to be added to the store using {@link #addScam(Message, ContentFingerprint, boolean)}
+ * and can then be used to determine {@link #hasRecentScamDuplicate(Message, ContentFingerprint)}
+ * or for further processing, such as
+ * {@link #markScamDuplicatesDeleted(long, long, ContentFingerprint)}. Messages are identified by
+ * fingerprints of their content, see {@link #fingerprintMessageContent(Message)}. Messages with
+ * nearly identical content, for example differing in a single character only, are considered
+ * duplicates as well.
  * <p>
  * Entries are only kept for a certain amount of time and will be purged regularly by
  * {@link ScamHistoryPurgeRoutine}.
  * <p>
- * The store persists the actions and is thread safe.
+ * The store persists the actions and is thread safe. Recent scam is additionally kept in memory,
+ * such that {@link #hasRecentScamDuplicate(Message, ContentFingerprint)} does not have to query the
+ * database.
  */
 public final class ScamHistoryStore {
-    private final Database database;
+    private static final Logger logger = LoggerFactory.getLogger(ScamHistoryStore.class);
     private static final Duration RECENT_SCAM_DURATION = Duration.ofMinutes(15);
-    private static final String HASH_METHOD = "SHA";
+
+    private final Database database;
+    private final int similarScamDistanceThreshold;
+    /**
+     * Similarity hashes of recent scam, by guild and author. Entries are removed once the scam is
+     * not recent anymore, the database stays the durable log.
+     */
+    private final NearDuplicateIndex<ScamAuthor> recentScam;
 
     /**
      * Creates a new instance.
+     * <p>
+     * Recent scam is loaded from the given database into memory.
      *
      * @param database containing the scam history to work with
+     * @param config the config to use, determines which scam messages are considered duplicates
      */
-    public ScamHistoryStore(Database database) {
+    public ScamHistoryStore(Database database, Config config) {
         this.database = database;
+        similarScamDistanceThreshold = config.getScamBlocker().getSimilarScamDistanceThreshold();
+        recentScam = new NearDuplicateIndex<>(similarScamDistanceThreshold);
+
+        loadRecentScam();
+    }
+
+    private void loadRecentScam() {
+        Instant recentScamThreshold = Instant.now().minus(RECENT_SCAM_DURATION);
+
+        database.read(context -> context.selectFrom(SCAM_HISTORY)
+            .where(SCAM_HISTORY.SENT_AT.greaterOrEqual(recentScamThreshold)
+                // Entries without similarity hash predate it and can not be compared anymore
+                .and(SCAM_HISTORY.CONTENT_SIM_HASH.isNotNull()))
+            .orderBy(SCAM_HISTORY.SENT_AT)
+            .fetch())
+            .forEach(scamHistoryRecord -> recentScam.add(
+                    new ScamAuthor(scamHistoryRecord.getGuildId(),
+                            scamHistoryRecord.getAuthorId()),
+                    scamHistoryRecord.getContentSimHash(), scamHistoryRecord.getSentAt()));
+
+        logger.debug("Loaded {} recent scam messages from the history", recentScam.size());
     }
 
     /**
      * Adds the given scam message to the store.
      *
      * @param scam the message to add
+     * @param contentFingerprint the fingerprint of the messages content, as determined by
+     *        {@link #fingerprintMessageContent(Message)}
      * @param isDeleted whether the message is already, or about to get, deleted
      */
-    public void addScam(Message scam, boolean isDeleted) {
+    public void addScam(Message scam, ContentFingerprint contentFingerprint, boolean isDeleted) {
         Objects.requireNonNull(scam);
 
+        addScam(scam.getGuild().getIdLong(), scam.getChannel().getIdLong(), scam.getIdLong(),
+                scam.getAuthor().getIdLong(), contentFingerprint, isDeleted);
+    }
+
+    /**
+     * Adds the scam message with the given ids to the store.
+     *
+     * @param guildId the id of the guild the message was sent in
+     * @param channelId the id of the channel the message was sent in
+     * @param messageId the id of the message, also determines when it was sent
+     * @param authorId the id of the author who sent the message
+     * @param contentFingerprint the fingerprint of the messages content, as determined by
+     *        {@link #fingerprintMessageContent(Message)}
+     * @param isDeleted whether the message is already, or about to get, deleted
+     */
+    public void addScam(long guildId, long channelId, long messageId, long authorId,
+            ContentFingerprint contentFingerprint, boolean isDeleted) {
+        Instant sentAt = TimeUtil.getTimeCreated(messageId).toInstant();
+
         database.write(context -> context.newRecord(SCAM_HISTORY)
-            .setSentAt(scam.getTimeCreated().toInstant())
-            .setGuildId(scam.getGuild().getIdLong())
-            .setChannelId(scam.getChannel().getIdLong())
-            .setMessageId(scam.getIdLong())
-            .setAuthorId(scam.getAuthor().getIdLong())
-            .setContentHash(hashMessageContent(scam))
+            .setSentAt(sentAt)
+            .setGuildId(guildId)
+            .setChannelId(channelId)
+            .setMessageId(messageId)
+            .setAuthorId(authorId)
+            .setContentFingerprint(contentFingerprint.hash())
+            .setContentSimHash(contentFingerprint.simHash())
             .setIsDeleted(isDeleted)
             .insert());
+
+        recentScam.add(new ScamAuthor(guildId, authorId), contentFingerprint.simHash(), sentAt);
     }
 
     /**
-     * Marks all duplicates to the given scam message (i.e. same guild, author, content, ...) as
-     * deleted.
+     * Marks all duplicates to the given scam message as deleted, including near-duplicates.
      *
-     * @param scam the scam message to mark duplicates for
+     * @param guildId the id of the guild to mark duplicates for
+     * @param authorId the id of the author to mark duplicates for
+     * @param contentFingerprint the fingerprint of the content of the message to mark duplicates
+     *        for, as determined by {@link #fingerprintMessageContent(Message)}
      * @return identifications of all scam messages that have just been marked deleted, which
      *         previously have not been marked accordingly yet
      */
-    public Collection<ScamIdentification> markScamDuplicatesDeleted(Message scam) {
-        return markScamDuplicatesDeleted(scam.getGuild().getIdLong(), scam.getAuthor().getIdLong(),
-                hashMessageContent(scam));
+    public Collection<ScamIdentification> markScamDuplicatesDeleted(long guildId, long authorId,
+            ContentFingerprint contentFingerprint) {
+        Predicate<ScamHistoryRecord> isNearDuplicate = scamHistoryRecord -> {
+            Long simHash = scamHistoryRecord.getContentSimHash();
+            // Entries without similarity hash are only selected if they match exactly
+            return simHash == null || SimHash.hammingDistance(simHash,
+                    contentFingerprint.simHash()) <= similarScamDistanceThreshold;
+        };
+
+        return markScamDuplicatesDeleted(guildId, authorId,
+                SCAM_HISTORY.CONTENT_FINGERPRINT.eq(contentFingerprint.hash())
+                    .or(SCAM_HISTORY.CONTENT_SIM_HASH.isNotNull()),
+                isNearDuplicate);
     }
 
     /**
-     * Marks all duplicates to the given scam message as deleted.
+     * Marks all exact duplicates to the given scam message as deleted. See
+     * {@link #markScamDuplicatesDeleted(long, long, ContentFingerprint)} to also include
+     * near-duplicates.
      *
      * @param guildId the id of the guild to mark duplicates for
      * @param authorId the id of the author to mark duplicates for
-     * @param contentHash a hash identifying the content of the message to mark duplicates for, as
-     *        determined by {@link #hashMessageContent(Message)}
+     * @param contentHash the hash of the content of the message to mark duplicates for, as given
+     *        by {@link ContentFingerprint#hash()}
      * @return identifications of all scam messages that have just been marked deleted, which
      *         previously have not been marked accordingly yet
      */
     public Collection<ScamIdentification> markScamDuplicatesDeleted(long guildId, long authorId,
-            String contentHash) {
+            long contentHash) {
+        return markScamDuplicatesDeleted(guildId, authorId,
+                SCAM_HISTORY.CONTENT_FINGERPRINT.eq(contentHash), any -> true);
+    }
+
+    /**
+     * Marks all duplicates to a scam message that was identified by a legacy content hash as
+     * deleted. Such hashes were used before fingerprints, see
+     * {@link #markScamDuplicatesDeleted(long, long, ContentFingerprint)} instead.
+     *
+     * @param guildId the id of the guild to mark duplicates for
+     * @param authorId the id of the author to mark duplicates for
+     * @param legacyContentHash the legacy hash of the content of the message to mark duplicates
+     *        for, a hexadecimal SHA hash
+     * @return identifications of all scam messages that have just been marked deleted, which
+     *         previously have not been marked accordingly yet
+     */
+    public Collection<ScamIdentification> markLegacyScamDuplicatesDeleted(long guildId,
+            long authorId, String legacyContentHash) {
+        return markScamDuplicatesDeleted(guildId, authorId,
+                SCAM_HISTORY.CONTENT_HASH.eq(legacyContentHash), any -> true);
+    }
+
+    private Collection<ScamIdentification> markScamDuplicatesDeleted(long guildId, long authorId,
+            Condition isDuplicateCandidate, Predicate<ScamHistoryRecord> isDuplicate) {
         return database.writeAndProvide(context -> {
-            Result<ScamHistoryRecord> undeletedDuplicates = context.selectFrom(SCAM_HISTORY)
+            List<ScamHistoryRecord> undeletedDuplicates = context.selectFrom(SCAM_HISTORY)
                 .where(SCAM_HISTORY.GUILD_ID.eq(guildId)
                     .and(SCAM_HISTORY.AUTHOR_ID.eq(authorId))
-                    .and(SCAM_HISTORY.CONTENT_HASH.eq(contentHash))
+                    .and(isDuplicateCandidate)
                     .and(SCAM_HISTORY.IS_DELETED.isFalse()))
-                .fetch();
+                .fetch()
+                .stream()
+                .filter(isDuplicate)
+                .toList();
 
             undeletedDuplicates
                 .forEach(undeletedDuplicate -> undeletedDuplicate.setIsDeleted(true).update());
@@ -105,19 +214,19 @@ public final class ScamHistoryStore {
 
     /**
      * Whether there are recent (a few minutes) duplicates to the given scam message (i.e. same
-     * guild, author, content, ...).
+     * guild, author, nearly identical content, ...).
      *
      * @param scam the scam message to look for duplicates
+     * @param contentFingerprint the fingerprint of the messages content, as determined by
+     *        {@link #fingerprintMessageContent(Message)}
      * @return whether there are recent duplicates
      */
-    public boolean hasRecentScamDuplicate(Message scam) {
+    public boolean hasRecentScamDuplicate(Message scam, ContentFingerprint contentFingerprint) {
         Instant recentScamThreshold = Instant.now().minus(RECENT_SCAM_DURATION);
+        recentScam.removeSeenBefore(recentScamThreshold);
 
-        return database.read(context -> context.fetchCount(SCAM_HISTORY,
-                SCAM_HISTORY.SENT_AT.greaterOrEqual(recentScamThreshold)
-                    .and(SCAM_HISTORY.GUILD_ID.eq(scam.getGuild().getIdLong()))
-                    .and(SCAM_HISTORY.AUTHOR_ID.eq(scam.getAuthor().getIdLong()))
-                    .and(SCAM_HISTORY.CONTENT_HASH.eq(hashMessageContent(scam))))) != 0;
+        return recentScam.containsNearDuplicate(ScamAuthor.of(scam), contentFingerprint.simHash(),
+                recentScamThreshold);
     }
 
     /**
@@ -132,14 +241,32 @@ public final class ScamHistoryStore {
     }
 
     /**
-     * Hashes the content of the given message to uniquely identify it.
-     * 
-     * @param message the message to hash
-     * @return a text representation of the hash
+     * Computes fingerprints of the content of the given message to identify it.
+     * <p>
+     * The fingerprints are fast, non-cryptographic hashes. They should be computed only once per
+     * message and then be passed along.
+     *
+     * @param message the message to fingerprint
+     * @return the fingerprints of the messages content
+     */
+    public static ContentFingerprint fingerprintMessageContent(Message message) {
+        String content = message.getContentRaw();
+        return new ContentFingerprint(Hashing.hash64(content), SimHash.of(content));
+    }
+
+    private record ScamAuthor(long guildId, long authorId) {
+        static ScamAuthor of(Message scam) {
+            return new ScamAuthor(scam.getGuild().getIdLong(), scam.getAuthor().getIdLong());
+        }
+    }
+
+    /**
+     * Fingerprints of the content of a message, see {@link #fingerprintMessageContent(Message)}.
+     *
+     * @param hash a hash of the content, identical for identical content only
+     * @param simHash a locality-sensitive hash of the content, similar for similar content
      */
-    public static String hashMessageContent(Message message) {
-        return Hashing.bytesToHex(Hashing.hash(HASH_METHOD,
-                message.getContentRaw().getBytes(StandardCharsets.UTF_8)));
+    public record ContentFingerprint(long hash, long simHash) {
     }
 
     /**
@@ -149,14 +276,15 @@ public final class ScamHistoryStore {
      * @param channelId the id of the channel the message was sent in
      * @param messageId the id of the message itself
      * @param authorId the id of the author who sent the message
-     * @param contentHash the unique hash of the message content
+     * @param contentFingerprint the hash of the message content, {@code null} for legacy
+     *        entries that were recorded before fingerprints were introduced
      */
     public record ScamIdentification(long guildId, long channelId, long messageId, long authorId,
-            String contentHash) {
+            @Nullable Long contentFingerprint) {
         private static ScamIdentification ofDatabaseRecord(ScamHistoryRecord scamHistoryRecord) {
             return new ScamIdentification(scamHistoryRecord.getGuildId(),
                     scamHistoryRecord.getChannelId(), scamHistoryRecord.getMessageId(),
-                    scamHistoryRecord.getAuthorId(), scamHistoryRecord.getContentHash());
+                    scamHistoryRecord.getAuthorId(), scamHistoryRecord.getContentFingerprint());
         }
     }
 }
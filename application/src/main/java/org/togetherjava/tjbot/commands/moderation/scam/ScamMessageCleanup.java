@@ -0,0 +1,135 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes scam messages in bulk, grouped by the channels they were sent in.
+ * <p>
+ * Messages of a channel are deleted using {@link TextChannel#purgeMessagesById(long...)}, which
+ * bulk-deletes up to 100 messages per request if they are younger than two weeks and falls back to
+ * deleting older messages one by one. Channels are processed one after another, such that a spam
+ * wave does not flood the rate-limited REST API with hundreds of requests at once.
+ * <p>
+ * The progress is reported after each channel, for example to display it to moderators.
+ */
+final class ScamMessageCleanup {
+    private static final Logger logger = LoggerFactory.getLogger(ScamMessageCleanup.class);
+
+    private final Guild guild;
+    private final Queue<Map.Entry<Long, List<Long>>> pendingChannels;
+    private final Consumer<Progress> onProgress;
+    private final int totalMessages;
+    private int processedMessages;
+    private int failedMessages;
+
+    private ScamMessageCleanup(Guild guild, Map<Long, List<Long>> channelToMessageIds,
+            int totalMessages, Consumer<Progress> onProgress) {
+        this.guild = guild;
+        pendingChannels = new ArrayDeque<>(channelToMessageIds.entrySet());
+        this.totalMessages = totalMessages;
+        this.onProgress = onProgress;
+    }
+
+    /**
+     * Starts deleting the given scam messages in the background.
+     *
+     * @param guild the guild the messages were sent in
+     * @param scamMessages the messages to delete
+     * @param onProgress invoked after the messages of each channel have been processed, the last
+     *        invocation is {@link Progress#isDone() done}
+     */
+    static void start(Guild guild, Collection<ScamHistoryStore.ScamIdentification> scamMessages,
+            Consumer<Progress> onProgress) {
+        if (scamMessages.isEmpty()) {
+            onProgress.accept(new Progress(0, 0, 0));
+            return;
+        }
+
+        Map<Long, List<Long>> channelToMessageIds = scamMessages.stream()
+            .collect(Collectors.groupingBy(ScamHistoryStore.ScamIdentification::channelId,
+                    LinkedHashMap::new, Collectors.mapping(
+                            ScamHistoryStore.ScamIdentification::messageId, Collectors.toList())));
+
+        new ScamMessageCleanup(guild, channelToMessageIds, scamMessages.size(), onProgress)
+            .cleanupNextChannel();
+    }
+
+    private void cleanupNextChannel() {
+        Map.Entry<Long, List<Long>> channelMessages = pendingChannels.poll();
+        if (channelMessages == null) {
+            return;
+        }
+
+        long channelId = channelMessages.getKey();
+        List<Long> messageIds = channelMessages.getValue();
+
+        TextChannel channel = guild.getTextChannelById(channelId);
+        if (channel == null) {
+            logger.debug(
+                    "Attempted to delete scam messages, but the channel '{}' does not exist anymore, skipping deleting messages for this channel.",
+                    channelId);
+            onChannelProcessed(messageIds.size(), messageIds.size());
+            return;
+        }
+
+        List<CompletableFuture<Void>> deletions = channel
+            .purgeMessagesById(messageIds.stream().mapToLong(Long::longValue).toArray());
+        CompletableFuture.allOf(deletions.toArray(CompletableFuture[]::new))
+            .whenComplete((any, failure) -> {
+                // Messages might have been deleted by someone else already
+                int failedDeletions = (int) deletions.stream()
+                    .filter(CompletableFuture::isCompletedExceptionally)
+                    .count();
+                onChannelProcessed(messageIds.size(), failedDeletions);
+            });
+    }
+
+    private void onChannelProcessed(int processed, int failed) {
+        processedMessages += processed;
+        failedMessages += failed;
+        onProgress.accept(new Progress(processedMessages, failedMessages, totalMessages));
+
+        cleanupNextChannel();
+    }
+
+    /**
+     * Progress of a cleanup.
+     *
+     * @param processedMessages the amount of messages processed so far, including failed ones
+     * @param failedMessages the amount of messages that could not be deleted, for example because
+     *        they were already deleted
+     * @param totalMessages the total amount of messages to delete
+     */
+    record Progress(int processedMessages, int failedMessages, int totalMessages) {
+        /**
+         * Whether all messages have been processed.
+         *
+         * @return whether the cleanup is done
+         */
+        boolean isDone() {
+            return processedMessages == totalMessages;
+        }
+
+        /**
+         * Gets the amount of messages that were actually deleted so far.
+         *
+         * @return the amount of deleted messages
+         */
+        int deletedMessages() {
+            return processedMessages - failedMessages;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.togetherjava.tjbot.commands.utils.Hashing;
+
+/**
+ * Utility for computing SimHash fingerprints of texts, which are locality-sensitive.
+ * <p>
+ * Unlike regular hashes, fingerprints of similar texts are similar as well. That is, if a text is
+ * only changed slightly, for example by replacing a single character, most bits of the fingerprint
+ * stay the same. The similarity of two texts can hence be estimated by the
+ * {@link #hammingDistance(long, long) Hamming distance} of their fingerprints.
+ * <p>
+ * The fingerprint is computed over overlapping shingles of a few characters of the text, after
+ * normalizing it. Texts that only differ in case or whitespace have the same fingerprint.
+ */
+final class SimHash {
+    /**
+     * Amount of characters per shingle. Four characters fit into a single {@code long}.
+     */
+    private static final int SHINGLE_LENGTH = 4;
+
+    private SimHash() {
+        throw new UnsupportedOperationException("Utility class, construction not supported");
+    }
+
+    /**
+     * Computes the fingerprint of the given text.
+     *
+     * @param text the text to compute the fingerprint of
+     * @return the fingerprint of the text
+     */
+    static long of(CharSequence text) {
+        int[] bitWeights = new int[Long.SIZE];
+        long shingle = 0;
+        int normalizedLength = 0;
+        boolean isAfterWhitespace = true;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                isAfterWhitespace = true;
+                continue;
+            }
+            if (isAfterWhitespace && normalizedLength != 0) {
+                // Any whitespace between words is normalized to a single space
+                shingle = shingle << Character.SIZE | ' ';
+                normalizedLength++;
+                addShingle(shingle, normalizedLength, bitWeights);
+            }
+            isAfterWhitespace = false;
+
+            shingle = shingle << Character.SIZE | Character.toLowerCase(c);
+            normalizedLength++;
+            addShingle(shingle, normalizedLength, bitWeights);
+        }
+
+        if (normalizedLength == 0) {
+            return 0;
+        }
+        if (normalizedLength < SHINGLE_LENGTH) {
+            // Too short for a full shingle, the whole text is used instead
+            addHash(Hashing.hash64(shingle), bitWeights);
+        }
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (bitWeights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    private static void addShingle(long shingle, int normalizedLength, int[] bitWeights) {
+        if (normalizedLength >= SHINGLE_LENGTH) {
+            addHash(Hashing.hash64(shingle), bitWeights);
+        }
+    }
+
+    private static void addHash(long hash, int[] bitWeights) {
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            bitWeights[bit] += (hash >>> bit & 1) == 1 ? 1 : -1;
+        }
+    }
+
+    /**
+     * Computes the Hamming distance between the given fingerprints, i.e. the amount of bits that
+     * differ.
+     *
+     * @param first the first fingerprint
+     * @param second the second fingerprint
+     * @return the Hamming distance, between 0 (identical) and 64
+     */
+    static int hammingDistance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+}
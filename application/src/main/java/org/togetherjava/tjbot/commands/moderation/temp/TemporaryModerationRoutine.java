@@ -11,6 +11,7 @@ import org.togetherjava.tjbot.commands.Routine;
 import org.togetherjava.tjbot.commands.moderation.ActionRecord;
 import org.togetherjava.tjbot.commands.moderation.ModerationAction;
 import org.togetherjava.tjbot.commands.moderation.ModerationActionsStore;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.logging.LogMarkers;
 
@@ -43,14 +44,16 @@ public final class TemporaryModerationRoutine implements Routine {
      * @param jda the JDA instance to use to send messages and retrieve information
      * @param actionsStore the store used to retrieve temporary moderation actions
      * @param config the config to use for this
+     * @param guildEntityResolver the resolver to find moderation roles with
      */
-    public TemporaryModerationRoutine(JDA jda, ModerationActionsStore actionsStore, Config config) {
+    public TemporaryModerationRoutine(JDA jda, ModerationActionsStore actionsStore, Config config,
+            GuildEntityResolver guildEntityResolver) {
         this.actionsStore = actionsStore;
         this.jda = jda;
 
         typeToRevocableAction = Stream
-            .of(new TemporaryBanAction(), new TemporaryMuteAction(config),
-                    new TemporaryQuarantineAction(config))
+            .of(new TemporaryBanAction(), new TemporaryMuteAction(config, guildEntityResolver),
+                    new TemporaryQuarantineAction(config, guildEntityResolver))
             .collect(
                     Collectors.toMap(RevocableModerationAction::getApplyType, Function.identity()));
     }
@@ -1,11 +1,13 @@
 package org.togetherjava.tjbot.commands.moderation.temp;
 
 import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.requests.RestAction;
 
 import org.togetherjava.tjbot.commands.moderation.ModerationAction;
 import org.togetherjava.tjbot.commands.moderation.ModerationUtils;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.config.Config;
 
 /**
@@ -15,16 +17,19 @@ import org.togetherjava.tjbot.config.Config;
  */
 final class TemporaryMuteAction extends RevocableRoleBasedAction {
     private final Config config;
+    private final GuildEntityResolver guildEntityResolver;
 
     /**
      * Creates a new instance of a temporary mute action.
      * 
      * @param config the config to use to identify the muted role
+     * @param guildEntityResolver the resolver to find the muted role with
      */
-    TemporaryMuteAction(Config config) {
+    TemporaryMuteAction(Config config, GuildEntityResolver guildEntityResolver) {
         super("mute");
 
         this.config = config;
+        this.guildEntityResolver = guildEntityResolver;
     }
 
     @Override
@@ -39,8 +44,8 @@ final class TemporaryMuteAction extends RevocableRoleBasedAction {
 
     @Override
     public RestAction<Void> revokeAction(Guild guild, User target, String reason) {
-        return guild
-            .removeRoleFromMember(target, ModerationUtils.getMutedRole(guild, config).orElseThrow())
-            .reason(reason);
+        Role mutedRole =
+                ModerationUtils.getMutedRole(guild, config, guildEntityResolver).orElseThrow();
+        return guild.removeRoleFromMember(target, mutedRole).reason(reason);
     }
 }
@@ -1,11 +1,13 @@
 package org.togetherjava.tjbot.commands.moderation.temp;
 
 import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.requests.RestAction;
 
 import org.togetherjava.tjbot.commands.moderation.ModerationAction;
 import org.togetherjava.tjbot.commands.moderation.ModerationUtils;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.config.Config;
 
 /**
@@ -15,16 +17,19 @@ import org.togetherjava.tjbot.config.Config;
  */
 final class TemporaryQuarantineAction extends RevocableRoleBasedAction {
     private final Config config;
+    private final GuildEntityResolver guildEntityResolver;
 
     /**
      * Creates a new instance of a temporary quarantine action.
      *
      * @param config the config to use to identify the quarantined role
+     * @param guildEntityResolver the resolver to find the quarantined role with
      */
-    TemporaryQuarantineAction(Config config) {
+    TemporaryQuarantineAction(Config config, GuildEntityResolver guildEntityResolver) {
         super("quarantine");
 
         this.config = config;
+        this.guildEntityResolver = guildEntityResolver;
     }
 
     @Override
@@ -39,9 +44,9 @@ final class TemporaryQuarantineAction extends RevocableRoleBasedAction {
 
     @Override
     public RestAction<Void> revokeAction(Guild guild, User target, String reason) {
-        return guild
-            .removeRoleFromMember(target,
-                    ModerationUtils.getQuarantinedRole(guild, config).orElseThrow())
-            .reason(reason);
+        Role quarantinedRole =
+                ModerationUtils.getQuarantinedRole(guild, config, guildEntityResolver)
+                    .orElseThrow();
+        return guild.removeRoleFromMember(target, quarantinedRole).reason(reason);
     }
 }
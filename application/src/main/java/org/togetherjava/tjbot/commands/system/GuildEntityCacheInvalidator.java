@@ -0,0 +1,75 @@
+package org.togetherjava.tjbot.commands.system;
+
+import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.GenericChannelEvent;
+import net.dv8tion.jda.api.events.channel.update.GenericChannelUpdateEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.role.RoleCreateEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.GenericRoleUpdateEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+
+import org.togetherjava.tjbot.commands.EventReceiver;
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
+
+/**
+ * Invalidates the cached channels and roles of {@link GuildEntityResolver} whenever channels or
+ * roles of a guild are created, deleted or changed.
+ */
+public final class GuildEntityCacheInvalidator extends ListenerAdapter implements EventReceiver {
+    private final GuildEntityResolver guildEntityResolver;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param guildEntityResolver the resolver to invalidate
+     */
+    public GuildEntityCacheInvalidator(GuildEntityResolver guildEntityResolver) {
+        this.guildEntityResolver = guildEntityResolver;
+    }
+
+    @Override
+    public void onChannelCreate(ChannelCreateEvent event) {
+        invalidateIfRelevant(event);
+    }
+
+    @Override
+    public void onChannelDelete(ChannelDeleteEvent event) {
+        invalidateIfRelevant(event);
+    }
+
+    @Override
+    public void onGenericChannelUpdate(GenericChannelUpdateEvent<?> event) {
+        invalidateIfRelevant(event);
+    }
+
+    @Override
+    public void onRoleCreate(RoleCreateEvent event) {
+        guildEntityResolver.invalidate(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onRoleDelete(RoleDeleteEvent event) {
+        guildEntityResolver.invalidate(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGenericRoleUpdate(GenericRoleUpdateEvent<?> event) {
+        guildEntityResolver.invalidate(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        guildEntityResolver.invalidate(event.getGuild().getIdLong());
+    }
+
+    private void invalidateIfRelevant(GenericChannelEvent event) {
+        // Threads are created and updated all the time, but are never resolved
+        if (!event.isFromGuild() || event.getChannelType().isThread()) {
+            return;
+        }
+
+        guildEntityResolver.invalidate(event.getGuild().getIdLong());
+    }
+}
@@ -20,7 +20,6 @@ import org.togetherjava.tjbot.commands.CommandVisibility;
 import org.togetherjava.tjbot.commands.SlashCommandAdapter;
 import org.togetherjava.tjbot.commands.utils.LinkPreview;
 import org.togetherjava.tjbot.commands.utils.LinkPreviews;
-import org.togetherjava.tjbot.commands.utils.StringDistances;
 
 import java.time.Instant;
 import java.util.*;
@@ -64,8 +63,8 @@ public final class TagCommand extends SlashCommandAdapter {
                     "Unexpected option, was: " + focusedOption.getName());
         }
 
-        Collection<Command.Choice> choices = StringDistances
-            .closeMatches(focusedOption.getValue(), tagSystem.getAllIds(), MAX_SUGGESTIONS)
+        Collection<Command.Choice> choices = tagSystem
+            .getCloseMatchingIds(focusedOption.getValue(), MAX_SUGGESTIONS)
             .stream()
             .map(id -> new Command.Choice(id, id))
             .toList();
@@ -78,11 +77,13 @@ public final class TagCommand extends SlashCommandAdapter {
         String id = event.getOption(ID_OPTION).getAsString();
         OptionMapping replyToUserOption = event.getOption(REPLY_TO_USER_OPTION);
 
-        if (tagSystem.handleIsUnknownTag(id, event)) {
+        Optional<String> maybeTagContent = tagSystem.getTag(id);
+        if (maybeTagContent.isEmpty()) {
+            tagSystem.replyUnknownTag(id, event);
             return;
         }
 
-        String tagContent = tagSystem.getTag(id).orElseThrow();
+        String tagContent = maybeTagContent.orElseThrow();
         MessageEmbed contentEmbed = new EmbedBuilder().setDescription(tagContent)
             .setFooter(event.getUser().getName() + " • used " + event.getCommandString())
             .setTimestamp(Instant.now())
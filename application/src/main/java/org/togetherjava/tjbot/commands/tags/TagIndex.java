@@ -0,0 +1,383 @@
+package org.togetherjava.tjbot.commands.tags;
+
+import org.togetherjava.tjbot.commands.utils.StringDistances;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * In-memory index of tag ids, to suggest tags without querying the database.
+ * <p>
+ * The ids are kept in a prefix trie. Suggestions are computed in a single walk over the trie, where
+ * ids with a common prefix share the edit distance computation for it and subtrees that can not
+ * contain good enough matches are skipped. The results are identical to
+ * {@link StringDistances#closeMatches(CharSequence, Collection, int)} and
+ * {@link StringDistances#closestMatch(CharSequence, Collection)}, except for ties of the latter,
+ * which are broken deterministically.
+ * <p>
+ * The index is thread safe.
+ */
+final class TagIndex {
+    private final TrieNode trieRoot = new TrieNode();
+    private int size;
+
+    /**
+     * Creates an index of the given ids.
+     *
+     * @param ids the ids to index
+     */
+    TagIndex(Collection<String> ids) {
+        ids.forEach(this::add);
+    }
+
+    /**
+     * Adds the given id to the index, if it is not indexed yet.
+     *
+     * @param id the id to add
+     */
+    synchronized void add(String id) {
+        TrieNode node = trieRoot;
+        node.includeIdLength(id.length());
+        for (int i = 0; i < id.length(); i++) {
+            node = node.getOrAddChild(id.charAt(i));
+            node.includeIdLength(id.length());
+        }
+        if (node.id == null) {
+            node.id = id;
+            size++;
+        }
+    }
+
+    /**
+     * Removes the given id from the index, if it is indexed.
+     *
+     * @param id the id to remove
+     */
+    synchronized void remove(String id) {
+        if (removeFromTrie(trieRoot, id, 0)) {
+            size--;
+        }
+    }
+
+    /**
+     * Gives sorted suggestions to autocomplete the given prefix with the indexed ids, identical to
+     * {@link StringDistances#closeMatches(CharSequence, Collection, int)}.
+     *
+     * @param prefix the prefix to give matches for
+     * @param limit number of matches to generate at max
+     * @return the matches closest to the given prefix, limited to the given limit
+     */
+    synchronized Collection<String> closeMatches(CharSequence prefix, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("The limit must not be negative, but was " + limit);
+        }
+        if (limit == 0 || size == 0) {
+            return List.of();
+        }
+
+        return new PrefixSearch(prefix, limit).run();
+    }
+
+    /**
+     * Gets the indexed id that is closest to the given query by edit distance. Ties are broken by
+     * picking the lexicographically smallest id.
+     *
+     * @param query the query to find a match for
+     * @return the closest id, or empty iff no ids are indexed
+     */
+    synchronized Optional<String> closestMatch(CharSequence query) {
+        if (size == 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new ClosestSearch(query).run());
+    }
+
+    /**
+     * Gets the amount of indexed ids.
+     *
+     * @return the amount of indexed ids
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private static boolean removeFromTrie(TrieNode node, String id, int depth) {
+        if (depth == id.length()) {
+            if (node.id == null) {
+                return false;
+            }
+            node.id = null;
+            node.updateIdLengths();
+            return true;
+        }
+
+        int childIndex = node.indexOfChild(id.charAt(depth));
+        if (childIndex < 0 || !removeFromTrie(node.children[childIndex], id, depth + 1)) {
+            return false;
+        }
+        // Prune branches that lead to no id anymore
+        TrieNode child = node.children[childIndex];
+        if (child.id == null && child.childCount == 0) {
+            node.removeChild(childIndex);
+        }
+        node.updateIdLengths();
+        return true;
+    }
+
+    /**
+     * A single walk over the trie, depth-first in lexicographical order, that computes the edit
+     * distances of a query to the ids.
+     * <p>
+     * Each trie node at depth {@code y} carries a column of the edit distance table, where entry
+     * {@code x} is the edit distance between the first {@code x} characters of the query and the
+     * first {@code y} characters of the ids below the node, i.e. the path to the node. Entries of
+     * columns further down are never smaller than the minimum of the column, which allows skipping
+     * subtrees.
+     */
+    private abstract static class TrieWalk {
+        final CharSequence query;
+        /**
+         * Columns of the edit distance table, by depth, reused between nodes.
+         */
+        private final List<int[]> columns = new ArrayList<>();
+
+        TrieWalk(CharSequence query) {
+            this.query = query;
+
+            int[] firstColumn = new int[query.length() + 1];
+            for (int x = 0; x < firstColumn.length; x++) {
+                firstColumn[x] = x;
+            }
+            columns.add(firstColumn);
+        }
+
+        int[] getColumn(int depth) {
+            return columns.get(depth);
+        }
+
+        int[] computeColumn(int depth, char c) {
+            if (columns.size() == depth) {
+                columns.add(new int[query.length() + 1]);
+            }
+            int[] previous = columns.get(depth - 1);
+            int[] column = columns.get(depth);
+
+            column[0] = depth;
+            for (int x = 1; x < column.length; x++) {
+                int substitutionCost = query.charAt(x - 1) == c ? 0 : 1;
+                column[x] = Math.min(previous[x - 1] + substitutionCost,
+                        Math.min(previous[x], column[x - 1]) + 1);
+            }
+            return column;
+        }
+
+        static int minOf(int[] column) {
+            int min = Integer.MAX_VALUE;
+            for (int distance : column) {
+                min = Math.min(min, distance);
+            }
+            return min;
+        }
+
+        static int lastOf(int[] column) {
+            return column[column.length - 1];
+        }
+    }
+
+    /**
+     * Search for the close matches of a prefix. The prefix edit distance of an id is the minimum
+     * of the last column entries along its path.
+     * <p>
+     * Since ids are visited in lexicographical order, an id can only replace one of the best
+     * matches so far if it is strictly closer. Ties are won by the ids visited earlier.
+     */
+    private final class PrefixSearch extends TrieWalk {
+        private final int limit;
+        private final int maxCloseEnoughDistance;
+        /**
+         * The worst of the best matches so far is on top, to be replaced by better matches.
+         */
+        private final Queue<MatchScore> bestMatches;
+
+        PrefixSearch(CharSequence prefix, int limit) {
+            super(prefix);
+            this.limit = limit;
+            maxCloseEnoughDistance = StringDistances.maxCloseMatchDistance(prefix);
+            bestMatches = new PriorityQueue<>(limit, Comparator.reverseOrder());
+        }
+
+        Collection<String> run() {
+            visit(trieRoot, 0, query.length());
+            return bestMatches.stream().sorted().map(MatchScore::candidate).toList();
+        }
+
+        private void visit(TrieNode node, int depth, int pathDistance) {
+            // Distances only grow further down, no id below can be close enough
+            if (pathDistance > getMaxDistance() && minOf(getColumn(depth)) > getMaxDistance()) {
+                return;
+            }
+
+            if (node.id != null && pathDistance <= getMaxDistance()) {
+                if (bestMatches.size() == limit) {
+                    bestMatches.remove();
+                }
+                bestMatches.add(new MatchScore(node.id, pathDistance));
+            }
+
+            for (int i = 0; i < node.childCount; i++) {
+                int[] childColumn = computeColumn(depth + 1, node.childKeys[i]);
+                visit(node.children[i], depth + 1, Math.min(pathDistance, lastOf(childColumn)));
+            }
+        }
+
+        private int getMaxDistance() {
+            // Once enough matches are found, only strictly closer ids are of interest
+            return bestMatches.size() < limit ? maxCloseEnoughDistance
+                    : Math.min(maxCloseEnoughDistance, bestMatches.element().score() - 1);
+        }
+    }
+
+    /**
+     * Search for the closest match of a query. The edit distance of an id is the last column entry
+     * at its node.
+     * <p>
+     * Since ids are visited in lexicographical order, an id can only replace the best match so far
+     * if it is strictly closer.
+     */
+    private final class ClosestSearch extends TrieWalk {
+        private String bestId;
+        private int bestDistance = Integer.MAX_VALUE;
+
+        ClosestSearch(CharSequence query) {
+            super(query);
+        }
+
+        String run() {
+            visit(trieRoot, 0);
+            return bestId;
+        }
+
+        private void visit(TrieNode node, int depth) {
+            int[] column = getColumn(depth);
+            if (node.id != null && lastOf(column) < bestDistance) {
+                bestId = node.id;
+                bestDistance = lastOf(column);
+            }
+
+            for (int i = 0; i < node.childCount; i++) {
+                TrieNode child = node.children[i];
+                int[] childColumn = computeColumn(depth + 1, node.childKeys[i]);
+                if (getMinDistanceBelow(child, depth + 1, childColumn) < bestDistance) {
+                    visit(child, depth + 1);
+                }
+            }
+        }
+
+        /**
+         * Gets a lower bound of the edit distance to all ids below the given node. Each remaining
+         * character of the query and the ids that can not be paired up requires an edit.
+         */
+        private int getMinDistanceBelow(TrieNode node, int depth, int[] column) {
+            int minRemainingIdLength = node.minIdLength - depth;
+            int maxRemainingIdLength = node.maxIdLength - depth;
+
+            int minDistance = Integer.MAX_VALUE;
+            for (int x = 0; x < column.length; x++) {
+                int remainingQueryLength = query.length() - x;
+                int unpairedLength = Math.max(0,
+                        Math.max(minRemainingIdLength - remainingQueryLength,
+                                remainingQueryLength - maxRemainingIdLength));
+                minDistance = Math.min(minDistance, column[x] + unpairedLength);
+            }
+            return minDistance;
+        }
+    }
+
+    /**
+     * Node of the trie. Children are kept in arrays sorted by their character, such that the trie
+     * is walked in lexicographical order and without the overhead of a map.
+     */
+    private static final class TrieNode {
+        private char[] childKeys = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        private int childCount;
+        /**
+         * The id ending at this node, if any.
+         */
+        private String id;
+        /**
+         * The length of the shortest and longest id in the subtree of this node.
+         */
+        private int minIdLength = Integer.MAX_VALUE;
+        private int maxIdLength;
+
+        void includeIdLength(int length) {
+            minIdLength = Math.min(minIdLength, length);
+            maxIdLength = Math.max(maxIdLength, length);
+        }
+
+        void updateIdLengths() {
+            minIdLength = id == null ? Integer.MAX_VALUE : id.length();
+            maxIdLength = id == null ? 0 : id.length();
+            for (int i = 0; i < childCount; i++) {
+                minIdLength = Math.min(minIdLength, children[i].minIdLength);
+                maxIdLength = Math.max(maxIdLength, children[i].maxIdLength);
+            }
+        }
+
+        int indexOfChild(char key) {
+            return Arrays.binarySearch(childKeys, 0, childCount, key);
+        }
+
+        TrieNode getOrAddChild(char key) {
+            int index = indexOfChild(key);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            if (childCount == childKeys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                childKeys = Arrays.copyOf(childKeys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            int insertionIndex = -index - 1;
+            System.arraycopy(childKeys, insertionIndex, childKeys, insertionIndex + 1,
+                    childCount - insertionIndex);
+            System.arraycopy(children, insertionIndex, children, insertionIndex + 1,
+                    childCount - insertionIndex);
+
+            TrieNode child = new TrieNode();
+            childKeys[insertionIndex] = key;
+            children[insertionIndex] = child;
+            childCount++;
+            return child;
+        }
+
+        void removeChild(int index) {
+            System.arraycopy(childKeys, index + 1, childKeys, index, childCount - index - 1);
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+    }
+
+    private record MatchScore(String candidate, int score) implements Comparable<MatchScore> {
+        @Override
+        public int compareTo(MatchScore otherMatchScore) {
+            int compareResult = Integer.compare(score, otherMatchScore.score);
+
+            if (compareResult == 0) {
+                return candidate.compareTo(otherMatchScore.candidate);
+            }
+
+            return compareResult;
+        }
+    }
+}
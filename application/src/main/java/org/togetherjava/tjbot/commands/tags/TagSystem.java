@@ -1,16 +1,25 @@
 package org.togetherjava.tjbot.commands.tags;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
 import net.dv8tion.jda.api.interactions.components.buttons.ButtonStyle;
 
+import org.togetherjava.tjbot.commands.utils.Pagination;
 import org.togetherjava.tjbot.commands.utils.StringDistances;
 import org.togetherjava.tjbot.db.Database;
 import org.togetherjava.tjbot.db.generated.tables.Tags;
 import org.togetherjava.tjbot.db.generated.tables.records.TagsRecord;
 
+import javax.annotation.Nullable;
+
 import java.awt.Color;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -18,14 +27,34 @@ import java.util.stream.Collectors;
 /**
  * The core of the tag system. Provides methods to read and create tags, directly tied to the
  * underlying database.
+ * <p>
+ * Tags are additionally kept in memory, to look them up and suggest them without querying the
+ * database. The contents are cached and the ids of all tags are kept in an index, both are loaded
+ * at startup and updated whenever tags are put or deleted through the system.
  */
 public final class TagSystem {
     /**
      * The ambient color to use for tag system related messages.
      */
     static final Color AMBIENT_COLOR = Color.decode("#FA8072");
+    private static final int MAX_CACHED_TAGS = 10_000;
+    /**
+     * Weights of the id and content column for ranking search results, matches in the id of a tag
+     * are much more relevant than matches in its content.
+     */
+    private static final double SEARCH_ID_WEIGHT = 10.0;
+    private static final double SEARCH_CONTENT_WEIGHT = 1.0;
+    private static final int SEARCH_SNIPPET_TOKENS = 16;
 
     private final Database database;
+    /**
+     * Content of tags by their id. Changes to a tag are first written to the database and only
+     * then applied to the cache and the index, edits are serialized by synchronizing on the
+     * system. Unknown tags are not cached.
+     */
+    private final Cache<String, String> idToContentCache =
+            Caffeine.newBuilder().maximumSize(MAX_CACHED_TAGS).build();
+    private final TagIndex tagIndex;
 
     /**
      * Creates an instance.
@@ -34,6 +63,13 @@ public final class TagSystem {
      */
     public TagSystem(Database database) {
         this.database = database;
+
+        Map<String, String> idToContent = database.readTransaction(context -> context
+            .select(Tags.TAGS.ID, Tags.TAGS.CONTENT)
+            .from(Tags.TAGS)
+            .fetchMap(Tags.TAGS.ID, Tags.TAGS.CONTENT));
+        idToContentCache.putAll(idToContent);
+        tagIndex = new TagIndex(idToContent.keySet());
     }
 
     /**
@@ -61,14 +97,25 @@ public final class TagSystem {
         if (hasTag(id)) {
             return false;
         }
-        String suggestionText = StringDistances.closestMatch(id, getAllIds())
+        replyUnknownTag(id, event);
+        return true;
+    }
+
+    /**
+     * Sends an error message to the user that the given tag is unknown to the system, suggesting a
+     * similar known tag instead.
+     *
+     * @param id the id of the unknown tag
+     * @param event the event to send messages with
+     */
+    void replyUnknownTag(String id, IReplyCallback event) {
+        String suggestionText = tagIndex.closestMatch(id)
             .map(", did you perhaps mean '%s'?"::formatted)
             .orElse(".");
 
         event.reply("Could not find any tag with id '%s'%s".formatted(id, suggestionText))
             .setEphemeral(true)
             .queue();
-        return true;
     }
 
     /**
@@ -78,9 +125,7 @@ public final class TagSystem {
      * @return whether the tag is known to the tag system
      */
     boolean hasTag(String id) {
-        return database.readTransaction(context -> context.selectFrom(Tags.TAGS)
-            .where(Tags.TAGS.ID.eq(id))
-            .fetchOne() != null);
+        return getTag(id).isPresent();
     }
 
     /**
@@ -90,13 +135,16 @@ public final class TagSystem {
      * @throws IllegalArgumentException if the tag is unknown to the system, see
      *         {@link #hasTag(String)}
      */
-    void deleteTag(String id) {
+    synchronized void deleteTag(String id) {
         int deletedRecords = database.writeAndProvide(
                 context -> context.deleteFrom(Tags.TAGS).where(Tags.TAGS.ID.eq(id)).execute());
         if (deletedRecords == 0) {
             throw new IllegalArgumentException(
                     "Unable to delete the tag '%s', it is unknown to the system".formatted(id));
         }
+
+        idToContentCache.invalidate(id);
+        tagIndex.remove(id);
     }
 
     /**
@@ -105,26 +153,106 @@ public final class TagSystem {
      * @param id the id of the tag to put
      * @param content the content of the tag to put
      */
-    void putTag(String id, String content) {
+    synchronized void putTag(String id, String content) {
         database.writeTransaction(
                 context -> context.insertInto(Tags.TAGS, Tags.TAGS.ID, Tags.TAGS.CONTENT)
                     .values(id, content)
                     .onDuplicateKeyUpdate()
                     .set(Tags.TAGS.CONTENT, content)
                     .execute());
+
+        idToContentCache.put(id, content);
+        tagIndex.add(id);
     }
 
     /**
      * Retrieves the content of the given tag, if it is known to the system (see
      * {@link #hasTag(String)}).
+     * <p>
+     * Known tags are usually served from memory, the database is only queried on cache misses.
      *
      * @param id the id of the tag to get
      * @return the content of the tag, if the tag is known to the system
      */
     Optional<String> getTag(String id) {
+        return Optional.ofNullable(idToContentCache.get(id, this::loadTag));
+    }
+
+    @Nullable
+    private String loadTag(String id) {
         return database.readTransaction(context -> Optional
             .ofNullable(context.selectFrom(Tags.TAGS).where(Tags.TAGS.ID.eq(id)).fetchOne())
-            .map(TagsRecord::getContent));
+            .map(TagsRecord::getContent)
+            .orElse(null));
+    }
+
+    /**
+     * Gives sorted suggestions of tag ids to autocomplete the given prefix with, see
+     * {@link StringDistances#closeMatches(CharSequence, Collection, int)}.
+     * <p>
+     * The suggestions are served from memory, without querying the database.
+     *
+     * @param prefix the prefix to give suggestions for
+     * @param limit number of suggestions to generate at max
+     * @return the ids closest to the given prefix, limited to the given limit
+     */
+    Collection<String> getCloseMatchingIds(CharSequence prefix, int limit) {
+        return tagIndex.closeMatches(prefix, limit);
+    }
+
+    /**
+     * Searches the ids and contents of all tags for the given words, using the full-text search
+     * index of the database.
+     * <p>
+     * Tags are found if they contain all words, the last characters of words may be omitted. For
+     * example, {@code "stream api"} finds a tag with content {@code "The Stream API lets you..."}.
+     * Results are ranked by relevance.
+     *
+     * @param query the words to search for, characters other than letters and digits separate
+     *        words
+     * @param page the page of results to get, starting at 1, clamped to the existing pages
+     * @param pageSize the amount of results per page
+     * @return the requested page of results
+     */
+    TagSearchPage searchTags(String query, int page, int pageSize) {
+        String matchExpression = toMatchExpression(query);
+        if (matchExpression.isEmpty()) {
+            return new TagSearchPage(List.of(), 0, 1, 1);
+        }
+
+        return database.readTransaction(context -> {
+            int totalResults = context
+                .fetchOne("SELECT count(*) FROM tags_search WHERE tags_search MATCH ?",
+                        matchExpression)
+                .get(0, Integer.class);
+            int totalPages = Math.max(1, Math.ceilDiv(totalResults, pageSize));
+            int pageToShow = Pagination.clamp(1, page, totalPages);
+
+            List<TagSearchResult> results = context.fetch("""
+                    SELECT id, snippet(tags_search, 1, '**', '**', '...', ?)
+                    FROM tags_search
+                    WHERE tags_search MATCH ?
+                    ORDER BY bm25(tags_search, ?, ?), id
+                    LIMIT ? OFFSET ?""", SEARCH_SNIPPET_TOKENS, matchExpression,
+                    SEARCH_ID_WEIGHT, SEARCH_CONTENT_WEIGHT, pageSize,
+                    (pageToShow - 1) * pageSize)
+                .map(result -> new TagSearchResult(result.get(0, String.class),
+                        result.get(1, String.class)));
+
+            return new TagSearchPage(results, totalResults, pageToShow, totalPages);
+        });
+    }
+
+    /**
+     * Converts the given words into a full-text search expression that matches all of them as
+     * prefixes. Each word is quoted, such that the query syntax of the user input has no effect
+     * and can not fail.
+     */
+    private static String toMatchExpression(String query) {
+        return Arrays.stream(query.split("[^\\p{L}\\p{N}]+"))
+            .filter(word -> !word.isEmpty())
+            .map(word -> "\"" + word + "\"*")
+            .collect(Collectors.joining(" "));
     }
 
     /**
@@ -140,4 +268,26 @@ public final class TagSystem {
             .map(dbRecord -> dbRecord.getValue(Tags.TAGS.ID))
             .collect(Collectors.toSet()));
     }
+
+    /**
+     * A tag found by a search.
+     *
+     * @param id the id of the tag
+     * @param snippet an excerpt of the tags content around the matches, which are highlighted in
+     *        bold
+     */
+    record TagSearchResult(String id, String snippet) {
+    }
+
+    /**
+     * A page of search results.
+     *
+     * @param results the results on this page, most relevant first
+     * @param totalResults the amount of results on all pages
+     * @param page the number of this page, starting at 1
+     * @param totalPages the amount of pages, at least 1
+     */
+    record TagSearchPage(List<TagSearchResult> results, int totalResults, int page,
+            int totalPages) {
+    }
 }
@@ -2,13 +2,23 @@ package org.togetherjava.tjbot.commands.tags;
 
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.entities.emoji.EmojiUnion;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.togetherjava.tjbot.commands.CommandVisibility;
 import org.togetherjava.tjbot.commands.SlashCommandAdapter;
+import org.togetherjava.tjbot.commands.utils.MessageUtils;
 
 import java.time.Instant;
 import java.util.Collection;
@@ -29,11 +39,24 @@ import java.util.stream.Collectors;
  * // TJ-Bot: bar
  * }
  * </pre>
+ * <p>
+ * Given a search query, it instead responds with the tags whose id or content match the query,
+ * ranked by relevance and split into pages:
+ *
+ * <pre>
+ * {@code
+ * /tags search: stream api
+ * }
+ * </pre>
  */
 public final class TagsCommand extends SlashCommandAdapter {
 
     private static final Logger logger = LoggerFactory.getLogger(TagsCommand.class);
     private static final int MAX_TAGS_THRESHOLD_WARNING = 200;
+    static final String SEARCH_OPTION = "search";
+    private static final int SEARCH_RESULTS_PER_PAGE = 10;
+    private static final Emoji PREVIOUS_BUTTON_EMOJI = Emoji.fromUnicode("⬅");
+    private static final Emoji NEXT_BUTTON_EMOJI = Emoji.fromUnicode("➡");
 
     private final TagSystem tagSystem;
 
@@ -45,11 +68,22 @@ public final class TagsCommand extends SlashCommandAdapter {
     public TagsCommand(TagSystem tagSystem) {
         super("tags", "Displays all available tags", CommandVisibility.GUILD);
 
+        getData().addOption(OptionType.STRING, SEARCH_OPTION,
+                "Only displays tags whose id or content contain these words", false);
+
         this.tagSystem = tagSystem;
     }
 
     @Override
     public void onSlashCommand(SlashCommandInteractionEvent event) {
+        OptionMapping searchOption = event.getOption(SEARCH_OPTION);
+        if (searchOption != null) {
+            event.reply(createSearchPage(searchOption.getAsString(), 1))
+                .setEphemeral(true)
+                .queue();
+            return;
+        }
+
         Collection<String> tagIds = tagSystem.getAllIds();
         if (tagIds.size() > MAX_TAGS_THRESHOLD_WARNING) {
             // TODO Implement the edge case
@@ -74,6 +108,12 @@ public final class TagsCommand extends SlashCommandAdapter {
 
     @Override
     public void onButtonClick(ButtonInteractionEvent event, List<String> args) {
+        EmojiUnion emoji = event.getButton().getEmoji();
+        if (PREVIOUS_BUTTON_EMOJI.equals(emoji) || NEXT_BUTTON_EMOJI.equals(emoji)) {
+            turnSearchPage(event, args, PREVIOUS_BUTTON_EMOJI.equals(emoji) ? -1 : 1);
+            return;
+        }
+
         String userId = args.get(0);
 
         if (!event.getUser().getId().equals(userId) && !Objects.requireNonNull(event.getMember())
@@ -86,4 +126,57 @@ public final class TagsCommand extends SlashCommandAdapter {
         }
         event.getMessage().delete().queue();
     }
+
+    private void turnSearchPage(ButtonInteractionEvent event, List<String> args, int pageDelta) {
+        String query = args.get(0);
+        int pageToShow = Integer.parseInt(args.get(1)) + pageDelta;
+
+        MessageCreateData message = createSearchPage(query, pageToShow);
+        event.editMessage(MessageEditData.fromCreateData(message)).queue();
+    }
+
+    private MessageCreateData createSearchPage(String query, int pageToShow) {
+        TagSystem.TagSearchPage page =
+                tagSystem.searchTags(query, pageToShow, SEARCH_RESULTS_PER_PAGE);
+
+        EmbedBuilder searchEmbed = new EmbedBuilder()
+            .setTitle(MessageUtils.abbreviate("Tags matching '%s'".formatted(query),
+                    MessageEmbed.TITLE_MAX_LENGTH))
+            .setColor(TagSystem.AMBIENT_COLOR);
+        MessageCreateBuilder searchPage = new MessageCreateBuilder();
+
+        if (page.results().isEmpty()) {
+            searchEmbed.setDescription("No tags found");
+        } else {
+            if (page.totalPages() > 1) {
+                searchEmbed.setFooter("Page: %d/%d".formatted(page.page(), page.totalPages()));
+                searchPage.addActionRow(createPageTurnButtons(query, page));
+            }
+            page.results()
+                .forEach(result -> searchEmbed.addField(result.id(),
+                        MessageUtils.abbreviate(result.snippet().replace('\n', ' '),
+                                MessageEmbed.VALUE_MAX_LENGTH),
+                        false));
+        }
+
+        return searchPage.addEmbeds(searchEmbed.build()).build();
+    }
+
+    private List<Button> createPageTurnButtons(String query, TagSystem.TagSearchPage page) {
+        String pageNumberString = String.valueOf(page.page());
+
+        Button previousButton = Button.primary(generateComponentId(query, pageNumberString),
+                PREVIOUS_BUTTON_EMOJI);
+        if (page.page() <= 1) {
+            previousButton = previousButton.asDisabled();
+        }
+
+        Button nextButton =
+                Button.primary(generateComponentId(query, pageNumberString), NEXT_BUTTON_EMOJI);
+        if (page.page() >= page.totalPages()) {
+            nextButton = nextButton.asDisabled();
+        }
+
+        return List.of(previousButton, nextButton);
+    }
 }
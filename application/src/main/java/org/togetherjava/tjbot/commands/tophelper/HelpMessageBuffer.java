@@ -0,0 +1,353 @@
+package org.togetherjava.tjbot.commands.tophelper;
+
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.togetherjava.tjbot.commands.utils.LongHashSet;
+import org.togetherjava.tjbot.commands.utils.MessageUtils;
+import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.db.DatabaseException;
+
+import javax.annotation.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessageDailyStats.HELP_CHANNEL_MESSAGE_DAILY_STATS;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessages.HELP_CHANNEL_MESSAGES;
+
+/**
+ * Buffers records of help messages in memory and writes them to the database in batches.
+ * <p>
+ * Adding a record only appends it to primitive arrays, it never waits for the database. The buffer
+ * is flushed periodically, as soon as enough records have been added and on shutdown, see
+ * {@link TopHelpersMessageListener} and {@link TopHelpersShutdownListener}. A flush writes a
+ * single multi-row insert of the message records and one update of the daily statistics per author
+ * and day. Messages that are already stored, for example since they were delivered twice, are
+ * skipped and not counted again.
+ * <p>
+ * Records of a failed flush are put back into the buffer, to be written by the next flush. Bursts
+ * just grow the buffer, up to a limit after which records are dropped, such that an unavailable
+ * database can not exhaust the memory.
+ * <p>
+ * The buffer is thread safe.
+ */
+public final class HelpMessageBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(HelpMessageBuffer.class);
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int FLUSH_THRESHOLD = 100;
+    private static final int MAX_BUFFERED_MESSAGES = 100_000;
+    /**
+     * SQLite limits the amount of bind values per statement.
+     */
+    private static final int MAX_ROWS_PER_INSERT = 1_000;
+
+    private final Database database;
+    private final int flushThreshold;
+    /**
+     * Held while writing a batch, such that batches are written one after another.
+     */
+    private final Object flushLock = new Object();
+
+    private Batch pending = new Batch(INITIAL_CAPACITY);
+    /**
+     * The batch currently written by a flush, if any. Its records are put back if the flush fails.
+     */
+    @Nullable
+    private Batch flushing;
+    private long droppedMessages;
+    private volatile long lastFlushLatencyNanos;
+
+    /**
+     * Creates a new buffer. It has to be flushed periodically by calling {@link #flush()}.
+     *
+     * @param database the database to write the records to
+     */
+    public HelpMessageBuffer(Database database) {
+        this(database, FLUSH_THRESHOLD);
+    }
+
+    /**
+     * Creates a new buffer. It has to be flushed periodically by calling {@link #flush()}.
+     *
+     * @param database the database to write the records to
+     * @param flushThreshold the amount of buffered records after which a flush is due, see
+     *        {@link #add(long, long, long, long, Instant, long)}
+     */
+    HelpMessageBuffer(Database database, int flushThreshold) {
+        this.database = database;
+        this.flushThreshold = flushThreshold;
+    }
+
+    /**
+     * Adds the record of a help message to the buffer.
+     *
+     * @param messageId the id of the message
+     * @param guildId the id of the guild the message was sent in
+     * @param channelId the id of the channel the message was sent in
+     * @param authorId the id of the author of the message
+     * @param sentAt when the message was sent
+     * @param messageLength the length of the message, see
+     *        {@link MessageUtils#countValidCharacters(CharSequence)}
+     * @return whether the buffer just reached the flush threshold, the caller should flush it then
+     */
+    synchronized boolean add(long messageId, long guildId, long channelId, long authorId,
+            Instant sentAt, long messageLength) {
+        if (pending.size >= MAX_BUFFERED_MESSAGES) {
+            droppedMessages++;
+            return false;
+        }
+        pending.add(messageId, guildId, channelId, authorId, sentAt.toEpochMilli(),
+                messageLength);
+
+        return pending.size == flushThreshold;
+    }
+
+    /**
+     * Writes all buffered records to the database.
+     *
+     * @throws DatabaseException if the records could not be written, they are put back into the
+     *         buffer then
+     */
+    void flush() {
+        synchronized (flushLock) {
+            Batch batch;
+            long dropped;
+            synchronized (this) {
+                batch = pending;
+                pending = new Batch(INITIAL_CAPACITY);
+                flushing = batch;
+                dropped = droppedMessages;
+                droppedMessages = 0;
+            }
+
+            if (dropped > 0) {
+                logger.warn(
+                        "Dropped {} help message records, since the buffer was full. Is the database available?",
+                        dropped);
+            }
+            if (batch.size == 0) {
+                finishFlush();
+                return;
+            }
+
+            long startNanos = System.nanoTime();
+            try {
+                database.writeTransaction(context -> {
+                    Batch newMessages = withoutStoredMessages(context, batch);
+                    if (newMessages.size == 0) {
+                        return;
+                    }
+                    insertMessages(context, newMessages);
+                    updateDailyStats(context, newMessages);
+                });
+            } catch (DatabaseException e) {
+                putBack(batch);
+                throw e;
+            }
+            finishFlush();
+            lastFlushLatencyNanos = System.nanoTime() - startNanos;
+
+            logger.debug("Flushed {} help message records in {} ms", batch.size,
+                    TimeUnit.NANOSECONDS.toMillis(lastFlushLatencyNanos));
+        }
+    }
+
+    /**
+     * Gets the amount of records that are buffered and not written to the database yet.
+     *
+     * @return the amount of buffered records
+     */
+    synchronized int getBufferedMessages() {
+        return pending.size;
+    }
+
+    /**
+     * Whether any of the buffered records, including the ones currently being written, is of a
+     * message sent before the given moment.
+     *
+     * @param moment the moment to compare with
+     * @return whether records of messages sent before the moment are not written yet
+     */
+    synchronized boolean hasMessagesSentBefore(Instant moment) {
+        long momentMillis = moment.toEpochMilli();
+        return pending.hasSentBefore(momentMillis)
+                || (flushing != null && flushing.hasSentBefore(momentMillis));
+    }
+
+    /**
+     * Gets how long the last flush took to write its records to the database.
+     *
+     * @return the latency of the last flush, zero if nothing was flushed yet
+     */
+    Duration getLastFlushLatency() {
+        return Duration.ofNanos(lastFlushLatencyNanos);
+    }
+
+    private synchronized void finishFlush() {
+        flushing = null;
+    }
+
+    /**
+     * Puts the records of a failed flush back to the front of the buffer, dropping records that
+     * exceed its limit.
+     */
+    private synchronized void putBack(Batch batch) {
+        flushing = null;
+
+        Batch merged = new Batch(Math.max(INITIAL_CAPACITY, batch.size + pending.size));
+        merged.addAll(batch, MAX_BUFFERED_MESSAGES);
+        merged.addAll(pending, MAX_BUFFERED_MESSAGES);
+
+        droppedMessages += batch.size + pending.size - merged.size;
+        pending = merged;
+    }
+
+    /**
+     * Filters out messages that are stored already, or contained in the batch multiple times.
+     */
+    private static Batch withoutStoredMessages(DSLContext context, Batch batch) {
+        LongHashSet knownIds = new LongHashSet(batch.size);
+        for (int start = 0; start < batch.size; start += MAX_ROWS_PER_INSERT) {
+            int end = Math.min(start + MAX_ROWS_PER_INSERT, batch.size);
+            List<Long> messageIds = Arrays.stream(batch.messageIds, start, end).boxed().toList();
+
+            context.select(HELP_CHANNEL_MESSAGES.MESSAGE_ID)
+                .from(HELP_CHANNEL_MESSAGES)
+                .where(HELP_CHANNEL_MESSAGES.MESSAGE_ID.in(messageIds))
+                .fetch(HELP_CHANNEL_MESSAGES.MESSAGE_ID)
+                .forEach(knownIds::add);
+        }
+
+        Batch newMessages = new Batch(Math.max(INITIAL_CAPACITY, batch.size));
+        for (int i = 0; i < batch.size; i++) {
+            if (knownIds.add(batch.messageIds[i])) {
+                newMessages.add(batch, i);
+            }
+        }
+        return newMessages;
+    }
+
+    private static void insertMessages(DSLContext context, Batch batch) {
+        for (int start = 0; start < batch.size; start += MAX_ROWS_PER_INSERT) {
+            var insert = context.insertInto(HELP_CHANNEL_MESSAGES, HELP_CHANNEL_MESSAGES.MESSAGE_ID,
+                    HELP_CHANNEL_MESSAGES.GUILD_ID, HELP_CHANNEL_MESSAGES.CHANNEL_ID,
+                    HELP_CHANNEL_MESSAGES.AUTHOR_ID, HELP_CHANNEL_MESSAGES.SENT_AT,
+                    HELP_CHANNEL_MESSAGES.MESSAGE_LENGTH);
+
+            int end = Math.min(start + MAX_ROWS_PER_INSERT, batch.size);
+            for (int i = start; i < end; i++) {
+                insert = insert.values(batch.messageIds[i], batch.guildIds[i], batch.channelIds[i],
+                        batch.authorIds[i], Instant.ofEpochMilli(batch.sentAtMillis[i]),
+                        batch.messageLengths[i]);
+            }
+            insert.execute();
+        }
+    }
+
+    private static void updateDailyStats(DSLContext context, Batch batch) {
+        Map<DailyStatsKey, long[]> keyToCountAndLength = new HashMap<>();
+        for (int i = 0; i < batch.size; i++) {
+            DailyStatsKey key = new DailyStatsKey(batch.guildIds[i], batch.authorIds[i],
+                    TopHelpersMessageListener
+                        .toEpochDay(Instant.ofEpochMilli(batch.sentAtMillis[i])));
+            long[] countAndLength = keyToCountAndLength.computeIfAbsent(key, any -> new long[2]);
+            countAndLength[0]++;
+            countAndLength[1] += batch.messageLengths[i];
+        }
+
+        List<Query> upserts = new ArrayList<>(keyToCountAndLength.size());
+        keyToCountAndLength.forEach((key, countAndLength) -> upserts.add(context
+            .insertInto(HELP_CHANNEL_MESSAGE_DAILY_STATS, HELP_CHANNEL_MESSAGE_DAILY_STATS.GUILD_ID,
+                    HELP_CHANNEL_MESSAGE_DAILY_STATS.AUTHOR_ID,
+                    HELP_CHANNEL_MESSAGE_DAILY_STATS.EPOCH_DAY,
+                    HELP_CHANNEL_MESSAGE_DAILY_STATS.MESSAGE_COUNT,
+                    HELP_CHANNEL_MESSAGE_DAILY_STATS.TOTAL_LENGTH)
+            .values(key.guildId(), key.authorId(), key.epochDay(), countAndLength[0],
+                    countAndLength[1])
+            .onConflict(HELP_CHANNEL_MESSAGE_DAILY_STATS.GUILD_ID,
+                    HELP_CHANNEL_MESSAGE_DAILY_STATS.AUTHOR_ID,
+                    HELP_CHANNEL_MESSAGE_DAILY_STATS.EPOCH_DAY)
+            .doUpdate()
+            .set(HELP_CHANNEL_MESSAGE_DAILY_STATS.MESSAGE_COUNT,
+                    HELP_CHANNEL_MESSAGE_DAILY_STATS.MESSAGE_COUNT.plus(countAndLength[0]))
+            .set(HELP_CHANNEL_MESSAGE_DAILY_STATS.TOTAL_LENGTH,
+                    HELP_CHANNEL_MESSAGE_DAILY_STATS.TOTAL_LENGTH.plus(countAndLength[1]))));
+
+        context.batch(upserts).execute();
+    }
+
+    private record DailyStatsKey(long guildId, long authorId, long epochDay) {
+    }
+
+    /**
+     * Records of help messages, as columns of primitive arrays.
+     */
+    private static final class Batch {
+        private long[] messageIds;
+        private long[] guildIds;
+        private long[] channelIds;
+        private long[] authorIds;
+        private long[] sentAtMillis;
+        private long[] messageLengths;
+        private int size;
+
+        Batch(int capacity) {
+            messageIds = new long[capacity];
+            guildIds = new long[capacity];
+            channelIds = new long[capacity];
+            authorIds = new long[capacity];
+            sentAtMillis = new long[capacity];
+            messageLengths = new long[capacity];
+        }
+
+        void add(long messageId, long guildId, long channelId, long authorId, long sentAt,
+                long messageLength) {
+            if (size == messageIds.length) {
+                int capacity = size * 2;
+                messageIds = Arrays.copyOf(messageIds, capacity);
+                guildIds = Arrays.copyOf(guildIds, capacity);
+                channelIds = Arrays.copyOf(channelIds, capacity);
+                authorIds = Arrays.copyOf(authorIds, capacity);
+                sentAtMillis = Arrays.copyOf(sentAtMillis, capacity);
+                messageLengths = Arrays.copyOf(messageLengths, capacity);
+            }
+
+            messageIds[size] = messageId;
+            guildIds[size] = guildId;
+            channelIds[size] = channelId;
+            authorIds[size] = authorId;
+            sentAtMillis[size] = sentAt;
+            messageLengths[size] = messageLength;
+            size++;
+        }
+
+        void add(Batch other, int index) {
+            add(other.messageIds[index], other.guildIds[index], other.channelIds[index],
+                    other.authorIds[index], other.sentAtMillis[index], other.messageLengths[index]);
+        }
+
+        boolean hasSentBefore(long momentMillis) {
+            for (int i = 0; i < size; i++) {
+                if (sentAtMillis[i] < momentMillis) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void addAll(Batch other, int maxSize) {
+            for (int i = 0; i < other.size && size < maxSize; i++) {
+                add(other, i);
+            }
+        }
+    }
+}
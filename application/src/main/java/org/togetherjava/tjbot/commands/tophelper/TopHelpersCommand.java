@@ -7,6 +7,7 @@ import com.github.freva.asciitable.HorizontalAlign;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.callbacks.IDeferrableCallback;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
@@ -31,13 +32,14 @@ import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessages.HELP_CHANNEL_MESSAGES;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessageDailyStats.HELP_CHANNEL_MESSAGE_DAILY_STATS;
 
 /**
  * Command that displays the top helpers of a given time range.
  * <p>
- * Top helpers are measured by their message length in help channels, as set by
- * {@link TopHelpersMessageListener}.
+ * Top helpers are measured by their message length in help channels, as added up per day by
+ * {@link TopHelpersMessageListener}. Leaderboards are cached by {@link TopHelpersLeaderboardCache},
+ * completed months are only computed once.
  */
 public final class TopHelpersCommand extends SlashCommandAdapter {
     private static final Logger logger = LoggerFactory.getLogger(TopHelpersCommand.class);
@@ -48,13 +50,15 @@ public final class TopHelpersCommand extends SlashCommandAdapter {
     private static final int MAX_USER_NAME_LIMIT = 15;
 
     private final Database database;
+    private final TopHelpersLeaderboardCache leaderboardCache;
 
     /**
      * Creates a new instance.
      *
      * @param database the database containing the message records of top helpers
+     * @param helpMessageBuffer the buffer of message records not written to the database yet
      */
-    public TopHelpersCommand(Database database) {
+    public TopHelpersCommand(Database database, HelpMessageBuffer helpMessageBuffer) {
         super(COMMAND_NAME, "Lists top helpers for the last month, or a given month",
                 CommandVisibility.GUILD);
 
@@ -66,21 +70,29 @@ public final class TopHelpersCommand extends SlashCommandAdapter {
         getData().addOptions(monthData);
 
         this.database = database;
+        leaderboardCache = new TopHelpersLeaderboardCache(database, helpMessageBuffer);
     }
 
     @Override
     public void onSlashCommand(SlashCommandInteractionEvent event) {
         OptionMapping atMonthData = event.getOption(MONTH_OPTION);
 
-        TimeRange timeRange = computeTimeRange(computeMonth(atMonthData));
-        List<TopHelperResult> topHelpers =
-                computeTopHelpersDescending(event.getGuild().getIdLong(), timeRange);
+        YearMonth yearMonth = computeYearMonth(computeMonth(atMonthData));
+        TimeRange timeRange = computeTimeRange(yearMonth);
+        long guildId = event.getGuild().getIdLong();
+
+        Optional<String> cachedLeaderboard = leaderboardCache.get(guildId, yearMonth);
+        if (cachedLeaderboard.isPresent()) {
+            replyLeaderboard(cachedLeaderboard.orElseThrow(), timeRange, event);
+            return;
+        }
+
+        boolean isFinal = leaderboardCache.isFinal(yearMonth);
+        List<TopHelperResult> topHelpers = computeTopHelpersDescending(guildId, timeRange);
 
         if (topHelpers.isEmpty()) {
-            event
-                .reply("No entries for the selected time range (%s)."
-                    .formatted(timeRange.description()))
-                .queue();
+            leaderboardCache.put(guildId, yearMonth, "", isFinal);
+            replyLeaderboard("", timeRange, event);
             return;
         }
         event.deferReply().queue();
@@ -89,7 +101,12 @@ public final class TopHelpersCommand extends SlashCommandAdapter {
         event.getGuild()
             .retrieveMembersByIds(topHelperIds)
             .onError(error -> handleError(error, event))
-            .onSuccess(members -> handleTopHelpers(topHelpers, members, timeRange, event));
+            .onSuccess(members -> {
+                String leaderboard = createLeaderboard(topHelpers, members);
+                leaderboardCache.put(guildId, yearMonth, leaderboard, isFinal);
+
+                event.getHook().editOriginal(leaderboardToMessage(leaderboard, timeRange)).queue();
+            });
     }
 
     private static Month computeMonth(@Nullable OptionMapping atMonthData) {
@@ -101,7 +118,7 @@ public final class TopHelpersCommand extends SlashCommandAdapter {
         return Instant.now().atZone(ZoneOffset.UTC).minusMonths(1).getMonth();
     }
 
-    private static TimeRange computeTimeRange(Month atMonth) {
+    private static YearMonth computeYearMonth(Month atMonth) {
         ZonedDateTime now = Instant.now().atZone(ZoneOffset.UTC);
 
         int atYear = now.getYear();
@@ -109,23 +126,40 @@ public final class TopHelpersCommand extends SlashCommandAdapter {
         if (atMonth.compareTo(now.getMonth()) > 0) {
             atYear--;
         }
-        YearMonth atYearMonth = YearMonth.of(atYear, atMonth);
+        return YearMonth.of(atYear, atMonth);
+    }
 
-        Instant start = atYearMonth.atDay(1).atTime(LocalTime.MIN).toInstant(ZoneOffset.UTC);
-        Instant end = atYearMonth.atEndOfMonth().atTime(LocalTime.MAX).toInstant(ZoneOffset.UTC);
-        String description = "%s %d"
-            .formatted(atMonth.getDisplayName(TextStyle.FULL_STANDALONE, Locale.US), atYear);
+    private static TimeRange computeTimeRange(YearMonth atYearMonth) {
+        LocalDate start = atYearMonth.atDay(1);
+        LocalDate end = atYearMonth.atEndOfMonth();
+        String description = "%s %d".formatted(
+                atYearMonth.getMonth().getDisplayName(TextStyle.FULL_STANDALONE, Locale.US),
+                atYearMonth.getYear());
 
         return new TimeRange(start, end, description);
     }
 
+    /**
+     * Computes the top helpers of the given guild and month, by the total length of their help
+     * messages.
+     *
+     * @param guildId the id of the guild
+     * @param month the month to compute the top helpers of
+     * @return the top helpers, descending by the total length of their messages
+     */
+    List<TopHelperResult> computeTopHelpersDescending(long guildId, YearMonth month) {
+        return computeTopHelpersDescending(guildId, computeTimeRange(month));
+    }
+
     private List<TopHelperResult> computeTopHelpersDescending(long guildId, TimeRange timeRange) {
         return database.read(context -> context
-            .select(HELP_CHANNEL_MESSAGES.AUTHOR_ID, DSL.sum(HELP_CHANNEL_MESSAGES.MESSAGE_LENGTH))
-            .from(HELP_CHANNEL_MESSAGES)
-            .where(HELP_CHANNEL_MESSAGES.GUILD_ID.eq(guildId)
-                .and(HELP_CHANNEL_MESSAGES.SENT_AT.between(timeRange.start(), timeRange.end())))
-            .groupBy(HELP_CHANNEL_MESSAGES.AUTHOR_ID)
+            .select(HELP_CHANNEL_MESSAGE_DAILY_STATS.AUTHOR_ID,
+                    DSL.sum(HELP_CHANNEL_MESSAGE_DAILY_STATS.TOTAL_LENGTH))
+            .from(HELP_CHANNEL_MESSAGE_DAILY_STATS)
+            .where(HELP_CHANNEL_MESSAGE_DAILY_STATS.GUILD_ID.eq(guildId)
+                .and(HELP_CHANNEL_MESSAGE_DAILY_STATS.EPOCH_DAY.between(
+                        timeRange.start().toEpochDay(), timeRange.end().toEpochDay())))
+            .groupBy(HELP_CHANNEL_MESSAGE_DAILY_STATS.AUTHOR_ID)
             .orderBy(DSL.two().desc())
             .limit(TOP_HELPER_LIMIT)
             .fetch(Records.mapping(TopHelperResult::new)));
@@ -136,8 +170,29 @@ public final class TopHelpersCommand extends SlashCommandAdapter {
         event.getHook().editOriginal("Sorry, something went wrong.").queue();
     }
 
-    private static void handleTopHelpers(Collection<TopHelperResult> topHelpers,
-            Collection<? extends Member> members, TimeRange timeRange, IDeferrableCallback event) {
+    private static void replyLeaderboard(String leaderboard, TimeRange timeRange,
+            IReplyCallback event) {
+        if (leaderboard.isEmpty()) {
+            event
+                .reply("No entries for the selected time range (%s)."
+                    .formatted(timeRange.description()))
+                .queue();
+            return;
+        }
+
+        event.reply(leaderboardToMessage(leaderboard, timeRange)).queue();
+    }
+
+    private static String leaderboardToMessage(String leaderboard, TimeRange timeRange) {
+        return """
+                ```java
+                // for %s
+                %s
+                ```""".formatted(timeRange.description(), leaderboard);
+    }
+
+    private static String createLeaderboard(Collection<TopHelperResult> topHelpers,
+            Collection<? extends Member> members) {
         Map<Long, Member> userIdToMember =
                 members.stream().collect(Collectors.toMap(Member::getIdLong, Function.identity()));
 
@@ -146,13 +201,7 @@ public final class TopHelpersCommand extends SlashCommandAdapter {
                     userIdToMember.get(topHelper.authorId())))
             .toList();
 
-        String message = """
-                ```java
-                // for %s
-                %s
-                ```""".formatted(timeRange.description(), dataTableToString(topHelpersDataTable));
-
-        event.getHook().editOriginal(message).queue();
+        return dataTableToString(topHelpersDataTable);
     }
 
     private static List<String> topHelperToDataRow(TopHelperResult topHelper,
@@ -188,10 +237,10 @@ public final class TopHelpersCommand extends SlashCommandAdapter {
         return AsciiTable.getTable(AsciiTable.BASIC_ASCII_NO_DATA_SEPARATORS, dataTable, columns);
     }
 
-    private record TimeRange(Instant start, Instant end, String description) {
+    private record TimeRange(LocalDate start, LocalDate end, String description) {
     }
 
-    private record TopHelperResult(long authorId, BigDecimal messageLengths) {
+    record TopHelperResult(long authorId, BigDecimal messageLengths) {
     }
 
     private record ColumnSetting(String headerName, HorizontalAlign alignment) {
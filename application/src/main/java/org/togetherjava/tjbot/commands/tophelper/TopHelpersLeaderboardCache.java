@@ -0,0 +1,141 @@
+package org.togetherjava.tjbot.commands.tophelper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.togetherjava.tjbot.db.Database;
+
+import javax.annotation.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.togetherjava.tjbot.db.generated.tables.TopHelpersLeaderboards.TOP_HELPERS_LEADERBOARDS;
+
+/**
+ * Cache of rendered top helper leaderboards, by guild and month.
+ * <p>
+ * Leaderboards of completed months never change, they are kept in memory and persisted in the
+ * database, such that they are computed only once. Leaderboards of the current month are only kept
+ * in memory for a short time, since new help messages keep changing them. The same applies to past
+ * months while the {@link HelpMessageBuffer} still holds records of their messages, for example
+ * after a failed flush.
+ * <p>
+ * An empty leaderboard represents a month without any entries.
+ */
+final class TopHelpersLeaderboardCache {
+    private static final int MAX_CACHED_LEADERBOARDS = 1_000;
+    private static final Duration INCOMPLETE_MONTH_LIFETIME = Duration.ofMinutes(1);
+    /**
+     * Help messages are written with a delay, a month is only completed once all its messages are
+     * written.
+     */
+    private static final Duration COMPLETION_DELAY = Duration.ofMinutes(5);
+
+    private final Database database;
+    private final HelpMessageBuffer buffer;
+    private final Cache<LeaderboardKey, String> completedMonthCache =
+            Caffeine.newBuilder().maximumSize(MAX_CACHED_LEADERBOARDS).build();
+    private final Cache<LeaderboardKey, String> incompleteMonthCache = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_LEADERBOARDS)
+        .expireAfterWrite(INCOMPLETE_MONTH_LIFETIME)
+        .build();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param database the database to persist leaderboards of completed months in
+     * @param buffer the buffer of help message records, to tell whether a month is completed
+     */
+    TopHelpersLeaderboardCache(Database database, HelpMessageBuffer buffer) {
+        this.database = database;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Gets the cached leaderboard of the given guild and month.
+     *
+     * @param guildId the id of the guild
+     * @param month the month of the leaderboard
+     * @return the rendered leaderboard, if cached
+     */
+    Optional<String> get(long guildId, YearMonth month) {
+        LeaderboardKey key = new LeaderboardKey(guildId, month);
+        if (isCompleted(month)) {
+            String leaderboard = completedMonthCache.get(key, this::loadLeaderboard);
+            if (leaderboard != null) {
+                return Optional.of(leaderboard);
+            }
+        }
+
+        return Optional.ofNullable(incompleteMonthCache.getIfPresent(key));
+    }
+
+    /**
+     * Whether all help messages of the given month are written to the database, such that its
+     * leaderboard does not change anymore.
+     * <p>
+     * This has to be checked before computing the leaderboard, since records might be written
+     * while it is computed.
+     *
+     * @param month the month to check
+     * @return whether the leaderboard of the month is final
+     */
+    boolean isFinal(YearMonth month) {
+        Instant monthEnd = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        return isCompleted(month) && !buffer.hasMessagesSentBefore(monthEnd);
+    }
+
+    /**
+     * Caches the leaderboard of the given guild and month.
+     *
+     * @param guildId the id of the guild
+     * @param month the month of the leaderboard
+     * @param leaderboard the rendered leaderboard, empty if there are no entries
+     * @param isFinal whether the month was final before the leaderboard was computed, see
+     *        {@link #isFinal(YearMonth)}. Only final leaderboards are persisted.
+     */
+    void put(long guildId, YearMonth month, String leaderboard, boolean isFinal) {
+        LeaderboardKey key = new LeaderboardKey(guildId, month);
+        if (!isFinal) {
+            incompleteMonthCache.put(key, leaderboard);
+            return;
+        }
+
+        database.write(context -> context
+            .insertInto(TOP_HELPERS_LEADERBOARDS, TOP_HELPERS_LEADERBOARDS.GUILD_ID,
+                    TOP_HELPERS_LEADERBOARDS.YEAR_MONTH, TOP_HELPERS_LEADERBOARDS.LEADERBOARD)
+            .values(guildId, month.toString(), leaderboard)
+            .onConflictDoNothing()
+            .execute());
+        completedMonthCache.put(key, leaderboard);
+    }
+
+    /**
+     * Whether the given month is over and all of its help messages were received. They might
+     * still be buffered though, see {@link #isFinal(YearMonth)}.
+     *
+     * @param month the month to check
+     * @return whether the month is completed
+     */
+    static boolean isCompleted(YearMonth month) {
+        YearMonth latestWrittenMonth =
+                YearMonth.from(Instant.now().minus(COMPLETION_DELAY).atZone(ZoneOffset.UTC));
+        return month.isBefore(latestWrittenMonth);
+    }
+
+    @Nullable
+    private String loadLeaderboard(LeaderboardKey key) {
+        return database.read(context -> context.select(TOP_HELPERS_LEADERBOARDS.LEADERBOARD)
+            .from(TOP_HELPERS_LEADERBOARDS)
+            .where(TOP_HELPERS_LEADERBOARDS.GUILD_ID.eq(key.guildId())
+                .and(TOP_HELPERS_LEADERBOARDS.YEAR_MONTH.eq(key.month().toString())))
+            .fetchOne(TOP_HELPERS_LEADERBOARDS.LEADERBOARD));
+    }
+
+    private record LeaderboardKey(long guildId, YearMonth month) {
+    }
+}
@@ -1,46 +1,62 @@
 package org.togetherjava.tjbot.commands.tophelper;
 
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.togetherjava.tjbot.commands.MessageReceiverAdapter;
+import org.togetherjava.tjbot.commands.Routine;
+import org.togetherjava.tjbot.commands.utils.MessageUtils;
 import org.togetherjava.tjbot.config.Config;
-import org.togetherjava.tjbot.db.Database;
-
+import org.togetherjava.tjbot.db.DatabaseException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
-import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessages.HELP_CHANNEL_MESSAGES;
-
 /**
  * Listener that receives all sent help messages and puts them into the database for
  * {@link TopHelpersCommand} to pick them up.
+ * <p>
+ * Besides a record per message, the messages are also added up per author and day, such that the
+ * top helpers can be computed without scanning all messages.
+ * <p>
+ * Records are not written right away, but buffered and written in batches every few seconds by the
+ * routine, or earlier by a background thread if many messages arrive. Hence,
+ * {@link TopHelpersCommand} might miss the most recent messages. Messages are never written to the
+ * database on the event thread.
  */
-public final class TopHelpersMessageListener extends MessageReceiverAdapter {
+public final class TopHelpersMessageListener extends MessageReceiverAdapter implements Routine {
+    private static final Logger logger = LoggerFactory.getLogger(TopHelpersMessageListener.class);
+    private static final int FLUSH_INTERVAL_SECONDS = 5;
+
+    private final HelpMessageBuffer buffer;
     /**
-     * Matches invisible control characters and unused code points
-     *
-     * @see <a href="https://www.regular-expressions.info/unicode.html#category">Unicode
-     *      Categories</a>
+     * Flushes the buffer once enough records have been added, without waiting for the routine.
      */
-    private static final Pattern INVALID_CHARACTERS = Pattern.compile("\\p{C}");
-
-    private final Database database;
+    private final ExecutorService flushService = Executors.newSingleThreadExecutor();
 
     private final Predicate<String> isHelpForumName;
 
     /**
      * Creates a new listener to receive all message sent in help channels.
      *
-     * @param database to store message meta-data in
+     * @param buffer to store message meta-data in
      * @param config the config to use for this
      */
-    public TopHelpersMessageListener(Database database, Config config) {
+    public TopHelpersMessageListener(HelpMessageBuffer buffer, Config config) {
         super(Pattern.compile(".*"));
 
-        this.database = database;
+        this.buffer = buffer;
 
         isHelpForumName =
                 Pattern.compile(config.getHelpSystem().getHelpForumPattern()).asMatchPredicate();
@@ -52,20 +68,50 @@ public final class TopHelpersMessageListener extends MessageReceiverAdapter {
             return;
         }
 
-        addMessageRecord(event);
+        boolean isFlushDue = addMessageRecord(event);
+        if (isFlushDue) {
+            flushService.execute(this::flushLoggingErrors);
+        }
+    }
+
+    @Override
+    public Schedule createSchedule() {
+        return new Schedule(ScheduleMode.FIXED_DELAY, FLUSH_INTERVAL_SECONDS,
+                FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
-    private void addMessageRecord(MessageReceivedEvent event) {
-        long messageLength = countValidCharacters(event.getMessage().getContentRaw());
-
-        database.write(context -> context.newRecord(HELP_CHANNEL_MESSAGES)
-            .setMessageId(event.getMessage().getIdLong())
-            .setGuildId(event.getGuild().getIdLong())
-            .setChannelId(event.getChannel().getIdLong())
-            .setAuthorId(event.getAuthor().getIdLong())
-            .setSentAt(event.getMessage().getTimeCreated().toInstant())
-            .setMessageLength(messageLength)
-            .insert());
+    @Override
+    public void runRoutine(JDA jda) {
+        flushLoggingErrors();
+
+        logger.debug("{} help message records are buffered, the last flush took {} ms",
+                buffer.getBufferedMessages(), buffer.getLastFlushLatency().toMillis());
+    }
+
+    private void flushLoggingErrors() {
+        try {
+            buffer.flush();
+        } catch (DatabaseException e) {
+            logger.error("Failed to write help message records to the database, retrying later",
+                    e);
+        }
+    }
+
+    private boolean addMessageRecord(MessageReceivedEvent event) {
+        return buffer.add(event.getMessage().getIdLong(), event.getGuild().getIdLong(),
+                event.getChannel().getIdLong(), event.getAuthor().getIdLong(),
+                event.getMessage().getTimeCreated().toInstant(),
+                MessageUtils.countValidCharacters(event.getMessage().getContentRaw()));
+    }
+
+    /**
+     * Gets the day of the given moment, as used by the daily statistics of help messages.
+     *
+     * @param moment the moment to get the day of
+     * @return the day, as days since the epoch in UTC
+     */
+    static long toEpochDay(Instant moment) {
+        return LocalDate.ofInstant(moment, ZoneOffset.UTC).toEpochDay();
     }
 
     boolean shouldIgnoreMessage(MessageReceivedEvent event) {
@@ -83,8 +129,4 @@ public final class TopHelpersMessageListener extends MessageReceiverAdapter {
         return isHelpForumName.test(rootChannelName);
     }
 
-    static long countValidCharacters(String messageContent) {
-        return INVALID_CHARACTERS.matcher(messageContent).replaceAll("").length();
-    }
-
 }
@@ -8,18 +8,27 @@ import org.togetherjava.tjbot.commands.Routine;
 import org.togetherjava.tjbot.db.Database;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.Period;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.util.concurrent.TimeUnit;
 
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessageDailyStats.HELP_CHANNEL_MESSAGE_DAILY_STATS;
 import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessages.HELP_CHANNEL_MESSAGES;
+import static org.togetherjava.tjbot.db.generated.tables.TopHelpersLeaderboards.TOP_HELPERS_LEADERBOARDS;
 
 /**
  * Cleanup routine to get rid of old database top-helper message entries.
+ * <p>
+ * Records of single messages are only kept as long as needed to detect inactive helpers, the daily
+ * statistics of the top helpers and their leaderboards are kept for a year.
  */
 public final class TopHelpersPurgeMessagesRoutine implements Routine {
     private static final Logger logger =
             LoggerFactory.getLogger(TopHelpersPurgeMessagesRoutine.class);
     private static final Period DELETE_MESSAGE_RECORDS_AFTER = Period.ofDays(90);
+    private static final Period DELETE_DAILY_STATS_AFTER = Period.ofYears(1);
 
     private final Database database;
 
@@ -50,5 +59,31 @@ public final class TopHelpersPurgeMessagesRoutine implements Routine {
                     "{} old help message records have been deleted because they are older than {}.",
                     recordsDeleted, DELETE_MESSAGE_RECORDS_AFTER);
         }
+
+        long oldestDayToKeep =
+                LocalDate.now(ZoneOffset.UTC).minus(DELETE_DAILY_STATS_AFTER).toEpochDay();
+        int statsDeleted = database
+            .writeAndProvide(context -> context.deleteFrom(HELP_CHANNEL_MESSAGE_DAILY_STATS)
+                .where(HELP_CHANNEL_MESSAGE_DAILY_STATS.EPOCH_DAY.lessThan(oldestDayToKeep))
+                .execute());
+
+        if (statsDeleted > 0) {
+            logger.debug(
+                    "{} old daily help message statistics have been deleted because they are older than {}.",
+                    statsDeleted, DELETE_DAILY_STATS_AFTER);
+        }
+
+        String oldestMonthToKeep =
+                YearMonth.now(ZoneOffset.UTC).minus(DELETE_DAILY_STATS_AFTER).toString();
+        int leaderboardsDeleted =
+                database.writeAndProvide(context -> context.deleteFrom(TOP_HELPERS_LEADERBOARDS)
+                    .where(TOP_HELPERS_LEADERBOARDS.YEAR_MONTH.lessThan(oldestMonthToKeep))
+                    .execute());
+
+        if (leaderboardsDeleted > 0) {
+            logger.debug(
+                    "{} old top helper leaderboards have been deleted because they are older than {}.",
+                    leaderboardsDeleted, DELETE_DAILY_STATS_AFTER);
+        }
     }
 }
@@ -0,0 +1,43 @@
+package org.togetherjava.tjbot.commands.tophelper;
+
+import net.dv8tion.jda.api.events.ShutdownEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.togetherjava.tjbot.commands.EventReceiver;
+import org.togetherjava.tjbot.db.DatabaseException;
+
+/**
+ * Writes the buffered records of help messages to the database when the bot shuts down, such that
+ * they are not lost on restarts.
+ */
+public final class TopHelpersShutdownListener extends ListenerAdapter implements EventReceiver {
+    private static final Logger logger = LoggerFactory.getLogger(TopHelpersShutdownListener.class);
+
+    private final HelpMessageBuffer buffer;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param buffer the buffer to flush on shutdown
+     */
+    public TopHelpersShutdownListener(HelpMessageBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void onShutdown(ShutdownEvent event) {
+        int bufferedMessages = buffer.getBufferedMessages();
+        try {
+            buffer.flush();
+        } catch (DatabaseException e) {
+            logger.error("Failed to write {} help message records to the database on shutdown",
+                    bufferedMessages, e);
+            return;
+        }
+
+        logger.debug("Wrote {} help message records to the database on shutdown",
+                bufferedMessages);
+    }
+}
@@ -0,0 +1,137 @@
+package org.togetherjava.tjbot.commands.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.ISnowflake;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Finds channels and roles of a guild by a pattern for their name, as used in the config.
+ * <p>
+ * Finding them requires matching the pattern against all channels or roles of the guild. The
+ * result is cached per guild, such that subsequent lookups only get the entity by its id. The
+ * cache of a guild has to be invalidated by {@link #invalidate(long)} whenever its channels or
+ * roles change, which is done by
+ * {@link org.togetherjava.tjbot.commands.system.GuildEntityCacheInvalidator}.
+ * <p>
+ * A single instance should be shared by all features of the application. This class is thread
+ * safe.
+ */
+public final class GuildEntityResolver {
+    private static final int MAX_CACHED_GUILDS = 1_000;
+    /**
+     * Stands in for entities that could not be found. Real ids are never zero.
+     */
+    private static final long NOT_FOUND = 0;
+
+    private final Cache<Long, Map<Resolution, Long>> guildIdToResolutions =
+            Caffeine.newBuilder().maximumSize(MAX_CACHED_GUILDS).build();
+
+    /**
+     * Finds a text channel whose name matches the given pattern.
+     *
+     * @param guild the guild to find the channel in
+     * @param namePattern the regex pattern the full name of the channel has to match
+     * @return the channel, if found
+     */
+    public Optional<TextChannel> findTextChannel(Guild guild, String namePattern) {
+        return find(guild, new Resolution(EntityType.TEXT_CHANNEL, namePattern),
+                guild::getTextChannelById, () -> guild.getTextChannelCache().stream(),
+                TextChannel::getName);
+    }
+
+    /**
+     * Finds a forum channel whose name matches the given pattern.
+     *
+     * @param guild the guild to find the channel in
+     * @param namePattern the regex pattern the full name of the channel has to match
+     * @return the channel, if found
+     */
+    public Optional<ForumChannel> findForumChannel(Guild guild, String namePattern) {
+        return find(guild, new Resolution(EntityType.FORUM_CHANNEL, namePattern),
+                guild::getForumChannelById, () -> guild.getForumChannelCache().stream(),
+                ForumChannel::getName);
+    }
+
+    /**
+     * Finds a role whose name matches the given pattern.
+     *
+     * @param guild the guild to find the role in
+     * @param namePattern the regex pattern the full name of the role has to match
+     * @return the role, if found
+     */
+    public Optional<Role> findRole(Guild guild, String namePattern) {
+        return find(guild, new Resolution(EntityType.ROLE, namePattern), guild::getRoleById,
+                () -> guild.getRoleCache().stream(), Role::getName);
+    }
+
+    /**
+     * Finds a role with the given name, ignoring case.
+     *
+     * @param guild the guild to find the role in
+     * @param name the name of the role
+     * @return the role, if found
+     */
+    public Optional<Role> findRoleByName(Guild guild, String name) {
+        return findRole(guild, "(?iu)" + Pattern.quote(name));
+    }
+
+    /**
+     * Invalidates all cached results of the given guild. Has to be called whenever channels or
+     * roles of the guild are created, deleted or changed.
+     *
+     * @param guildId the id of the guild
+     */
+    public void invalidate(long guildId) {
+        guildIdToResolutions.invalidate(guildId);
+    }
+
+    private <T extends ISnowflake> Optional<T> find(Guild guild, Resolution resolution,
+            LongFunction<T> getById, Supplier<Stream<T>> entities, Function<T, String> getName) {
+        // Invalidating replaces the map of the guild, results of concurrent lookups are dropped
+        Map<Resolution, Long> resolutions =
+                guildIdToResolutions.get(guild.getIdLong(), any -> new ConcurrentHashMap<>());
+
+        Long cachedId = resolutions.get(resolution);
+        if (cachedId != null) {
+            if (cachedId == NOT_FOUND) {
+                return Optional.empty();
+            }
+
+            T entity = getById.apply(cachedId);
+            if (entity != null) {
+                return Optional.of(entity);
+            }
+            // The entity was deleted, but the cache was not invalidated yet
+        }
+
+        Predicate<String> isName = Pattern.compile(resolution.namePattern()).asMatchPredicate();
+        Optional<T> entity =
+                entities.get().filter(candidate -> isName.test(getName.apply(candidate))).findAny();
+
+        resolutions.put(resolution, entity.map(ISnowflake::getIdLong).orElse(NOT_FOUND));
+        return entity;
+    }
+
+    private enum EntityType {
+        TEXT_CHANNEL,
+        FORUM_CHANNEL,
+        ROLE
+    }
+
+    private record Resolution(EntityType type, String namePattern) {
+    }
+}
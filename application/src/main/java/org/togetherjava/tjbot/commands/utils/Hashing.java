@@ -18,6 +18,10 @@ public class Hashing {
      */
     private static final byte[] HEX_ARRAY = "0123456789ABCDEF".getBytes(StandardCharsets.UTF_8);
 
+    // Mixing constants of MurmurHash3, see https://github.com/aappleby/smhasher
+    private static final long MIX_CONSTANT_1 = 0x87c37b91114253d5L;
+    private static final long MIX_CONSTANT_2 = 0x4cf5ad432745937fL;
+
     /**
      * Creates a hexadecimal representation of the given binary data.
      *
@@ -57,4 +61,75 @@ public class Hashing {
             throw new IllegalStateException("Hash method must be supported", e);
         }
     }
+
+    /**
+     * Computes a fast, non-cryptographic 64-bit hash of the given text.
+     * <p>
+     * This is magnitudes faster than {@link #hash(String, byte[])} and does not allocate, but must
+     * not be used for anything security related.
+     *
+     * @param text the text to hash
+     * @return the computed hash
+     */
+    public static long hash64(CharSequence text) {
+        return hash64(0, text);
+    }
+
+    /**
+     * Computes a fast, non-cryptographic 64-bit hash of the given text, see
+     * {@link #hash64(CharSequence)}.
+     * <p>
+     * The seed allows combining hashes of multiple texts, for example
+     * {@code hash64(hash64(first), second)}.
+     *
+     * @param seed the seed to start hashing with
+     * @param text the text to hash
+     * @return the computed hash
+     */
+    public static long hash64(long seed, CharSequence text) {
+        // Single lane variant of MurmurHash3, consuming four UTF-16 characters per block
+        long hash = seed;
+        int length = text.length();
+        int blockEnd = length - length % 4;
+
+        for (int i = 0; i < blockEnd; i += 4) {
+            long block = text.charAt(i) | (long) text.charAt(i + 1) << 16
+                    | (long) text.charAt(i + 2) << 32 | (long) text.charAt(i + 3) << 48;
+
+            hash ^= mixBlock(block);
+            hash = Long.rotateLeft(hash, 27) * 5 + 0x52dce729;
+        }
+
+        long tail = 0;
+        for (int i = length - 1; i >= blockEnd; i--) {
+            tail = tail << 16 | text.charAt(i);
+        }
+        hash ^= mixBlock(tail);
+
+        return finalizeHash(hash ^ length);
+    }
+
+    /**
+     * Computes a fast, non-cryptographic 64-bit hash of the given value.
+     * <p>
+     * Every bit of the value affects every bit of the hash, and distinct values result in distinct
+     * hashes.
+     *
+     * @param value the value to hash
+     * @return the computed hash
+     */
+    public static long hash64(long value) {
+        return finalizeHash(value);
+    }
+
+    private static long mixBlock(long block) {
+        return Long.rotateLeft(block * MIX_CONSTANT_1, 31) * MIX_CONSTANT_2;
+    }
+
+    private static long finalizeHash(long hash) {
+        // Avalanche, so that every input bit affects every output bit
+        long mixed = (hash ^ hash >>> 33) * 0xff51afd7ed558ccdL;
+        mixed = (mixed ^ mixed >>> 33) * 0xc4ceb9fe1a85ec53L;
+        return mixed ^ mixed >>> 33;
+    }
 }
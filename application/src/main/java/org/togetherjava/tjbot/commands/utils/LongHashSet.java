@@ -0,0 +1,128 @@
+package org.togetherjava.tjbot.commands.utils;
+
+/**
+ * Set of primitive {@code long} values, for example ids of users, without boxing them.
+ * <p>
+ * Values are kept in a single array with open addressing and linear probing. Removing values is
+ * not supported. The set is not thread safe.
+ */
+public final class LongHashSet {
+    private static final int MIN_CAPACITY = 16;
+    /**
+     * Marks unused slots. The value itself is tracked separately.
+     */
+    private static final long EMPTY = 0;
+
+    private long[] slots;
+    private boolean containsEmpty;
+    private int size;
+
+    /**
+     * Creates an empty set.
+     */
+    public LongHashSet() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Creates an empty set that can hold the given amount of values without growing.
+     *
+     * @param expectedSize the expected amount of values
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException(
+                    "The expected size must not be negative, but was " + expectedSize);
+        }
+
+        // Keep the load factor at most 0.5, such that probe sequences stay short
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity *= 2;
+        }
+        slots = new long[capacity];
+    }
+
+    /**
+     * Adds the given value to the set, if not contained yet.
+     *
+     * @param value the value to add
+     * @return whether the value was added, false if it was already contained
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int index = indexOf(slots, value);
+        if (slots[index] == value) {
+            return false;
+        }
+
+        slots[index] = value;
+        size++;
+        if (size * 2 > slots.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Whether the given value is contained in the set.
+     *
+     * @param value the value to check
+     * @return whether the value is contained
+     */
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        return slots[indexOf(slots, value)] == value;
+    }
+
+    /**
+     * Gets the amount of values in the set.
+     *
+     * @return the amount of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether the set contains no values.
+     *
+     * @return whether the set is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the index of the slot that holds the given value, or of the empty slot where it would
+     * be added.
+     */
+    private static int indexOf(long[] slots, long value) {
+        int mask = slots.length - 1;
+        int index = (int) Hashing.hash64(value) & mask;
+        while (slots[index] != EMPTY && slots[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void grow() {
+        long[] grownSlots = new long[slots.length * 2];
+        for (long value : slots) {
+            if (value != EMPTY) {
+                grownSlots[indexOf(grownSlots, value)] = value;
+            }
+        }
+        slots = grownSlots;
+    }
+}
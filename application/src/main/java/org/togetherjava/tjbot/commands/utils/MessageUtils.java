@@ -22,6 +22,7 @@ import java.util.function.Supplier;
 public class MessageUtils {
     private static final String ABBREVIATION = "...";
     private static final String CODE_FENCE_SYMBOL = "```";
+    private static final char ASCII_DELETE = '\u007F';
 
     private MessageUtils() {
         throw new UnsupportedOperationException("Utility class, construction not supported");
@@ -169,6 +170,54 @@ public class MessageUtils {
         return "<#%d>".formatted(channelId);
     }
 
+    /**
+     * Counts the valid characters of the given text, i.e. all characters except invisible control
+     * characters and unused code points. Code points outside the basic plane count as two
+     * characters, as in {@link String#length()}.
+     * <p>
+     * The count is identical to the length of the text after removing all matches of the regex
+     * {@code \p{C}}, but computed without creating a copy of the text.
+     *
+     * @param text the text to count the characters of
+     * @return the amount of valid characters
+     * @see <a href="https://www.regular-expressions.info/unicode.html#category">Unicode
+     *      Categories</a>
+     */
+    public static int countValidCharacters(CharSequence text) {
+        int validCharacters = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                // Fast path for ASCII, where only control characters are invalid
+                if (c >= ' ' && c != ASCII_DELETE) {
+                    validCharacters++;
+                }
+                i++;
+                continue;
+            }
+
+            int codePoint = Character.codePointAt(text, i);
+            int charCount = Character.charCount(codePoint);
+            if (!isOtherCategory(codePoint)) {
+                validCharacters += charCount;
+            }
+            i += charCount;
+        }
+        return validCharacters;
+    }
+
+    /**
+     * Whether the code point is in the Unicode category <i>Other</i>, {@code \p{C}}.
+     */
+    private static boolean isOtherCategory(int codePoint) {
+        int type = Character.getType(codePoint);
+        return type == Character.CONTROL || type == Character.FORMAT
+                || type == Character.PRIVATE_USE || type == Character.SURROGATE
+                || type == Character.UNASSIGNED;
+    }
+
     /**
      * Attempts to extract code posted in code-fences from the given message.
      * <p>
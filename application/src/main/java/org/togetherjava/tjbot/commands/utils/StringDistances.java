@@ -1,8 +1,6 @@
 package org.togetherjava.tjbot.commands.utils;
 
 import java.util.*;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 /**
  * Utility class for computing string distances, for example the edit distance between two words.
@@ -13,6 +11,12 @@ public class StringDistances {
      * between 0.0 (full match) and 1.0 (completely different).
      */
     private static final double OFF_BY_PERCENTAGE_THRESHOLD = 0.5;
+    /**
+     * Rows of the Levenshtein distance table, reused by all computations of a thread to not
+     * allocate a table per computation.
+     */
+    private static final ThreadLocal<TableRows> SCRATCH_ROWS =
+            ThreadLocal.withInitial(TableRows::new);
 
     private StringDistances() {
         throw new UnsupportedOperationException("Utility class, construction not supported");
@@ -32,8 +36,8 @@ public class StringDistances {
      */
     public static <S extends CharSequence> Optional<S> closestMatch(CharSequence query,
             Collection<S> candidates) {
-        return candidates.stream()
-            .min(Comparator.comparingInt(candidate -> editDistance(query, candidate)));
+        return bestMatch(candidates,
+                (candidate, maxDistance) -> editDistance(query, candidate, maxDistance));
     }
 
     /**
@@ -51,8 +55,32 @@ public class StringDistances {
      */
     public static <S extends CharSequence> Optional<S> autocomplete(CharSequence prefix,
             Collection<S> candidates) {
-        return candidates.stream()
-            .min(Comparator.comparingInt(candidate -> prefixEditDistance(prefix, candidate)));
+        return bestMatch(candidates,
+                (candidate, maxDistance) -> prefixEditDistance(prefix, candidate, maxDistance));
+    }
+
+    /**
+     * Selects the candidate with the smallest distance, the first one on ties. Since only
+     * candidates closer than the best so far are of interest, the distance of the others does not
+     * have to be computed fully.
+     */
+    private static <S extends CharSequence> Optional<S> bestMatch(Collection<S> candidates,
+            BoundedDistance<? super S> distance) {
+        S bestCandidate = null;
+        int bestDistance = Integer.MAX_VALUE;
+
+        for (S candidate : candidates) {
+            int candidateDistance = distance.compute(candidate, bestDistance - 1);
+            if (bestCandidate == null || candidateDistance < bestDistance) {
+                bestCandidate = candidate;
+                bestDistance = candidateDistance;
+            }
+            if (bestDistance == 0) {
+                break;
+            }
+        }
+
+        return Optional.ofNullable(bestCandidate);
     }
 
     /**
@@ -68,27 +96,53 @@ public class StringDistances {
         if (candidates.isEmpty()) {
             return List.of();
         }
+        if (limit < 0) {
+            throw new IllegalArgumentException("The limit must not be negative, but was " + limit);
+        }
+        if (limit == 0) {
+            return List.of();
+        }
+
+        int maxCloseEnoughDistance = maxCloseMatchDistance(prefix);
+
+        // The worst of the best matches so far is on top, to be replaced by better matches
+        Queue<MatchScore> bestMatches = new PriorityQueue<>(limit, Comparator.reverseOrder());
+        for (String candidate : candidates) {
+            // Once enough matches are found, only candidates at least as close are of interest
+            int maxDistance = bestMatches.size() < limit ? maxCloseEnoughDistance
+                    : Math.min(maxCloseEnoughDistance, bestMatches.element().score());
 
-        Collection<MatchScore> scoredMatches = candidates.stream()
-            .map(candidate -> new MatchScore(candidate, prefixEditDistance(prefix, candidate)))
-            .toList();
+            int distance = prefixEditDistance(prefix, candidate, maxDistance);
+            if (distance > maxDistance) {
+                continue;
+            }
 
-        Queue<MatchScore> bestMatches = new PriorityQueue<>();
-        bestMatches.addAll(scoredMatches);
+            MatchScore match = new MatchScore(candidate, distance);
+            if (bestMatches.size() < limit) {
+                bestMatches.add(match);
+            } else if (match.compareTo(bestMatches.element()) < 0) {
+                bestMatches.remove();
+                bestMatches.add(match);
+            }
+        }
 
-        return Stream.generate(bestMatches::poll)
-            .limit(Math.min(limit, bestMatches.size()))
-            .takeWhile(matchScore -> isCloseEnough(matchScore, prefix))
-            .map(MatchScore::candidate)
-            .toList();
+        return bestMatches.stream().sorted().map(MatchScore::candidate).toList();
     }
 
-    private static boolean isCloseEnough(MatchScore matchScore, CharSequence prefix) {
+    /**
+     * Gets the maximal prefix edit distance of candidates to the given prefix to be considered a
+     * close match by {@link #closeMatches(CharSequence, Collection, int)}.
+     *
+     * @param prefix the prefix to give matches for
+     * @return the maximal distance of close matches, {@link Integer#MAX_VALUE} if any candidate is
+     *         a close match
+     */
+    public static int maxCloseMatchDistance(CharSequence prefix) {
         if (prefix.isEmpty()) {
-            return true;
+            return Integer.MAX_VALUE;
         }
 
-        return matchScore.score / prefix.length() <= OFF_BY_PERCENTAGE_THRESHOLD;
+        return (int) Math.floor(prefix.length() * OFF_BY_PERCENTAGE_THRESHOLD);
     }
 
     /**
@@ -101,12 +155,29 @@ public class StringDistances {
      * @return the edit distance
      */
     public static int editDistance(CharSequence source, CharSequence destination) {
-        // Given by the value in the last row and column
-        int[][] table = computeLevenshteinDistanceTable(source, destination);
-        int rows = table.length;
-        int columns = table[0].length;
+        return editDistance(source, destination, Integer.MAX_VALUE);
+    }
 
-        return table[rows - 1][columns - 1];
+    /**
+     * Distance to receive {@code destination} from {@code source} by editing, if it is not greater
+     * than the given maximal distance.
+     * <p>
+     * This is faster than {@link #editDistance(CharSequence, CharSequence)} if only small distances
+     * are of interest, since the computation stops as soon as the distance is known to exceed the
+     * maximum.
+     *
+     * @param source the source string to start with
+     * @param destination the destination string to receive by editing the source
+     * @param maxDistance the maximal distance of interest, not negative
+     * @return the edit distance, or {@code maxDistance + 1} if it is greater than the maximum
+     */
+    public static int editDistance(CharSequence source, CharSequence destination,
+            int maxDistance) {
+        // Each character that one string is longer than the other requires an edit
+        if (Math.abs(source.length() - destination.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        return computeLevenshteinDistance(source, destination, maxDistance, false);
     }
 
     /**
@@ -120,15 +191,30 @@ public class StringDistances {
      * @return the prefix edit distance
      */
     public static int prefixEditDistance(CharSequence source, CharSequence destination) {
-        // Given by the smallest value in the last row
-        int[][] table = computeLevenshteinDistanceTable(source, destination);
-        int lastRowIndex = table.length - 1;
+        return prefixEditDistance(source, destination, Integer.MAX_VALUE);
+    }
 
-        return Arrays.stream(table[lastRowIndex]).min().orElseThrow();
+    /**
+     * Distance to receive a prefix of {@code destination} from {@code source} by editing that
+     * minimizes the distance, if it is not greater than the given maximal distance.
+     * <p>
+     * This is faster than {@link #prefixEditDistance(CharSequence, CharSequence)} if only small
+     * distances are of interest, since the computation stops as soon as the distance is known to
+     * exceed the maximum.
+     *
+     * @param source the source string to start with
+     * @param destination the destination string to receive a prefix of by editing the source
+     * @param maxDistance the maximal distance of interest, not negative
+     * @return the prefix edit distance, or {@code maxDistance + 1} if it is greater than the
+     *         maximum
+     */
+    public static int prefixEditDistance(CharSequence source, CharSequence destination,
+            int maxDistance) {
+        return computeLevenshteinDistance(source, destination, maxDistance, true);
     }
 
     /**
-     * Computes the Levenshtein distance table for the given strings. See
+     * Computes the distance using the Levenshtein distance table for the given strings. See
      * <a href="https://en.wikipedia.org/wiki/Levenshtein_distance">Levenshtein distance</a> for
      * details.
      * <p>
@@ -143,49 +229,106 @@ public class StringDistances {
      * c | 3 2 1 0 1 2 3 4
      * </pre>
      *
+     * The edit distance is given by the value in the last row and column, the prefix edit distance
+     * by the smallest value in the last row.
+     * <p>
+     * Only two rows of the table are kept at a time. Values along any path through the table do
+     * not decrease, so once all values of a row exceed the maximal distance, so does the result and
+     * the computation stops early.
+     *
      * @param source the source string to start with
      * @param destination the destination string to receive by editing the source
-     * @return the levenshtein distance table
+     * @param maxDistance the maximal distance of interest
+     * @param isPrefixDistance whether to compute the prefix edit distance instead of the edit
+     *        distance
+     * @return the distance, or {@code maxDistance + 1} if it is greater than the maximum
      */
-    private static int[][] computeLevenshteinDistanceTable(CharSequence source,
-            CharSequence destination) {
+    private static int computeLevenshteinDistance(CharSequence source, CharSequence destination,
+            int maxDistance, boolean isPrefixDistance) {
         int rows = source.length() + 1;
         int columns = destination.length() + 1;
-        int[][] table = new int[rows][columns];
 
-        // Initialize first row and column for distances from the empty word to the target word
+        TableRows scratchRows = SCRATCH_ROWS.get();
+        scratchRows.ensureCapacity(columns);
+        int[] previousRow = scratchRows.first;
+        int[] currentRow = scratchRows.second;
+
+        // Initialize first row for distances from the empty word to the target word
         for (int y = 0; y < columns; y++) {
-            table[0][y] = y;
-        }
-        for (int x = 0; x < rows; x++) {
-            table[x][0] = x;
+            previousRow[y] = y;
         }
 
         // Process row by row, selecting diagonal candidates
         for (int x = 1; x < rows; x++) {
+            char sourceChar = source.charAt(x - 1);
+            currentRow[0] = x;
+            int rowMinimum = x;
+
             for (int y = 1; y < columns; y++) {
                 // Take minimum of all candidates
-                int upperCandidate = table[x - 1][y] + 1;
-                int leftCandidate = table[x][y - 1] + 1;
-                int diagonalCandidate = table[x - 1][y - 1];
-                if (source.charAt(x - 1) != destination.charAt(y - 1)) {
+                int upperCandidate = previousRow[y] + 1;
+                int leftCandidate = currentRow[y - 1] + 1;
+                int diagonalCandidate = previousRow[y - 1];
+                if (sourceChar != destination.charAt(y - 1)) {
                     diagonalCandidate++;
                 }
 
-                int bestCandidate = IntStream.of(upperCandidate, leftCandidate, diagonalCandidate)
-                    .min()
-                    .orElseThrow();
-                table[x][y] = bestCandidate;
+                int bestCandidate =
+                        Math.min(Math.min(upperCandidate, leftCandidate), diagonalCandidate);
+                currentRow[y] = bestCandidate;
+                rowMinimum = Math.min(rowMinimum, bestCandidate);
             }
+
+            if (rowMinimum > maxDistance) {
+                return maxDistance + 1;
+            }
+
+            int[] swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
         }
 
-        return table;
+        int distance = isPrefixDistance ? minimum(previousRow, columns) : previousRow[columns - 1];
+        return distance > maxDistance ? maxDistance + 1 : distance;
+    }
+
+    private static int minimum(int[] values, int length) {
+        int minimum = values[0];
+        for (int i = 1; i < length; i++) {
+            minimum = Math.min(minimum, values[i]);
+        }
+        return minimum;
+    }
+
+    /**
+     * Distance to a candidate, computed only up to a maximal distance.
+     *
+     * @param <S> the type of the candidates
+     */
+    @FunctionalInterface
+    private interface BoundedDistance<S> {
+        int compute(S candidate, int maxDistance);
+    }
+
+    /**
+     * Two rows of the Levenshtein distance table, grown as needed.
+     */
+    private static final class TableRows {
+        private int[] first = new int[0];
+        private int[] second = new int[0];
+
+        void ensureCapacity(int columns) {
+            if (first.length < columns) {
+                first = new int[columns];
+                second = new int[columns];
+            }
+        }
     }
 
-    private record MatchScore(String candidate, double score) implements Comparable<MatchScore> {
+    private record MatchScore(String candidate, int score) implements Comparable<MatchScore> {
         @Override
         public int compareTo(MatchScore otherMatchScore) {
-            int compareResult = Double.compare(this.score, otherMatchScore.score);
+            int compareResult = Integer.compare(this.score, otherMatchScore.score);
 
             if (compareResult == 0) {
                 return this.candidate.compareTo(otherMatchScore.candidate);
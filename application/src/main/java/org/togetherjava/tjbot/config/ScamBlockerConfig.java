@@ -22,6 +22,7 @@ public final class ScamBlockerConfig {
     private final Set<String> hostBlacklist;
     private final Set<String> suspiciousHostKeywords;
     private final int isHostSimilarToKeywordDistanceThreshold;
+    private final int similarScamDistanceThreshold;
 
     @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
     private ScamBlockerConfig(@JsonProperty(value = "mode", required = true) Mode mode,
@@ -34,7 +35,9 @@ public final class ScamBlockerConfig {
             @JsonProperty(value = "suspiciousHostKeywords",
                     required = true) Set<String> suspiciousHostKeywords,
             @JsonProperty(value = "isHostSimilarToKeywordDistanceThreshold",
-                    required = true) int isHostSimilarToKeywordDistanceThreshold) {
+                    required = true) int isHostSimilarToKeywordDistanceThreshold,
+            @JsonProperty(value = "similarScamDistanceThreshold",
+                    required = true) int similarScamDistanceThreshold) {
         this.mode = Objects.requireNonNull(mode);
         this.reportChannelPattern = Objects.requireNonNull(reportChannelPattern);
         this.suspiciousKeywords = new HashSet<>(Objects.requireNonNull(suspiciousKeywords));
@@ -42,6 +45,7 @@ public final class ScamBlockerConfig {
         this.hostBlacklist = new HashSet<>(Objects.requireNonNull(hostBlacklist));
         this.suspiciousHostKeywords = new HashSet<>(Objects.requireNonNull(suspiciousHostKeywords));
         this.isHostSimilarToKeywordDistanceThreshold = isHostSimilarToKeywordDistanceThreshold;
+        this.similarScamDistanceThreshold = similarScamDistanceThreshold;
     }
 
     /**
@@ -111,6 +115,18 @@ public final class ScamBlockerConfig {
         return isHostSimilarToKeywordDistanceThreshold;
     }
 
+    /**
+     * Gets the threshold used to determine whether two scam messages are near-duplicates of each
+     * other. If the Hamming distance of their locality-sensitive fingerprints is at most this
+     * threshold, they are considered duplicates. A threshold of {@code 0} only considers messages
+     * with identical content as duplicates.
+     *
+     * @return the threshold to determine near-duplicates, between {@code 0} and {@code 63}
+     */
+    public int getSimilarScamDistanceThreshold() {
+        return similarScamDistanceThreshold;
+    }
+
     /**
      * Mode of a scam blocker. Controls which actions it takes when detecting scam.
      */
@@ -9,6 +9,7 @@ import net.dv8tion.jda.api.utils.FileUpload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
 import org.togetherjava.tjbot.config.Config;
 
 import javax.annotation.Nullable;
@@ -17,8 +18,6 @@ import java.awt.Color;
 import java.nio.charset.StandardCharsets;
 import java.time.temporal.TemporalAccessor;
 import java.util.Optional;
-import java.util.function.Predicate;
-import java.util.regex.Pattern;
 
 /**
  * Utility class that allows you to easily log an entry on the mod audit log channel. Thread-Safe.
@@ -33,18 +32,17 @@ public final class ModAuditLogWriter {
     private static final Logger logger = LoggerFactory.getLogger(ModAuditLogWriter.class);
 
     private final Config config;
-
-    private final Predicate<String> auditLogChannelNamePredicate;
+    private final GuildEntityResolver guildEntityResolver;
 
     /**
      * Creates a new instance.
      *
      * @param config the config to use for this
+     * @param guildEntityResolver the resolver to find the mod audit log channel with
      */
-    public ModAuditLogWriter(Config config) {
+    public ModAuditLogWriter(Config config, GuildEntityResolver guildEntityResolver) {
         this.config = config;
-        auditLogChannelNamePredicate =
-                Pattern.compile(config.getModAuditLogChannelPattern()).asMatchPredicate();
+        this.guildEntityResolver = guildEntityResolver;
     }
 
     /**
@@ -90,10 +88,8 @@ public final class ModAuditLogWriter {
      * @return the channel used for moderation audit logs, if present
      */
     public Optional<TextChannel> getAndHandleModAuditLogChannel(Guild guild) {
-        Optional<TextChannel> auditLogChannel = guild.getTextChannelCache()
-            .stream()
-            .filter(channel -> auditLogChannelNamePredicate.test(channel.getName()))
-            .findAny();
+        Optional<TextChannel> auditLogChannel =
+                guildEntityResolver.findTextChannel(guild, config.getModAuditLogChannelPattern());
 
         if (auditLogChannel.isEmpty()) {
             logger.warn(
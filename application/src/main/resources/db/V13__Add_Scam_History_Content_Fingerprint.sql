@@ -0,0 +1,22 @@
+-- Content is identified by a 64-bit fingerprint from now on, existing rows keep their legacy hash
+CREATE TABLE scam_history_new
+(
+    id                  INTEGER   NOT NULL PRIMARY KEY AUTOINCREMENT,
+    sent_at             TIMESTAMP NOT NULL,
+    guild_id            BIGINT    NOT NULL,
+    channel_id          BIGINT    NOT NULL,
+    message_id          BIGINT    NOT NULL,
+    author_id           BIGINT    NOT NULL,
+    content_hash        TEXT,
+    content_fingerprint BIGINT,
+    is_deleted          BOOLEAN   NOT NULL
+);
+
+INSERT INTO scam_history_new (id, sent_at, guild_id, channel_id, message_id, author_id,
+                              content_hash, is_deleted)
+SELECT id, sent_at, guild_id, channel_id, message_id, author_id, content_hash, is_deleted
+FROM scam_history;
+
+DROP TABLE scam_history;
+
+ALTER TABLE scam_history_new RENAME TO scam_history;
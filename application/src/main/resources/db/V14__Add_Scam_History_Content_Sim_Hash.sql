@@ -0,0 +1 @@
+ALTER TABLE scam_history ADD content_sim_hash BIGINT;
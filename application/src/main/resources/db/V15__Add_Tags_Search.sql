@@ -0,0 +1,31 @@
+CREATE VIRTUAL TABLE tags_search USING fts5
+(
+    id,
+    content
+);
+
+INSERT INTO tags_search (id, content)
+SELECT id, content
+FROM tags;
+
+CREATE TRIGGER tags_search_insert
+    AFTER INSERT
+    ON tags
+BEGIN
+    INSERT INTO tags_search (id, content) VALUES (new.id, new.content);
+END;
+
+CREATE TRIGGER tags_search_update
+    AFTER UPDATE
+    ON tags
+BEGIN
+    DELETE FROM tags_search WHERE id = old.id;
+    INSERT INTO tags_search (id, content) VALUES (new.id, new.content);
+END;
+
+CREATE TRIGGER tags_search_delete
+    AFTER DELETE
+    ON tags
+BEGIN
+    DELETE FROM tags_search WHERE id = old.id;
+END;
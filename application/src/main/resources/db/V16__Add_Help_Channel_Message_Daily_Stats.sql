@@ -0,0 +1,23 @@
+CREATE TABLE help_channel_message_daily_stats
+(
+    guild_id      BIGINT NOT NULL,
+    author_id     BIGINT NOT NULL,
+    epoch_day     BIGINT NOT NULL,
+    message_count BIGINT NOT NULL,
+    total_length  BIGINT NOT NULL,
+
+    PRIMARY KEY (guild_id, author_id, epoch_day)
+);
+
+-- Timestamps are stored either as text or as milliseconds since the epoch
+INSERT INTO help_channel_message_daily_stats (guild_id, author_id, epoch_day, message_count,
+                                              total_length)
+SELECT guild_id,
+       author_id,
+       CAST(julianday(CASE
+                          WHEN typeof(sent_at) = 'integer' THEN datetime(sent_at / 1000, 'unixepoch')
+                          ELSE sent_at END) - 2440587.5 AS INTEGER) AS epoch_day,
+       count(*),
+       sum(message_length)
+FROM help_channel_messages
+GROUP BY guild_id, author_id, epoch_day;
@@ -0,0 +1,8 @@
+CREATE TABLE top_helpers_leaderboards
+(
+    guild_id    BIGINT NOT NULL,
+    year_month  TEXT   NOT NULL,
+    leaderboard TEXT   NOT NULL,
+
+    PRIMARY KEY (guild_id, year_month)
+);
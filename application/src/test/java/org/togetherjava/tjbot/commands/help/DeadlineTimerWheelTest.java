@@ -0,0 +1,104 @@
+package org.togetherjava.tjbot.commands.help;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class DeadlineTimerWheelTest {
+    private static final Instant START = Instant.parse("2022-10-01T12:00:00Z");
+    private static final Duration TICK = Duration.ofMinutes(1);
+
+    private DeadlineTimerWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new DeadlineTimerWheel(TICK, 16, START);
+    }
+
+    private static Instant minutesLater(int minutes) {
+        return START.plus(Duration.ofMinutes(minutes));
+    }
+
+    @Test
+    void expiresReachedDeadlines() {
+        wheel.schedule(1, minutesLater(5));
+        wheel.schedule(2, minutesLater(10));
+
+        assertEquals(List.of(), wheel.advance(minutesLater(4)));
+        assertEquals(List.of(1L), wheel.advance(minutesLater(5)));
+        assertNull(wheel.getDeadline(1));
+        assertEquals(List.of(2L), wheel.advance(minutesLater(12)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void keepsLatestDeadline() {
+        wheel.schedule(1, minutesLater(5));
+        wheel.schedule(1, minutesLater(8));
+        wheel.schedule(1, minutesLater(3));
+
+        assertEquals(minutesLater(8), wheel.getDeadline(1));
+        assertEquals(List.of(), wheel.advance(minutesLater(7)));
+        assertEquals(List.of(1L), wheel.advance(minutesLater(8)));
+    }
+
+    @Test
+    void handlesDeadlinesBeyondRotation() {
+        wheel.schedule(1, minutesLater(40));
+
+        assertEquals(List.of(), wheel.advance(minutesLater(24)));
+        assertEquals(List.of(), wheel.advance(minutesLater(39)));
+        assertEquals(List.of(1L), wheel.advance(minutesLater(100)));
+    }
+
+    @Test
+    void expiresPastDeadlinesOnNextAdvance() {
+        wheel.advance(minutesLater(10));
+        wheel.schedule(1, minutesLater(2));
+
+        assertEquals(List.of(1L), wheel.advance(minutesLater(10)));
+    }
+
+    @Test
+    void identicalToMap() {
+        Random random = new Random(42);
+        Map<Long, Instant> expectedDeadlines = new HashMap<>();
+
+        int minute = 0;
+        for (int step = 0; step < 5_000; step++) {
+            long id = random.nextInt(50);
+            Instant deadline = minutesLater(minute + random.nextInt(60));
+            wheel.schedule(id, deadline);
+            expectedDeadlines.merge(id, deadline, (a, b) -> a.isAfter(b) ? a : b);
+
+            if (random.nextInt(3) == 0) {
+                minute += random.nextInt(30);
+                Instant now = minutesLater(minute);
+
+                List<Long> expectedExpired = new ArrayList<>();
+                expectedDeadlines.forEach((expiringId, expiringDeadline) -> {
+                    if (!expiringDeadline.isAfter(now)) {
+                        expectedExpired.add(expiringId);
+                    }
+                });
+                expectedExpired.forEach(expectedDeadlines::remove);
+
+                List<Long> expired = wheel.advance(now);
+                assertEquals(expectedExpired.size(), expired.size());
+                assertTrue(expired.containsAll(expectedExpired));
+            }
+        }
+        assertEquals(expectedDeadlines.size(), wheel.size());
+    }
+}
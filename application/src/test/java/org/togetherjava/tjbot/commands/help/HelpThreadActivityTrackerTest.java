@@ -0,0 +1,86 @@
+package org.togetherjava.tjbot.commands.help;
+
+import net.dv8tion.jda.api.utils.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.commands.help.HelpSystemHelper.ThreadActivity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.togetherjava.tjbot.commands.help.HelpThreadActivityTracker.SELF_AUTHOR_ID;
+
+final class HelpThreadActivityTrackerTest {
+    private static final long ASKER_ID = 1;
+    private static final long HELPER_ID = 2;
+
+    private HelpThreadActivityTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new HelpThreadActivityTracker();
+    }
+
+    private static long createThreadId(Instant createdAt) {
+        return TimeUtil.getDiscordTimestamp(createdAt.toEpochMilli());
+    }
+
+    private static long createNewThreadId() {
+        return createThreadId(Instant.now().plusSeconds(1));
+    }
+
+    @Test
+    void determinesActivityOfNewThreads() {
+        long threadId = createNewThreadId();
+        assertEquals(Optional.of(ThreadActivity.LOW), tracker.getActivity(threadId));
+
+        // Bot messages and a single author are no activity
+        tracker.recordMessage(threadId, ASKER_ID);
+        tracker.recordMessage(threadId, SELF_AUTHOR_ID);
+        tracker.recordMessage(threadId, ASKER_ID);
+        assertEquals(Optional.of(ThreadActivity.LOW), tracker.getActivity(threadId));
+
+        tracker.recordMessage(threadId, HELPER_ID);
+        assertEquals(Optional.of(ThreadActivity.MEDIUM), tracker.getActivity(threadId));
+
+        for (int i = 0; i < HelpThreadActivityTracker.ACTIVITY_DETERMINE_MESSAGE_LIMIT; i++) {
+            tracker.recordMessage(threadId, SELF_AUTHOR_ID);
+        }
+        assertEquals(Optional.of(ThreadActivity.HIGH), tracker.getActivity(threadId));
+    }
+
+    @Test
+    void requiresRecoveryOfOldThreads() {
+        long threadId = createThreadId(Instant.now().minus(Duration.ofDays(1)));
+        assertEquals(Optional.empty(), tracker.getActivity(threadId));
+
+        // The earlier messages are still unknown
+        tracker.recordMessage(threadId, HELPER_ID);
+        assertEquals(Optional.empty(), tracker.getActivity(threadId));
+
+        assertEquals(ThreadActivity.MEDIUM,
+                tracker.recoverThread(threadId, List.of(ASKER_ID, HELPER_ID, HELPER_ID)));
+        assertEquals(Optional.of(ThreadActivity.MEDIUM), tracker.getActivity(threadId));
+
+        tracker.recordMessage(threadId, SELF_AUTHOR_ID);
+        assertEquals(Optional.of(ThreadActivity.MEDIUM), tracker.getActivity(threadId));
+    }
+
+    @Test
+    void resetForgetsEarlierMessages() {
+        long threadId = createThreadId(Instant.now().minus(Duration.ofDays(1)));
+        tracker.recordMessage(threadId, ASKER_ID);
+        tracker.recordMessage(threadId, HELPER_ID);
+        tracker.recordMessage(threadId, HELPER_ID);
+
+        tracker.resetThread(threadId);
+        assertEquals(Optional.of(ThreadActivity.LOW), tracker.getActivity(threadId));
+
+        tracker.recordMessage(threadId, HELPER_ID);
+        assertEquals(Optional.of(ThreadActivity.LOW), tracker.getActivity(threadId));
+    }
+}
@@ -0,0 +1,107 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class FloodDetectorTest {
+    private static final long AUTHOR_ID = 1;
+    private static final long OTHER_AUTHOR_ID = 2;
+    private static final long CONTENT = 42;
+    private static final long OTHER_CONTENT = 43;
+    private static final int CHANNEL_THRESHOLD = 3;
+    private static final long WINDOW_MILLIS = 10_000;
+
+    private FloodDetector detector;
+    private long nextMessageId;
+
+    @BeforeEach
+    void setUp() {
+        detector = new FloodDetector(Duration.ofMillis(WINDOW_MILLIS), CHANNEL_THRESHOLD, 8, 16);
+        nextMessageId = 0;
+    }
+
+    private List<FloodDetector.FloodMessage> send(long authorId, long channelId, long content,
+            long sentAtMillis) {
+        return detector.recordMessage(authorId, channelId, nextMessageId++, content,
+                sentAtMillis);
+    }
+
+    @Test
+    @DisplayName("A flood is detected once enough distinct channels received the same message")
+    void detectsFloodAtThreshold() {
+        assertTrue(send(AUTHOR_ID, 1, CONTENT, 0).isEmpty());
+        assertTrue(send(AUTHOR_ID, 2, CONTENT, 1).isEmpty());
+
+        List<FloodDetector.FloodMessage> flood = send(AUTHOR_ID, 3, CONTENT, 2);
+
+        assertEquals(List.of(new FloodDetector.FloodMessage(1, 0),
+                new FloodDetector.FloodMessage(2, 1), new FloodDetector.FloodMessage(3, 2)),
+                flood);
+    }
+
+    @Test
+    @DisplayName("Repeating a message in the same channel is not a flood")
+    void sameChannelIsNoFlood() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(send(AUTHOR_ID, 1, CONTENT, i).isEmpty());
+        }
+        assertTrue(send(AUTHOR_ID, 2, CONTENT, 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Different messages in different channels are not a flood")
+    void differentContentIsNoFlood() {
+        assertTrue(send(AUTHOR_ID, 1, CONTENT, 0).isEmpty());
+        assertTrue(send(AUTHOR_ID, 2, OTHER_CONTENT, 1).isEmpty());
+        assertTrue(send(AUTHOR_ID, 3, CONTENT + 2, 2).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Messages sent outside of the window do not count towards a flood")
+    void windowExpires() {
+        assertTrue(send(AUTHOR_ID, 1, CONTENT, 0).isEmpty());
+        assertTrue(send(AUTHOR_ID, 2, CONTENT, WINDOW_MILLIS / 2).isEmpty());
+        assertTrue(send(AUTHOR_ID, 3, CONTENT, WINDOW_MILLIS + 1).isEmpty());
+
+        assertEquals(3, send(AUTHOR_ID, 4, CONTENT, WINDOW_MILLIS + 2).size());
+    }
+
+    @Test
+    @DisplayName("Once detected, further messages of a flood are returned by themselves")
+    void continuingFloodReturnsOnlyNewMessages() {
+        send(AUTHOR_ID, 1, CONTENT, 0);
+        send(AUTHOR_ID, 2, CONTENT, 1);
+        send(AUTHOR_ID, 3, CONTENT, 2);
+
+        assertEquals(List.of(new FloodDetector.FloodMessage(4, 3)),
+                send(AUTHOR_ID, 4, CONTENT, 3));
+        assertEquals(List.of(new FloodDetector.FloodMessage(1, 4)),
+                send(AUTHOR_ID, 1, CONTENT, 4));
+    }
+
+    @Test
+    @DisplayName("Messages of different authors do not count towards the same flood")
+    void authorsAreIndependent() {
+        assertTrue(send(AUTHOR_ID, 1, CONTENT, 0).isEmpty());
+        assertTrue(send(OTHER_AUTHOR_ID, 2, CONTENT, 1).isEmpty());
+        assertTrue(send(OTHER_AUTHOR_ID, 3, CONTENT, 2).isEmpty());
+        assertTrue(send(AUTHOR_ID, 4, CONTENT, 3).isEmpty());
+
+        assertEquals(3, send(OTHER_AUTHOR_ID, 5, CONTENT, 4).size());
+    }
+
+    @Test
+    @DisplayName("At least as many messages as the threshold have to be remembered")
+    void rejectsTooFewMessagesPerAuthor() {
+        Duration window = Duration.ofSeconds(1);
+        assertThrows(IllegalArgumentException.class, () -> new FloodDetector(window, 5, 4, 16));
+    }
+}
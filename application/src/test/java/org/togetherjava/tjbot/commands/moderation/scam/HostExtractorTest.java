@@ -0,0 +1,66 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+final class HostExtractorTest {
+    /**
+     * The straightforward way of extracting hosts, which the extractor has to be identical to.
+     */
+    private static String extractHostReference(String url) {
+        try {
+            return URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Test
+    @DisplayName("Extracts the host of common URLs")
+    void extractsHost() {
+        assertEquals("github.com", HostExtractor.extractHost("https://github.com"));
+        assertEquals("discord.gg", HostExtractor.extractHost("https://discord.gg/abc?x=1#y"));
+        assertEquals("nitro-ds.online",
+                HostExtractor.extractHost("http://nitro-ds.online/LfgUfMzqYyx12"));
+        assertEquals("example.com", HostExtractor.extractHost("https://example.com:8080/x"));
+        assertEquals("127.0.0.1", HostExtractor.extractHost("http://127.0.0.1/"));
+    }
+
+    @Test
+    @DisplayName("Invalid URLs and URLs without host have no host")
+    void invalidUrlsHaveNoHost() {
+        assertNull(HostExtractor.extractHost("https://"));
+        assertNull(HostExtractor.extractHost("https://-github.com/"));
+        assertNull(HostExtractor.extractHost("https://github.com/a b"));
+        assertNull(HostExtractor.extractHost("https://github.com/%zz"));
+        assertNull(HostExtractor.extractHost("http:github.com"));
+    }
+
+    @Test
+    @DisplayName("Hosts are identical to parsing the URL with URI")
+    void identicalToReference() {
+        String alphabet = "ab1-._:/?#%@[]é A9fF!~*'()&=+$,;\"<>|^`{}\\";
+        String[] prefixes = {"http://", "https://", "http:", "https:/", "httpx://", "HTTP://", ""};
+        Random random = new Random(42);
+
+        for (int run = 0; run < 100_000; run++) {
+            StringBuilder url = new StringBuilder(prefixes[random.nextInt(prefixes.length)]);
+            int length = random.nextInt(14);
+            for (int i = 0; i < length; i++) {
+                // Favor characters that are common in hosts
+                int alphabetSize = random.nextBoolean() ? 8 : alphabet.length();
+                url.append(alphabet.charAt(random.nextInt(alphabetSize)));
+            }
+
+            String expectedHost = extractHostReference(url.toString());
+            String actualHost = HostExtractor.extractHost(url.toString());
+            assertEquals(expectedHost, actualHost, () -> "Host of '%s'".formatted(url));
+        }
+    }
+}
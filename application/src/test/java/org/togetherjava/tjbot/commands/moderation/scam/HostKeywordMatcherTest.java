@@ -0,0 +1,114 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.commands.utils.StringDistances;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class HostKeywordMatcherTest {
+    /**
+     * The straightforward way of checking hosts, which the matcher has to be identical to.
+     */
+    private static boolean isSimilarToAnyKeywordReference(String host,
+            Collection<String> keywords, int maxDistance) {
+        for (String keyword : keywords) {
+            for (int windowEnd = keyword.length(); windowEnd <= host.length(); windowEnd++) {
+                String window = host.substring(windowEnd - keyword.length(), windowEnd);
+                if (StringDistances.editDistance(keyword, window) <= maxDistance) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    @DisplayName("Finds keywords with small edits anywhere in the host")
+    void isSimilarToAnyKeyword() {
+        HostKeywordMatcher matcher = HostKeywordMatcher.compile(Set.of("discord", "nitro"), 2);
+
+        assertTrue(matcher.isSimilarToAnyKeyword("discord.com"));
+        assertTrue(matcher.isSimilarToAnyKeyword("free-disc0rd.gift"));
+        assertTrue(matcher.isSimilarToAnyKeyword("steam-n1tr0.ru"));
+        assertFalse(matcher.isSimilarToAnyKeyword("dI5c0ndS.com"));
+        assertFalse(matcher.isSimilarToAnyKeyword("github.com"));
+        assertFalse(matcher.isSimilarToAnyKeyword("nitr"));
+    }
+
+    @Test
+    @DisplayName("Windows have the same length as the keyword")
+    void windowsHaveKeywordLength() {
+        HostKeywordMatcher matcher = HostKeywordMatcher.compile(Set.of("discord"), 1);
+
+        // An approximate substring search would accept 'dicord' with a single deletion
+        assertFalse(matcher.isSimilarToAnyKeyword("xdicordx"));
+        assertTrue(matcher.isSimilarToAnyKeyword("xdixcordx"));
+    }
+
+    @Test
+    @DisplayName("Keywords not longer than the distance match any host that is long enough")
+    void shortKeywords() {
+        HostKeywordMatcher matcher = HostKeywordMatcher.compile(Set.of("", "ab"), 2);
+
+        assertTrue(matcher.isSimilarToAnyKeyword(""));
+        assertTrue(matcher.isSimilarToAnyKeyword("xy"));
+        assertFalse(HostKeywordMatcher.compile(Set.of("ab"), 2).isSimilarToAnyKeyword("x"));
+        assertFalse(HostKeywordMatcher.compile(Set.of(""), -1).isSimilarToAnyKeyword("x"));
+    }
+
+    @Test
+    @DisplayName("Verdicts are identical to computing the distance for each window")
+    void identicalToReference() {
+        // Includes non-ASCII characters and surrogates
+        String alphabet = "abcd.-0\u00E9\u0430\uD801\uDC00";
+        Random random = new Random(42);
+
+        for (int run = 0; run < 2_000; run++) {
+            List<String> keywords = new ArrayList<>();
+            int keywordCount = random.nextInt(4);
+            for (int i = 0; i < keywordCount; i++) {
+                keywords.add(randomText(random, alphabet, 8));
+            }
+            int maxDistance = random.nextInt(5) - 1;
+            HostKeywordMatcher matcher = HostKeywordMatcher.compile(keywords, maxDistance);
+
+            for (int i = 0; i < 20; i++) {
+                String host = randomText(random, alphabet, 16);
+
+                assertEquals(isSimilarToAnyKeywordReference(host, keywords, maxDistance),
+                        matcher.isSimilarToAnyKeyword(host),
+                        "Keywords %s with distance %d in host '%s'".formatted(keywords,
+                                maxDistance, host));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Keywords that do not fit into a bit-vector are supported")
+    void longKeywords() {
+        String keyword = "a".repeat(70);
+        HostKeywordMatcher matcher = HostKeywordMatcher.compile(Set.of(keyword), 2);
+
+        assertTrue(matcher.isSimilarToAnyKeyword("x" + "a".repeat(68) + "bb"));
+        assertFalse(matcher.isSimilarToAnyKeyword("a".repeat(67) + "bbb"));
+    }
+
+    private static String randomText(Random random, String alphabet, int maxLength) {
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class KeywordAutomatonTest {
+    private static final Pattern TOKENIZER = Pattern.compile("[\\s,]");
+
+    /**
+     * The straightforward way of checking for keywords, which the automaton has to be identical
+     * to.
+     */
+    private static boolean containsKeywordReference(CharSequence text,
+            Collection<String> keywords) {
+        return TOKENIZER.splitAsStream(text).filter(token -> !token.isBlank()).anyMatch(token -> {
+            String preparedToken = token.toLowerCase(Locale.US);
+            return keywords.stream()
+                .map(keyword -> keyword.toLowerCase(Locale.US))
+                .anyMatch(preparedToken::contains);
+        });
+    }
+
+    @Test
+    @DisplayName("Finds keywords case-insensitive, also overlapping and inside of words")
+    void containsKeyword() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(Set.of("nitro", "he", "she", "hers"));
+
+        assertTrue(automaton.containsKeyword("free NITRO"));
+        assertTrue(automaton.containsKeyword("ushers"));
+        assertTrue(automaton.containsKeyword("xxshe"));
+        assertTrue(automaton.containsKeyword("free,nitros"));
+        assertFalse(automaton.containsKeyword("nitr0 s h e"));
+        assertFalse(automaton.containsKeyword(""));
+    }
+
+    @Test
+    @DisplayName("Keywords must be contained in a single token")
+    void keywordsDoNotSpanTokens() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(Set.of("nitro", "free nitro"));
+
+        assertFalse(automaton.containsKeyword("nit ro"));
+        assertFalse(automaton.containsKeyword("nit,ro"));
+        assertFalse(automaton.containsKeyword("free nitr"));
+    }
+
+    @Test
+    @DisplayName("Empty keywords match any non-blank text")
+    void emptyKeyword() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(Set.of(""));
+
+        assertTrue(automaton.containsKeyword("a"));
+        assertFalse(automaton.containsKeyword(" ,  "));
+    }
+
+    @Test
+    @DisplayName("Verdicts are identical to lowercasing tokens and checking them for keywords")
+    void identicalToReference() {
+        // Includes characters that are special when lowercasing, separators,
+        // whitespace that does not separate tokens and surrogate pairs
+        String alphabet =
+                "abcABC \t\n,\u2003\u001C \u0130i\u03C3\u03C2\u03A3\uD801\uDC00\uD801\uDC28";
+        Random random = new Random(42);
+
+        for (int run = 0; run < 2_000; run++) {
+            List<String> keywords = new ArrayList<>();
+            int keywordCount = random.nextInt(5);
+            for (int i = 0; i < keywordCount; i++) {
+                keywords.add(randomText(random, alphabet, 3));
+            }
+            KeywordAutomaton automaton = KeywordAutomaton.compile(keywords);
+
+            for (int i = 0; i < 20; i++) {
+                String text = randomText(random, alphabet, 12);
+
+                assertEquals(containsKeywordReference(text, keywords),
+                        automaton.containsKeyword(text),
+                        "Keywords %s in text '%s'".formatted(keywords, text));
+            }
+        }
+    }
+
+    private static String randomText(Random random, String alphabet, int maxLength) {
+        int[] codePoints = alphabet.codePoints().toArray();
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            text.appendCodePoint(codePoints[random.nextInt(codePoints.length)]);
+        }
+        return text.toString();
+    }
+}
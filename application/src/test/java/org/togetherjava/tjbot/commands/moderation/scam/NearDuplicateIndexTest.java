@@ -0,0 +1,83 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class NearDuplicateIndexTest {
+    private static final Instant NOW = Instant.ofEpochSecond(1_000_000);
+
+    @Test
+    @DisplayName("Finds fingerprints within the maximal distance in the same group only")
+    void containsNearDuplicate() {
+        NearDuplicateIndex<String> index = new NearDuplicateIndex<>(3);
+        index.add("alice", 0b1111_0000L, NOW);
+
+        assertTrue(index.containsNearDuplicate("alice", 0b1111_0000L, NOW));
+        assertTrue(index.containsNearDuplicate("alice", 0b1111_0111L, NOW));
+        assertFalse(index.containsNearDuplicate("alice", 0b0000_1111L, NOW));
+        assertFalse(index.containsNearDuplicate("bob", 0b1111_0000L, NOW));
+    }
+
+    @Test
+    @DisplayName("Only entries seen since the given time are considered, old entries are removed")
+    void considersRecentEntriesOnly() {
+        NearDuplicateIndex<String> index = new NearDuplicateIndex<>(0);
+        index.add("alice", 1, NOW.minusSeconds(60));
+        index.add("alice", 2, NOW);
+
+        assertFalse(index.containsNearDuplicate("alice", 1, NOW.minusSeconds(30)));
+        assertTrue(index.containsNearDuplicate("alice", 1, NOW.minusSeconds(60)));
+
+        index.removeSeenBefore(NOW.minusSeconds(30));
+
+        assertEquals(1, index.size());
+        assertFalse(index.containsNearDuplicate("alice", 1, NOW.minusSeconds(60)));
+        assertTrue(index.containsNearDuplicate("alice", 2, NOW));
+    }
+
+    @Test
+    void rejectsInvalidDistances() {
+        assertThrows(IllegalArgumentException.class, () -> new NearDuplicateIndex<>(-1));
+        assertThrows(IllegalArgumentException.class, () -> new NearDuplicateIndex<>(64));
+    }
+
+    @Test
+    @DisplayName("Results are identical to comparing against all entries")
+    void identicalToLinearSearch() {
+        Random random = new Random(42);
+
+        for (int maxDistance : new int[] {0, 1, 3, 6, 20, 63}) {
+            NearDuplicateIndex<Integer> index = new NearDuplicateIndex<>(maxDistance);
+            List<Long> fingerprints = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                long fingerprint = random.nextLong();
+                fingerprints.add(fingerprint);
+                index.add(0, fingerprint, NOW);
+            }
+
+            for (int i = 0; i < 200; i++) {
+                // Flips a few bits of known fingerprints, to also produce near-duplicates
+                long fingerprint = fingerprints.get(random.nextInt(fingerprints.size()));
+                for (int flips = random.nextInt(2 * maxDistance + 2); flips > 0; flips--) {
+                    fingerprint ^= 1L << random.nextInt(Long.SIZE);
+                }
+                long query = fingerprint;
+                boolean expected = fingerprints.stream()
+                    .anyMatch(other -> SimHash.hammingDistance(other, query) <= maxDistance);
+
+                assertEquals(expected, index.containsNearDuplicate(0, query, NOW),
+                        "Distance %d for %d".formatted(maxDistance, query));
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.togetherjava.tjbot.config.ScamBlockerConfig;
 import java.util.List;
 import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -105,6 +106,25 @@ final class ScamDetectorTest {
         assertFalse(isScamResult);
     }
 
+    @Test
+    @DisplayName("Verdicts of hosts are remembered and give the same results again")
+    void hostVerdictsAreCached() {
+        // GIVEN a scam message and a harmless message, that were analyzed already
+        String scamMessage = "Checkout https://bit.ly/3IhcLiO to get your free nitro !";
+        String harmlessMessage = "Checkout https://discord.com/nitro to get your free nitro !";
+        scamDetector.isScam(scamMessage);
+        scamDetector.isScam(harmlessMessage);
+
+        // WHEN analyzing them again
+        boolean isScamResult = scamDetector.isScam(scamMessage);
+        boolean isHarmlessResult = scamDetector.isScam(harmlessMessage);
+
+        // THEN the cached verdicts are used and give the same results
+        assertTrue(isScamResult);
+        assertFalse(isHarmlessResult);
+        assertEquals(2, scamDetector.getHostVerdictCacheStats().hitCount());
+    }
+
     private static List<String> provideRealScamMessages() {
         return List.of("""
                 🤩bro steam gived nitro - https://nitro-ds.online/LfgUfMzqYyx12""",
@@ -0,0 +1,52 @@
+package org.togetherjava.tjbot.commands.moderation.scam;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class SimHashTest {
+    private static final String SCAM = "@everyone Free Discord Nitro for 3 months, just claim it "
+            + "here https://dlscord-gift.com/nitro before it runs out!";
+
+    @Test
+    @DisplayName("Texts that only differ in case or whitespace have the same fingerprint")
+    void normalizesText() {
+        assertEquals(SimHash.of(SCAM), SimHash.of(SCAM.toUpperCase()));
+        assertEquals(SimHash.of(SCAM), SimHash.of("  " + SCAM.replace(" ", " \n\t ")));
+        assertEquals(0, SimHash.of(" \n"));
+    }
+
+    @Test
+    @DisplayName("Fingerprints of similar texts are similar")
+    void similarTextsAreClose() {
+        long fingerprint = SimHash.of(SCAM);
+
+        assertTrue(SimHash.hammingDistance(fingerprint, SimHash.of(SCAM.replace("3", "1"))) <= 6);
+        assertTrue(SimHash.hammingDistance(fingerprint,
+                SimHash.of(SCAM.replace("dlscord", "discrod"))) <= 6);
+        assertTrue(SimHash.hammingDistance(fingerprint, SimHash.of(SCAM + " :)")) <= 6);
+    }
+
+    @Test
+    @DisplayName("Fingerprints of different texts are far apart")
+    void differentTextsAreFar() {
+        long fingerprint = SimHash.of(SCAM);
+
+        String question = "hey, anyone know how to fix NullPointerException in my spring boot app?";
+        String otherScam = "@everyone Steam gives away free games https://steamcommunity-gift.ru/";
+
+        assertTrue(SimHash.hammingDistance(fingerprint, SimHash.of(question)) > 16);
+        assertTrue(SimHash.hammingDistance(fingerprint, SimHash.of(otherScam)) > 16);
+        assertNotEquals(SimHash.of("ab"), SimHash.of("ba"));
+    }
+
+    @Test
+    void hammingDistance() {
+        assertEquals(0, SimHash.hammingDistance(5, 5));
+        assertEquals(1, SimHash.hammingDistance(0b100, 0b101));
+        assertEquals(64, SimHash.hammingDistance(0, -1));
+    }
+}
@@ -0,0 +1,105 @@
+package org.togetherjava.tjbot.commands.system;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.events.channel.ChannelCreateEvent;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.GenericChannelEvent;
+import net.dv8tion.jda.api.events.channel.update.GenericChannelUpdateEvent;
+import net.dv8tion.jda.api.events.role.GenericRoleEvent;
+import net.dv8tion.jda.api.events.role.RoleCreateEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.GenericRoleUpdateEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.commands.utils.GuildEntityResolver;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+final class GuildEntityCacheInvalidatorTest {
+    private static final long GUILD_ID = 1;
+
+    private Guild guild;
+    private GuildEntityResolver resolver;
+    private GuildEntityCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        guild = mock(Guild.class);
+        when(guild.getIdLong()).thenReturn(GUILD_ID);
+
+        resolver = mock(GuildEntityResolver.class);
+        invalidator = new GuildEntityCacheInvalidator(resolver);
+    }
+
+    private <T extends GenericChannelEvent> T mockChannelEvent(Class<T> eventType,
+            ChannelType channelType) {
+        T event = mock(eventType);
+        when(event.isFromGuild()).thenReturn(true);
+        when(event.getChannelType()).thenReturn(channelType);
+        when(event.getGuild()).thenReturn(guild);
+        return event;
+    }
+
+    private <T extends GenericRoleEvent> T mockRoleEvent(Class<T> eventType) {
+        T event = mock(eventType);
+        when(event.getGuild()).thenReturn(guild);
+        return event;
+    }
+
+    @Test
+    void invalidatesOnChannelCreate() {
+        invalidator.onChannelCreate(mockChannelEvent(ChannelCreateEvent.class, ChannelType.TEXT));
+
+        verify(resolver).invalidate(GUILD_ID);
+    }
+
+    @Test
+    void invalidatesOnChannelUpdate() {
+        invalidator.onGenericChannelUpdate(
+                mockChannelEvent(GenericChannelUpdateEvent.class, ChannelType.FORUM));
+
+        verify(resolver).invalidate(GUILD_ID);
+    }
+
+    @Test
+    void invalidatesOnChannelDelete() {
+        invalidator.onChannelDelete(mockChannelEvent(ChannelDeleteEvent.class, ChannelType.TEXT));
+
+        verify(resolver).invalidate(GUILD_ID);
+    }
+
+    @Test
+    void ignoresThreads() {
+        invalidator.onChannelCreate(
+                mockChannelEvent(ChannelCreateEvent.class, ChannelType.GUILD_PUBLIC_THREAD));
+
+        verify(resolver, never()).invalidate(anyLong());
+    }
+
+    @Test
+    void invalidatesOnRoleCreate() {
+        invalidator.onRoleCreate(mockRoleEvent(RoleCreateEvent.class));
+
+        verify(resolver).invalidate(GUILD_ID);
+    }
+
+    @Test
+    void invalidatesOnRoleUpdate() {
+        invalidator.onGenericRoleUpdate(mockRoleEvent(GenericRoleUpdateEvent.class));
+
+        verify(resolver).invalidate(GUILD_ID);
+    }
+
+    @Test
+    void invalidatesOnRoleDelete() {
+        invalidator.onRoleDelete(mockRoleEvent(RoleDeleteEvent.class));
+
+        verify(resolver).invalidate(GUILD_ID);
+    }
+}
@@ -0,0 +1,107 @@
+package org.togetherjava.tjbot.commands.tags;
+
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.commands.utils.StringDistances;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class TagIndexTest {
+
+    @Test
+    void closeMatches() {
+        TagIndex index = new TagIndex(List.of("c", "c#", "c++", "emacs", "foo", "hello", "java",
+                "js", "key", "nvim", "py", "tag", "taz", "vi", "vim"));
+
+        assertEquals(List.of("c", "c#", "c++", "emacs", "foo"), index.closeMatches("", 5));
+        assertEquals(List.of("vi", "vim"), index.closeMatches("v", 5));
+        assertEquals(List.of("java", "js"), index.closeMatches("j", 5));
+        assertEquals(List.of("tag", "taz"), index.closeMatches("tag", 2));
+        assertEquals(List.of(), index.closeMatches("v", 0));
+        assertThrows(IllegalArgumentException.class, () -> index.closeMatches("v", -1));
+    }
+
+    @Test
+    void closestMatch() {
+        TagIndex index = new TagIndex(List.of("java", "javascript", "kotlin"));
+
+        assertEquals(Optional.of("java"), index.closestMatch("jvaa"));
+        assertEquals(Optional.of("kotlin"), index.closestMatch("kotlin"));
+        assertEquals(Optional.empty(), new TagIndex(List.of()).closestMatch("java"));
+    }
+
+    @Test
+    void addAndRemove() {
+        TagIndex index = new TagIndex(List.of("java"));
+
+        index.add("javascript");
+        index.add("java");
+        assertEquals(2, index.size());
+        assertEquals(List.of("java", "javascript"), index.closeMatches("jav", 5));
+
+        index.remove("java");
+        index.remove("unknown");
+        assertEquals(1, index.size());
+        assertEquals(List.of("javascript"), index.closeMatches("jav", 5));
+        assertEquals(Optional.of("javascript"), index.closestMatch("java"));
+
+        index.remove("javascript");
+        assertEquals(0, index.size());
+        assertEquals(List.of(), index.closeMatches("jav", 5));
+        assertEquals(Optional.empty(), index.closestMatch("java"));
+    }
+
+    @Test
+    void identicalToStringDistances() {
+        Random random = new Random(42);
+        String alphabet = "abcd";
+
+        for (int run = 0; run < 500; run++) {
+            Set<String> ids = new TreeSet<>();
+            TagIndex index = new TagIndex(ids);
+
+            for (int change = 0; change < 40; change++) {
+                String id = randomText(random, alphabet, 8);
+                if (random.nextInt(4) == 0) {
+                    ids.remove(id);
+                    index.remove(id);
+                } else {
+                    ids.add(id);
+                    index.add(id);
+                }
+
+                String query = randomText(random, alphabet, 5);
+                int limit = random.nextInt(8);
+
+                assertEquals(StringDistances.closeMatches(query, ids, limit),
+                        index.closeMatches(query, limit),
+                        "Prefix '%s' with limit %d in %s".formatted(query, limit, ids));
+                assertEquals(closestMatchReference(query, ids), index.closestMatch(query),
+                        "Query '%s' in %s".formatted(query, ids));
+            }
+        }
+    }
+
+    private static Optional<String> closestMatchReference(String query, Set<String> ids) {
+        return ids.stream()
+            .min(Comparator.<String>comparingInt(id -> StringDistances.editDistance(query, id))
+                .thenComparing(Comparator.naturalOrder()));
+    }
+
+    private static String randomText(Random random, String alphabet, int maxLength) {
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -8,6 +8,11 @@ import org.togetherjava.tjbot.db.Database;
 import org.togetherjava.tjbot.db.generated.tables.Tags;
 import org.togetherjava.tjbot.jda.JdaTester;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -30,6 +35,25 @@ final class TagSystemTest {
             .fetchOptional(Tags.TAGS.CONTENT));
     }
 
+    /**
+     * Creates the full-text search index, which is not part of the tables created for memory
+     * databases, by running its migration.
+     */
+    private void createSearchIndexRaw() throws IOException {
+        String migration;
+        try (InputStream migrationInput =
+                TagSystemTest.class.getResourceAsStream("/db/V15__Add_Tags_Search.sql")) {
+            migration = new String(migrationInput.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        database.write(context -> context.connection(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                // Executes all statements of the migration, unlike prepared statements
+                statement.executeUpdate(migration);
+            }
+        }));
+    }
+
     private int getAmountOfRecords() {
         return database.read(context -> context.fetchCount(Tags.TAGS));
     }
@@ -107,6 +131,80 @@ final class TagSystemTest {
         assertEquals("foo", maybeContent.orElseThrow());
     }
 
+    @Test
+    void getTagReflectsChanges() {
+        system.putTag("known", "foo");
+        assertEquals(Optional.of("foo"), system.getTag("known"));
+
+        system.putTag("known", "bar");
+        assertEquals(Optional.of("bar"), system.getTag("known"));
+
+        system.deleteTag("known");
+        assertTrue(system.getTag("known").isEmpty());
+        assertFalse(system.hasTag("known"));
+    }
+
+    @Test
+    void tagsAreLoadedAtStartup() {
+        insertTagRaw("known", "foo");
+        TagSystem restartedSystem = new TagSystem(database);
+
+        assertEquals(Optional.of("foo"), restartedSystem.getTag("known"));
+        assertEquals(List.of("known"), restartedSystem.getCloseMatchingIds("kno", 5));
+    }
+
+    @Test
+    void searchTags() throws IOException {
+        insertTagRaw("before", "Tags created before the index are found too");
+        createSearchIndexRaw();
+        system.putTag("java", "Java is a programming language, use streams for collections");
+        system.putTag("streams", "The Stream API processes collections lazily");
+        system.putTag("kotlin", "Kotlin is a programming language");
+
+        TagSystem.TagSearchPage page = system.searchTags("stream", 1, 10);
+        assertEquals(List.of("streams", "java"),
+                page.results().stream().map(TagSystem.TagSearchResult::id).toList());
+        assertEquals("The **Stream** API processes collections lazily",
+                page.results().get(0).snippet());
+
+        assertEquals(List.of("java", "kotlin"),
+                system.searchTags("PROGRAMMING lang", 1, 10)
+                    .results()
+                    .stream()
+                    .map(TagSystem.TagSearchResult::id)
+                    .sorted()
+                    .toList());
+        assertEquals(List.of("before"), system.searchTags("index found", 1, 10)
+            .results()
+            .stream()
+            .map(TagSystem.TagSearchResult::id)
+            .toList());
+        assertTrue(system.searchTags("\" * -", 1, 10).results().isEmpty());
+
+        system.putTag("java", "Java is a programming language");
+        system.deleteTag("streams");
+        assertTrue(system.searchTags("stream", 1, 10).results().isEmpty());
+    }
+
+    @Test
+    void searchTagsPages() throws IOException {
+        createSearchIndexRaw();
+        system.putTag("first", "language");
+        system.putTag("second", "language");
+        system.putTag("third", "language");
+
+        TagSystem.TagSearchPage page = system.searchTags("language", 2, 2);
+        assertEquals(List.of("third"),
+                page.results().stream().map(TagSystem.TagSearchResult::id).toList());
+        assertEquals(3, page.totalResults());
+        assertEquals(2, page.page());
+        assertEquals(2, page.totalPages());
+
+        // Pages beyond the last are clamped
+        assertEquals(2, system.searchTags("language", 5, 2).page());
+        assertEquals(1, system.searchTags("unknown", 5, 2).page());
+    }
+
     @Test
     void getAllIds() {
         assertTrue(system.getAllIds().isEmpty());
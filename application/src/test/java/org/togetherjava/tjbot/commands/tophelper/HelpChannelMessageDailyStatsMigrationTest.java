@@ -0,0 +1,172 @@
+package org.togetherjava.tjbot.commands.tophelper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.db.generated.tables.records.HelpChannelMessageDailyStatsRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessageDailyStats.HELP_CHANNEL_MESSAGE_DAILY_STATS;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessages.HELP_CHANNEL_MESSAGES;
+
+final class HelpChannelMessageDailyStatsMigrationTest {
+    private static final long GUILD_ID = 1;
+    private static final long CHANNEL_ID = 2;
+    private static final long AUTHOR_ID = 3;
+    private static final LocalDate FIRST_DAY = LocalDate.parse("2022-10-01");
+    private static final LocalDate SECOND_DAY = FIRST_DAY.plusDays(1);
+
+    private Database database;
+
+    @BeforeEach
+    void setUp() {
+        database = Database.createMemoryDatabase(HELP_CHANNEL_MESSAGES);
+    }
+
+    /**
+     * Inserts a message record with its timestamp encoded as milliseconds since the epoch.
+     */
+    private void insertMessageWithMillisRaw(long messageId, long authorId, Instant sentAt,
+            long messageLength) {
+        insertMessageRaw(messageId, authorId, sentAt.toEpochMilli(), messageLength);
+    }
+
+    /**
+     * Inserts a message record with its timestamp encoded as text, as in
+     * {@code 2022-10-01 23:59:59.999}.
+     */
+    private void insertMessageWithTextRaw(long messageId, long authorId, String sentAt,
+            long messageLength) {
+        insertMessageRaw(messageId, authorId, sentAt, messageLength);
+    }
+
+    private void insertMessageRaw(long messageId, long authorId, Object sentAt,
+            long messageLength) {
+        database.write(context -> context.connection(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("""
+                    INSERT INTO help_channel_messages (message_id, guild_id, channel_id, author_id,
+                                                       sent_at, message_length)
+                    VALUES (?, ?, ?, ?, ?, ?)""")) {
+                statement.setLong(1, messageId);
+                statement.setLong(2, GUILD_ID);
+                statement.setLong(3, CHANNEL_ID);
+                statement.setLong(4, authorId);
+                statement.setObject(5, sentAt);
+                statement.setLong(6, messageLength);
+                statement.executeUpdate();
+            }
+        }));
+    }
+
+    /**
+     * Inserts a message record the same way the bot does.
+     */
+    private void insertMessage(long messageId, long authorId, Instant sentAt,
+            long messageLength) {
+        database.write(context -> context.newRecord(HELP_CHANNEL_MESSAGES)
+            .setMessageId(messageId)
+            .setGuildId(GUILD_ID)
+            .setChannelId(CHANNEL_ID)
+            .setAuthorId(authorId)
+            .setSentAt(sentAt)
+            .setMessageLength(messageLength)
+            .insert());
+    }
+
+    private void runMigrationRaw() throws IOException {
+        String migration;
+        try (InputStream migrationInput = HelpChannelMessageDailyStatsMigrationTest.class
+            .getResourceAsStream("/db/V16__Add_Help_Channel_Message_Daily_Stats.sql")) {
+            migration = new String(migrationInput.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        database.write(context -> context.connection(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                // Executes all statements of the migration, unlike prepared statements
+                statement.executeUpdate(migration);
+            }
+        }));
+    }
+
+    private HelpChannelMessageDailyStatsRecord readDailyStatsRaw(long authorId, LocalDate day) {
+        HelpChannelMessageDailyStatsRecord stats =
+                database.read(context -> context.selectFrom(HELP_CHANNEL_MESSAGE_DAILY_STATS)
+                    .where(HELP_CHANNEL_MESSAGE_DAILY_STATS.GUILD_ID.eq(GUILD_ID)
+                        .and(HELP_CHANNEL_MESSAGE_DAILY_STATS.AUTHOR_ID.eq(authorId))
+                        .and(HELP_CHANNEL_MESSAGE_DAILY_STATS.EPOCH_DAY.eq(day.toEpochDay())))
+                    .fetchOne());
+        assertNotNull(stats, "No stats of author %d at %s".formatted(authorId, day));
+        return stats;
+    }
+
+    private int getAmountOfDailyStats() {
+        return database.read(context -> context.fetchCount(HELP_CHANNEL_MESSAGE_DAILY_STATS));
+    }
+
+    private static void assertStats(long expectedCount, long expectedLength,
+            HelpChannelMessageDailyStatsRecord stats) {
+        assertEquals(expectedCount, stats.getMessageCount().longValue());
+        assertEquals(expectedLength, stats.getTotalLength().longValue());
+    }
+
+    @Test
+    void backfillsMillisTimestampsAroundMidnight() throws IOException {
+        insertMessageWithMillisRaw(1, AUTHOR_ID, Instant.parse("2022-10-01T00:00:00Z"), 1);
+        insertMessageWithMillisRaw(2, AUTHOR_ID, Instant.parse("2022-10-01T23:59:59.999Z"), 2);
+        insertMessageWithMillisRaw(3, AUTHOR_ID, Instant.parse("2022-10-02T00:00:00Z"), 4);
+
+        runMigrationRaw();
+
+        assertEquals(2, getAmountOfDailyStats());
+        assertStats(2, 3, readDailyStatsRaw(AUTHOR_ID, FIRST_DAY));
+        assertStats(1, 4, readDailyStatsRaw(AUTHOR_ID, SECOND_DAY));
+    }
+
+    @Test
+    void backfillsTextTimestampsAroundMidnight() throws IOException {
+        insertMessageWithTextRaw(1, AUTHOR_ID, "2022-10-01 00:00:00", 1);
+        insertMessageWithTextRaw(2, AUTHOR_ID, "2022-10-01 23:59:59.999", 2);
+        insertMessageWithTextRaw(3, AUTHOR_ID, "2022-10-02 00:00:00", 4);
+
+        runMigrationRaw();
+
+        assertEquals(2, getAmountOfDailyStats());
+        assertStats(2, 3, readDailyStatsRaw(AUTHOR_ID, FIRST_DAY));
+        assertStats(1, 4, readDailyStatsRaw(AUTHOR_ID, SECOND_DAY));
+    }
+
+    @Test
+    void backfillsTimestampsAsWrittenByTheBot() throws IOException {
+        insertMessage(1, AUTHOR_ID, Instant.parse("2022-10-01T23:59:59.999Z"), 2);
+        insertMessage(2, AUTHOR_ID, Instant.parse("2022-10-02T00:00:00Z"), 4);
+
+        runMigrationRaw();
+
+        assertStats(1, 2, readDailyStatsRaw(AUTHOR_ID, FIRST_DAY));
+        assertStats(1, 4, readDailyStatsRaw(AUTHOR_ID, SECOND_DAY));
+    }
+
+    @Test
+    void backfillsMixedTimestampsPerAuthorAndDay() throws IOException {
+        long otherAuthorId = AUTHOR_ID + 1;
+        insertMessageWithMillisRaw(1, AUTHOR_ID, Instant.parse("2022-10-01T10:00:00Z"), 10);
+        insertMessageWithTextRaw(2, AUTHOR_ID, "2022-10-01 11:00:00", 20);
+        insertMessageWithTextRaw(3, otherAuthorId, "2022-10-01 12:00:00", 5);
+
+        runMigrationRaw();
+
+        assertEquals(2, getAmountOfDailyStats());
+        assertStats(2, 30, readDailyStatsRaw(AUTHOR_ID, FIRST_DAY));
+        assertStats(1, 5, readDailyStatsRaw(otherAuthorId, FIRST_DAY));
+    }
+}
@@ -0,0 +1,149 @@
+package org.togetherjava.tjbot.commands.tophelper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.db.DatabaseException;
+import org.togetherjava.tjbot.db.generated.tables.records.HelpChannelMessageDailyStatsRecord;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessageDailyStats.HELP_CHANNEL_MESSAGE_DAILY_STATS;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessages.HELP_CHANNEL_MESSAGES;
+
+final class HelpMessageBufferTest {
+    private static final long GUILD_ID = 1;
+    private static final long CHANNEL_ID = 2;
+    private static final long AUTHOR_ID = 3;
+    private static final Instant SENT_AT = Instant.parse("2022-10-01T12:00:00Z");
+
+    private Database database;
+    private HelpMessageBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        database = Database.createMemoryDatabase(HELP_CHANNEL_MESSAGES,
+                HELP_CHANNEL_MESSAGE_DAILY_STATS);
+        // Large threshold, such that only explicit flushes write
+        buffer = new HelpMessageBuffer(database, Integer.MAX_VALUE);
+    }
+
+    private int getAmountOfMessageRecords() {
+        return database.read(context -> context.fetchCount(HELP_CHANNEL_MESSAGES));
+    }
+
+    private HelpChannelMessageDailyStatsRecord readDailyStatsRaw(long authorId, Instant day) {
+        return database.read(context -> context.selectFrom(HELP_CHANNEL_MESSAGE_DAILY_STATS)
+            .where(HELP_CHANNEL_MESSAGE_DAILY_STATS.AUTHOR_ID.eq(authorId)
+                .and(HELP_CHANNEL_MESSAGE_DAILY_STATS.EPOCH_DAY
+                    .eq(TopHelpersMessageListener.toEpochDay(day))))
+            .fetchOne());
+    }
+
+    @Test
+    void writesOnlyOnFlush() {
+        buffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+        buffer.add(2, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 20);
+
+        assertEquals(2, buffer.getBufferedMessages());
+        assertEquals(0, getAmountOfMessageRecords());
+
+        buffer.flush();
+
+        assertEquals(0, buffer.getBufferedMessages());
+        assertEquals(2, getAmountOfMessageRecords());
+    }
+
+    @Test
+    void addsUpDailyStats() {
+        Instant nextDay = SENT_AT.plus(Duration.ofDays(1));
+        buffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+        buffer.add(2, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 20);
+        buffer.add(3, GUILD_ID, CHANNEL_ID, AUTHOR_ID, nextDay, 5);
+        buffer.flush();
+
+        // Stats of the same day are added up across batches
+        buffer.add(4, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 30);
+        buffer.flush();
+
+        HelpChannelMessageDailyStatsRecord firstDay = readDailyStatsRaw(AUTHOR_ID, SENT_AT);
+        assertEquals(3, firstDay.getMessageCount().longValue());
+        assertEquals(60, firstDay.getTotalLength().longValue());
+
+        HelpChannelMessageDailyStatsRecord secondDay = readDailyStatsRaw(AUTHOR_ID, nextDay);
+        assertEquals(1, secondDay.getMessageCount().longValue());
+        assertEquals(5, secondDay.getTotalLength().longValue());
+    }
+
+    @Test
+    void writesBatchesLargerThanSingleInsert() {
+        int amount = 2_500;
+        for (int i = 0; i < amount; i++) {
+            buffer.add(i, GUILD_ID, CHANNEL_ID, AUTHOR_ID + i % 7, SENT_AT, 1);
+        }
+        buffer.flush();
+
+        assertEquals(amount, getAmountOfMessageRecords());
+    }
+
+    @Test
+    void ignoresDuplicateMessages() {
+        buffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+        buffer.flush();
+        buffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+        buffer.add(2, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+        buffer.flush();
+
+        assertEquals(2, getAmountOfMessageRecords());
+    }
+
+    @Test
+    void countsDuplicateMessagesOnce() {
+        buffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+        buffer.flush();
+        buffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+        buffer.flush();
+
+        HelpChannelMessageDailyStatsRecord stats = readDailyStatsRaw(AUTHOR_ID, SENT_AT);
+        assertEquals(1, stats.getMessageCount().longValue());
+        assertEquals(10, stats.getTotalLength().longValue());
+    }
+
+    @Test
+    void countsDuplicateMessagesWithinBatchOnce() {
+        buffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+        buffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+        buffer.flush();
+
+        assertEquals(1, getAmountOfMessageRecords());
+        assertEquals(1, readDailyStatsRaw(AUTHOR_ID, SENT_AT).getMessageCount().longValue());
+    }
+
+    @Test
+    void keepsRecordsOfFailedFlush() {
+        // Without the stats table, every flush fails
+        HelpMessageBuffer failingBuffer = new HelpMessageBuffer(
+                Database.createMemoryDatabase(HELP_CHANNEL_MESSAGES), Integer.MAX_VALUE);
+        failingBuffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+        failingBuffer.add(2, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+
+        assertThrows(DatabaseException.class, failingBuffer::flush);
+        assertEquals(2, failingBuffer.getBufferedMessages());
+    }
+
+    @Test
+    void reportsReachedFlushThreshold() {
+        HelpMessageBuffer smallBuffer = new HelpMessageBuffer(database, 2);
+
+        assertFalse(smallBuffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10));
+        assertTrue(smallBuffer.add(2, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10));
+        smallBuffer.flush();
+        assertFalse(smallBuffer.add(3, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10));
+    }
+}
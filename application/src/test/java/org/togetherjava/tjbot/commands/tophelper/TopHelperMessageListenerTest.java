@@ -6,9 +6,6 @@ import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.Arguments;
-import org.junit.jupiter.params.provider.MethodSource;
 
 import org.togetherjava.tjbot.config.Config;
 import org.togetherjava.tjbot.config.HelpSystemConfig;
@@ -16,7 +13,6 @@ import org.togetherjava.tjbot.db.Database;
 import org.togetherjava.tjbot.jda.JdaTester;
 
 import java.util.List;
-import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
@@ -41,7 +37,7 @@ final class TopHelperMessageListenerTest {
         when(config.getHelpSystem()).thenReturn(helpSystemConfig);
 
         jdaTester = new JdaTester();
-        topHelpersListener = new TopHelpersMessageListener(database, config);
+        topHelpersListener = new TopHelpersMessageListener(new HelpMessageBuffer(database), config);
     }
 
     @Test
@@ -115,61 +111,4 @@ final class TopHelperMessageListenerTest {
             return event;
         }
     }
-
-
-    @ParameterizedTest
-    @MethodSource("provideInvalidCharactersWithDescription")
-    void excludesInvalidCharacters(String invalidChars, String description) {
-        // GIVEN a string of invalid characters
-
-        // WHEN counting the amount of valid characters
-        long validCharacterCount = TopHelpersMessageListener.countValidCharacters(invalidChars);
-
-        // THEN no characters are counted
-        assertEquals(0, validCharacterCount,
-                "Characters [%s] were not fully ignored".formatted(description));
-    }
-
-
-    @ParameterizedTest
-    @MethodSource("provideValidCharacters")
-    void countsValidCharacters(String validChars) {
-        // GIVEN a string of valid characters
-
-        // WHEN counting the amount of valid characters
-        long validCharCount = TopHelpersMessageListener.countValidCharacters(validChars);
-
-        // THEN all characters are counted
-        assertEquals(validChars.length(), validCharCount,
-                "Characters [%s] were not fully ignored".formatted(validChars));
-    }
-
-
-    private static Stream<Arguments> provideInvalidCharactersWithDescription() {
-        return Stream.of( // Invalid characters
-                Arguments.of("\u061C", "Arabic Letter Mark"),
-                Arguments.of("\u0600", "Arabic Number Sign"),
-                Arguments.of("\u180E", "Mongolian Vowel Separator"),
-                Arguments.of("\u200B", "Zero Width Space"),
-                Arguments.of("\u200C", "Zero Width Non-Joiner"),
-                Arguments.of("\u200D", "Zero Width Joiner"),
-                Arguments.of("\u200E", "Left-to-Right Mark"),
-                Arguments.of("\u200F", "Right-to-Left Mark"));
-    }
-
-
-    private static List<String> provideValidCharacters() {
-        return List.of( // Valid characters
-                "a", "A", "b", "B", "c", "C", "x", "X,", "y", "Y", "z", "Z", // Latin alphabet
-                "1", "2", "3", "4", "5", "6", "7", "8", "9", "0", // Numbers
-                "°", "!", "§", "§", "$", "%", "&", "/", "(", ")", "{", "}", "[", "]", "=", // Other
-                "+", "*", "~", "-", "_", ".", ",", "?", ":", ";", "|", "<", ">", "@", "€", "µ", // Other
-                "α", "Α", "β", "Β", "γ", "Γ", "χ", "Χ", "ψ", "Ψ", "ω", "Ω", // Greek alphabet
-                "ä", "ö", "ü", "ß", // German
-                "á", "è", "î", // French
-                "天", "四", "永", // Chinese
-                "😀", "😛", "❤️", "💚", "⛔" // Emojis
-        );
-    }
-
 }
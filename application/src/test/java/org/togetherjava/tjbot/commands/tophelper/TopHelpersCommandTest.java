@@ -0,0 +1,109 @@
+package org.togetherjava.tjbot.commands.tophelper;
+
+import org.jooq.Record2;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.db.Database;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessageDailyStats.HELP_CHANNEL_MESSAGE_DAILY_STATS;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessages.HELP_CHANNEL_MESSAGES;
+
+final class TopHelpersCommandTest {
+    private static final long GUILD_ID = 1;
+    private static final long CHANNEL_ID = 2;
+    private static final YearMonth MONTH = YearMonth.of(2022, 10);
+    private static final Instant MONTH_START =
+            MONTH.atDay(1).atTime(LocalTime.MIN).toInstant(ZoneOffset.UTC);
+    private static final Instant MONTH_END =
+            MONTH.atEndOfMonth().atTime(LocalTime.MAX).toInstant(ZoneOffset.UTC);
+    private static final Instant NEXT_MONTH_START =
+            MONTH.plusMonths(1).atDay(1).atTime(LocalTime.MIN).toInstant(ZoneOffset.UTC);
+
+    private Database database;
+    private HelpMessageBuffer buffer;
+    private TopHelpersCommand command;
+    private long nextMessageId;
+
+    @BeforeEach
+    void setUp() {
+        database = Database.createMemoryDatabase(HELP_CHANNEL_MESSAGES,
+                HELP_CHANNEL_MESSAGE_DAILY_STATS);
+        buffer = new HelpMessageBuffer(database, Integer.MAX_VALUE);
+        command = new TopHelpersCommand(database, buffer);
+    }
+
+    private void addMessage(long authorId, Instant sentAt, long messageLength) {
+        buffer.add(nextMessageId, GUILD_ID, CHANNEL_ID, authorId, sentAt, messageLength);
+        nextMessageId++;
+    }
+
+    private Map<Long, Long> computeTopHelpers() {
+        return command.computeTopHelpersDescending(GUILD_ID, MONTH)
+            .stream()
+            .collect(Collectors.toMap(TopHelpersCommand.TopHelperResult::authorId,
+                    topHelper -> topHelper.messageLengths().longValue()));
+    }
+
+    /**
+     * Computes the top helpers from the single message records, as the command did before the
+     * daily statistics were introduced.
+     */
+    private Map<Long, Long> computeTopHelpersFromMessagesRaw() {
+        return database.read(context -> context
+            .select(HELP_CHANNEL_MESSAGES.AUTHOR_ID, DSL.sum(HELP_CHANNEL_MESSAGES.MESSAGE_LENGTH))
+            .from(HELP_CHANNEL_MESSAGES)
+            .where(HELP_CHANNEL_MESSAGES.GUILD_ID.eq(GUILD_ID)
+                .and(HELP_CHANNEL_MESSAGES.SENT_AT.between(MONTH_START, MONTH_END)))
+            .groupBy(HELP_CHANNEL_MESSAGES.AUTHOR_ID)
+            .fetchMap(Record2::value1, record -> record.value2().longValue()));
+    }
+
+    @Test
+    void monthBoundariesMatchMessageRecords() {
+        // Each author only writes at a single moment, to tell which moments are counted
+        addMessage(1, MONTH_START.minusMillis(1), 1);
+        addMessage(2, MONTH_START, 2);
+        addMessage(3, MONTH_START.plusSeconds(60), 4);
+        addMessage(4, MONTH_END.minusSeconds(60), 8);
+        // Records are stored with millisecond precision
+        addMessage(5, MONTH_END.truncatedTo(ChronoUnit.MILLIS), 16);
+        addMessage(6, NEXT_MONTH_START, 32);
+        buffer.flush();
+
+        Map<Long, Long> expectedTopHelpers = Map.of(2L, 2L, 3L, 4L, 4L, 8L, 5L, 16L);
+        assertEquals(expectedTopHelpers, computeTopHelpersFromMessagesRaw());
+        assertEquals(expectedTopHelpers, computeTopHelpers());
+    }
+
+    @Test
+    void addsUpMessagesOfAllDaysInMonth() {
+        long authorId = 1;
+        for (int day = 1; day <= MONTH.lengthOfMonth(); day++) {
+            addMessage(authorId, MONTH.atDay(day).atTime(12, 0).toInstant(ZoneOffset.UTC), 10);
+        }
+        addMessage(authorId + 1, MONTH_START, 5);
+        buffer.flush();
+
+        assertEquals(computeTopHelpersFromMessagesRaw(), computeTopHelpers());
+        assertEquals(Map.of(authorId, 310L, authorId + 1, 5L), computeTopHelpers());
+    }
+
+    @Test
+    void ignoresOtherGuilds() {
+        buffer.add(1, GUILD_ID + 1, CHANNEL_ID, 1, MONTH_START, 10);
+        buffer.flush();
+
+        assertEquals(Map.of(), computeTopHelpers());
+    }
+}
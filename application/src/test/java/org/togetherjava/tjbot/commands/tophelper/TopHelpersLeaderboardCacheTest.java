@@ -0,0 +1,103 @@
+package org.togetherjava.tjbot.commands.tophelper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.db.DatabaseException;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.togetherjava.tjbot.db.generated.tables.TopHelpersLeaderboards.TOP_HELPERS_LEADERBOARDS;
+
+final class TopHelpersLeaderboardCacheTest {
+    private static final long GUILD_ID = 1;
+    private static final long CHANNEL_ID = 2;
+    private static final long AUTHOR_ID = 3;
+
+    private Database database;
+    private HelpMessageBuffer buffer;
+    private TopHelpersLeaderboardCache cache;
+
+    @BeforeEach
+    void setUp() {
+        database = Database.createMemoryDatabase(TOP_HELPERS_LEADERBOARDS);
+        // Large threshold, such that only explicit flushes write
+        buffer = new HelpMessageBuffer(database, Integer.MAX_VALUE);
+        cache = new TopHelpersLeaderboardCache(database, buffer);
+    }
+
+    private void addBufferedMessage(long messageId, YearMonth sentIn) {
+        Instant sentAt = sentIn.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        buffer.add(messageId, GUILD_ID, CHANNEL_ID, AUTHOR_ID, sentAt, 10);
+    }
+
+    private int getAmountOfRecords() {
+        return database.read(context -> context.fetchCount(TOP_HELPERS_LEADERBOARDS));
+    }
+
+    @Test
+    void persistsCompletedMonths() {
+        YearMonth completedMonth = YearMonth.now(ZoneOffset.UTC).minusMonths(2);
+        assertEquals(Optional.empty(), cache.get(GUILD_ID, completedMonth));
+
+        cache.put(GUILD_ID, completedMonth, "leaderboard", cache.isFinal(completedMonth));
+
+        assertEquals(Optional.of("leaderboard"), cache.get(GUILD_ID, completedMonth));
+        assertEquals(1, getAmountOfRecords());
+        // Survives restarts
+        assertEquals(Optional.of("leaderboard"),
+                new TopHelpersLeaderboardCache(database, buffer).get(GUILD_ID, completedMonth));
+        assertEquals(Optional.empty(), cache.get(GUILD_ID + 1, completedMonth));
+    }
+
+    @Test
+    void keepsCurrentMonthInMemory() {
+        // Next month, to not be affected by the current month completing during the test
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC).plusMonths(1);
+
+        cache.put(GUILD_ID, currentMonth, "leaderboard", cache.isFinal(currentMonth));
+
+        assertEquals(Optional.of("leaderboard"), cache.get(GUILD_ID, currentMonth));
+        assertEquals(0, getAmountOfRecords());
+    }
+
+    @Test
+    void isCompleted() {
+        YearMonth now = YearMonth.now(ZoneOffset.UTC);
+
+        assertTrue(TopHelpersLeaderboardCache.isCompleted(now.minusMonths(2)));
+        assertFalse(TopHelpersLeaderboardCache.isCompleted(now.plusMonths(1)));
+    }
+
+    @Test
+    void keepsCompletedMonthWithBufferedMessagesInMemory() {
+        YearMonth completedMonth = YearMonth.now(ZoneOffset.UTC).minusMonths(2);
+        addBufferedMessage(1, completedMonth);
+
+        // Without the message tables, the flush fails and the records stay in the buffer
+        assertThrows(DatabaseException.class, buffer::flush);
+        assertFalse(cache.isFinal(completedMonth));
+
+        cache.put(GUILD_ID, completedMonth, "incomplete", cache.isFinal(completedMonth));
+
+        assertEquals(Optional.of("incomplete"), cache.get(GUILD_ID, completedMonth));
+        assertEquals(0, getAmountOfRecords());
+    }
+
+    @Test
+    void isFinalIgnoresMessagesOfLaterMonths() {
+        YearMonth completedMonth = YearMonth.now(ZoneOffset.UTC).minusMonths(2);
+        addBufferedMessage(1, completedMonth.plusMonths(1));
+
+        assertTrue(cache.isFinal(completedMonth));
+        assertFalse(cache.isFinal(completedMonth.plusMonths(1)));
+    }
+}
@@ -0,0 +1,67 @@
+package org.togetherjava.tjbot.commands.tophelper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.jda.JdaTester;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessageDailyStats.HELP_CHANNEL_MESSAGE_DAILY_STATS;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessages.HELP_CHANNEL_MESSAGES;
+import static org.togetherjava.tjbot.db.generated.tables.TopHelpersLeaderboards.TOP_HELPERS_LEADERBOARDS;
+
+final class TopHelpersPurgeMessagesRoutineTest {
+    private static final long GUILD_ID = 1;
+    private static final long AUTHOR_ID = 2;
+
+    private Database database;
+    private TopHelpersPurgeMessagesRoutine routine;
+    private JdaTester jdaTester;
+
+    @BeforeEach
+    void setUp() {
+        database = Database.createMemoryDatabase(HELP_CHANNEL_MESSAGES,
+                HELP_CHANNEL_MESSAGE_DAILY_STATS, TOP_HELPERS_LEADERBOARDS);
+        routine = new TopHelpersPurgeMessagesRoutine(database);
+        jdaTester = new JdaTester();
+    }
+
+    private void insertDailyStatsRaw(LocalDate day) {
+        database.write(context -> context.newRecord(HELP_CHANNEL_MESSAGE_DAILY_STATS)
+            .setGuildId(GUILD_ID)
+            .setAuthorId(AUTHOR_ID)
+            .setEpochDay(day.toEpochDay())
+            .setMessageCount(1L)
+            .setTotalLength(10L)
+            .insert());
+    }
+
+    private List<LocalDate> readDaysOfDailyStatsRaw() {
+        return database.read(context -> context.select(HELP_CHANNEL_MESSAGE_DAILY_STATS.EPOCH_DAY)
+            .from(HELP_CHANNEL_MESSAGE_DAILY_STATS)
+            .orderBy(HELP_CHANNEL_MESSAGE_DAILY_STATS.EPOCH_DAY)
+            .fetch(record -> LocalDate.ofEpochDay(record.value1())));
+    }
+
+    @Test
+    void purgesOnlyDailyStatsOlderThanAYear() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate oneYearAgo = today.minus(Period.ofYears(1));
+        insertDailyStatsRaw(oneYearAgo.minusDays(30));
+        insertDailyStatsRaw(oneYearAgo.minusDays(1));
+        insertDailyStatsRaw(oneYearAgo);
+        insertDailyStatsRaw(oneYearAgo.plusDays(1));
+        insertDailyStatsRaw(today);
+
+        routine.runRoutine(jdaTester.getJdaMock());
+
+        assertEquals(List.of(oneYearAgo, oneYearAgo.plusDays(1), today),
+                readDaysOfDailyStatsRaw());
+    }
+}
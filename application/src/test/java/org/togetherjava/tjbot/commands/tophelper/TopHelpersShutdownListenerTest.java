@@ -0,0 +1,71 @@
+package org.togetherjava.tjbot.commands.tophelper;
+
+import net.dv8tion.jda.api.events.ShutdownEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.togetherjava.tjbot.db.Database;
+import org.togetherjava.tjbot.jda.JdaTester;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessageDailyStats.HELP_CHANNEL_MESSAGE_DAILY_STATS;
+import static org.togetherjava.tjbot.db.generated.tables.HelpChannelMessages.HELP_CHANNEL_MESSAGES;
+
+final class TopHelpersShutdownListenerTest {
+    private static final long GUILD_ID = 1;
+    private static final long CHANNEL_ID = 2;
+    private static final long AUTHOR_ID = 3;
+    private static final Instant SENT_AT = Instant.parse("2022-10-01T12:00:00Z");
+    private static final int NORMAL_SHUTDOWN_CODE = 1000;
+
+    private Database database;
+    private HelpMessageBuffer buffer;
+    private TopHelpersShutdownListener listener;
+    private JdaTester jdaTester;
+
+    @BeforeEach
+    void setUp() {
+        database = Database.createMemoryDatabase(HELP_CHANNEL_MESSAGES,
+                HELP_CHANNEL_MESSAGE_DAILY_STATS);
+        buffer = new HelpMessageBuffer(database);
+        listener = new TopHelpersShutdownListener(buffer);
+        jdaTester = new JdaTester();
+    }
+
+    private int getAmountOfMessageRecords() {
+        return database.read(context -> context.fetchCount(HELP_CHANNEL_MESSAGES));
+    }
+
+    private void shutdown() {
+        listener.onEvent(new ShutdownEvent(jdaTester.getJdaMock(), OffsetDateTime.now(),
+                NORMAL_SHUTDOWN_CODE));
+    }
+
+    @Test
+    void writesBufferedRecordsOnShutdown() {
+        buffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+        buffer.add(2, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 20);
+        assertEquals(0, getAmountOfMessageRecords());
+
+        shutdown();
+
+        assertEquals(2, getAmountOfMessageRecords());
+        assertEquals(0, buffer.getBufferedMessages());
+    }
+
+    @Test
+    void keepsRecordsIfShutdownFlushFails() {
+        // Without the stats table, every flush fails
+        HelpMessageBuffer failingBuffer =
+                new HelpMessageBuffer(Database.createMemoryDatabase(HELP_CHANNEL_MESSAGES));
+        failingBuffer.add(1, GUILD_ID, CHANNEL_ID, AUTHOR_ID, SENT_AT, 10);
+
+        new TopHelpersShutdownListener(failingBuffer).onEvent(new ShutdownEvent(
+                jdaTester.getJdaMock(), OffsetDateTime.now(), NORMAL_SHUTDOWN_CODE));
+
+        assertEquals(1, failingBuffer.getBufferedMessages());
+    }
+}
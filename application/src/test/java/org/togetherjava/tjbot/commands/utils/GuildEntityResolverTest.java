@@ -0,0 +1,107 @@
+package org.togetherjava.tjbot.commands.utils;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.utils.cache.SortedSnowflakeCacheView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+final class GuildEntityResolverTest {
+    private static final long GUILD_ID = 1;
+    private static final String MUTED_ROLE_PATTERN = "Muted|Silenced";
+
+    private final List<Role> roles = new ArrayList<>();
+    private SortedSnowflakeCacheView<Role> roleCache;
+    private Guild guild;
+    private GuildEntityResolver resolver;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        roles.clear();
+        roleCache = mock(SortedSnowflakeCacheView.class);
+        when(roleCache.stream()).thenAnswer(any -> roles.stream());
+
+        guild = mock(Guild.class);
+        when(guild.getIdLong()).thenReturn(GUILD_ID);
+        when(guild.getRoleCache()).thenReturn(roleCache);
+        when(guild.getRoleById(anyLong())).thenAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            return roles.stream().filter(role -> role.getIdLong() == id).findAny().orElse(null);
+        });
+
+        resolver = new GuildEntityResolver();
+    }
+
+    private Role addRole(long id, String name) {
+        Role role = mock(Role.class);
+        when(role.getIdLong()).thenReturn(id);
+        when(role.getName()).thenReturn(name);
+        roles.add(role);
+        return role;
+    }
+
+    @Test
+    void cachesFoundEntity() {
+        addRole(2, "Moderator");
+        Role mutedRole = addRole(3, "Muted");
+
+        assertEquals(Optional.of(mutedRole), resolver.findRole(guild, MUTED_ROLE_PATTERN));
+        assertEquals(Optional.of(mutedRole), resolver.findRole(guild, MUTED_ROLE_PATTERN));
+
+        // The second lookup only gets the role by its id
+        verify(roleCache, times(1)).stream();
+    }
+
+    @Test
+    void resolvesAgainAfterDeletion() {
+        Role mutedRole = addRole(3, "Muted");
+        assertEquals(Optional.of(mutedRole), resolver.findRole(guild, MUTED_ROLE_PATTERN));
+
+        roles.remove(mutedRole);
+        Role silencedRole = addRole(4, "Silenced");
+
+        assertEquals(Optional.of(silencedRole), resolver.findRole(guild, MUTED_ROLE_PATTERN));
+    }
+
+    @Test
+    void cachesMissUntilInvalidated() {
+        assertEquals(Optional.empty(), resolver.findRole(guild, MUTED_ROLE_PATTERN));
+
+        Role mutedRole = addRole(3, "Muted");
+        assertEquals(Optional.empty(), resolver.findRole(guild, MUTED_ROLE_PATTERN));
+        verify(roleCache, times(1)).stream();
+
+        resolver.invalidate(GUILD_ID);
+        assertEquals(Optional.of(mutedRole), resolver.findRole(guild, MUTED_ROLE_PATTERN));
+    }
+
+    @Test
+    void findsRoleByNameIgnoringCase() {
+        Role helperRole = addRole(3, "Java-Helper");
+
+        assertEquals(Optional.of(helperRole), resolver.findRoleByName(guild, "java-helper"));
+        // Regex characters in names are taken literally
+        assertEquals(Optional.empty(), resolver.findRoleByName(guild, "java.helper"));
+    }
+
+    @Test
+    void instancesDoNotShareResults() {
+        assertEquals(Optional.empty(), resolver.findRole(guild, MUTED_ROLE_PATTERN));
+
+        Role mutedRole = addRole(3, "Muted");
+        assertEquals(Optional.of(mutedRole),
+                new GuildEntityResolver().findRole(guild, MUTED_ROLE_PATTERN));
+    }
+}
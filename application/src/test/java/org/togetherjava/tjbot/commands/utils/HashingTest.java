@@ -0,0 +1,50 @@
+package org.togetherjava.tjbot.commands.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+final class HashingTest {
+    @Test
+    void hash64IsDeterministic() {
+        String text = "public static void main(String[] args) {}";
+
+        assertEquals(Hashing.hash64(text), Hashing.hash64(new StringBuilder(text)));
+    }
+
+    @Test
+    void hash64DistinguishesSimilarTexts() {
+        List<String> texts = List.of("", "a", "b", "aa", "ab", "ba", "abc", "abcd", "abcde",
+                "abcdefgh", "abcdefgi", "\0", "\0\0", "\0\0\0\0", "hello world", "hello World");
+
+        Set<Long> hashes = new HashSet<>();
+        texts.stream().map(Hashing::hash64).forEach(hashes::add);
+
+        assertEquals(texts.size(), hashes.size());
+    }
+
+    @Test
+    void hash64SeedCombinesTexts() {
+        long firstSplit = Hashing.hash64(Hashing.hash64("ab"), "c");
+        long secondSplit = Hashing.hash64(Hashing.hash64("a"), "bc");
+
+        assertNotEquals(firstSplit, secondSplit);
+        assertNotEquals(Hashing.hash64("abc"), firstSplit);
+    }
+
+    @Test
+    void hash64OfValuesIsDistinct() {
+        Set<Long> hashes = new HashSet<>();
+        for (long value = -1_000; value <= 1_000; value++) {
+            hashes.add(Hashing.hash64(value));
+        }
+
+        assertEquals(2_001, hashes.size());
+        assertNotEquals(1L, Hashing.hash64(1L));
+    }
+}
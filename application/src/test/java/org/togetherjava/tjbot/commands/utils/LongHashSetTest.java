@@ -0,0 +1,55 @@
+package org.togetherjava.tjbot.commands.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class LongHashSetTest {
+    @Test
+    void addAndContains() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.isEmpty());
+
+        assertTrue(set.add(5));
+        assertTrue(set.add(0));
+        assertTrue(set.add(-5));
+        assertFalse(set.add(5));
+        assertFalse(set.add(0));
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(5));
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(-5));
+        assertFalse(set.contains(6));
+        assertFalse(set.isEmpty());
+    }
+
+    @Test
+    void rejectsNegativeExpectedSize() {
+        assertThrows(IllegalArgumentException.class, () -> new LongHashSet(-1));
+    }
+
+    @Test
+    void identicalToHashSet() {
+        Random random = new Random(42);
+        Set<Long> expected = new HashSet<>();
+        LongHashSet actual = new LongHashSet(random.nextInt(10));
+
+        for (int i = 0; i < 10_000; i++) {
+            // Small range for duplicates, large values like snowflake ids
+            long value = random.nextInt(5_000) * (1L << 22);
+            assertEquals(expected.add(value), actual.add(value));
+
+            long otherValue = random.nextInt(5_000) * (1L << 22);
+            assertEquals(expected.contains(otherValue), actual.contains(otherValue));
+        }
+        assertEquals(expected.size(), actual.size());
+    }
+}
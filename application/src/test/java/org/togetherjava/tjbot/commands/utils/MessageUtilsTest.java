@@ -9,6 +9,11 @@ import javax.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -268,4 +273,88 @@ final class MessageUtilsTest {
 
         assertEquals(expectedCodeFence, actualCodeFence, testName);
     }
+
+    @ParameterizedTest
+    @MethodSource("provideInvalidCharactersWithDescription")
+    void excludesInvalidCharacters(String invalidChars, String description) {
+        // GIVEN a string of invalid characters
+
+        // WHEN counting the amount of valid characters
+        long validCharacterCount = MessageUtils.countValidCharacters(invalidChars);
+
+        // THEN no characters are counted
+        assertEquals(0, validCharacterCount,
+                "Characters [%s] were not fully ignored".formatted(description));
+    }
+
+
+    @ParameterizedTest
+    @MethodSource("provideValidCharacters")
+    void countsValidCharacters(String validChars) {
+        // GIVEN a string of valid characters
+
+        // WHEN counting the amount of valid characters
+        long validCharCount = MessageUtils.countValidCharacters(validChars);
+
+        // THEN all characters are counted
+        assertEquals(validChars.length(), validCharCount,
+                "Characters [%s] were not fully ignored".formatted(validChars));
+    }
+
+
+    private static Stream<Arguments> provideInvalidCharactersWithDescription() {
+        return Stream.of( // Invalid characters
+                Arguments.of("\u061C", "Arabic Letter Mark"),
+                Arguments.of("\u0600", "Arabic Number Sign"),
+                Arguments.of("\u180E", "Mongolian Vowel Separator"),
+                Arguments.of("\u200B", "Zero Width Space"),
+                Arguments.of("\u200C", "Zero Width Non-Joiner"),
+                Arguments.of("\u200D", "Zero Width Joiner"),
+                Arguments.of("\u200E", "Left-to-Right Mark"),
+                Arguments.of("\u200F", "Right-to-Left Mark"));
+    }
+
+
+    private static List<String> provideValidCharacters() {
+        return List.of( // Valid characters
+                "a", "A", "b", "B", "c", "C", "x", "X,", "y", "Y", "z", "Z", // Latin alphabet
+                "1", "2", "3", "4", "5", "6", "7", "8", "9", "0", // Numbers
+                "°", "!", "§", "§", "$", "%", "&", "/", "(", ")", "{", "}", "[", "]", "=", // Other
+                "+", "*", "~", "-", "_", ".", ",", "?", ":", ";", "|", "<", ">", "@", "€", "µ", // Other
+                "α", "Α", "β", "Β", "γ", "Γ", "χ", "Χ", "ψ", "Ψ", "ω", "Ω", // Greek alphabet
+                "ä", "ö", "ü", "ß", // German
+                "á", "è", "î", // French
+                "天", "四", "永", // Chinese
+                "😀", "😛", "❤️", "💚", "⛔" // Emojis
+        );
+    }
+
+    @Test
+    void countValidCharactersIdenticalToRegex() {
+        Pattern invalidCharacters = Pattern.compile("\\p{C}");
+
+        IntStream.rangeClosed(0, Character.MAX_CODE_POINT).forEach(codePoint -> {
+            String text = Character.toString(codePoint);
+            assertEquals(invalidCharacters.matcher(text).replaceAll("").length(),
+                    MessageUtils.countValidCharacters(text),
+                    () -> "Code point U+%04X".formatted(codePoint));
+        });
+
+        // Mixes ASCII, other planes and surrogates that may or may not form pairs
+        char[] alphabet = {'a', ' ', '\n', '\u007F', '\u00E4', '\u200B', '\u0378', '\uE000',
+                '\uD83D', '\uDE00', '\uDB80', '\uDC00'};
+        Random random = new Random(42);
+        for (int run = 0; run < 10_000; run++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                text.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+
+            assertEquals(invalidCharacters.matcher(text).replaceAll("").length(),
+                    MessageUtils.countValidCharacters(text), () -> text.chars()
+                        .mapToObj("U+%04X"::formatted)
+                        .collect(Collectors.joining(" ")));
+        }
+    }
 }
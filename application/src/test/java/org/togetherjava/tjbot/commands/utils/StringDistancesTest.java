@@ -2,8 +2,12 @@ package org.togetherjava.tjbot.commands.utils;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -73,4 +77,96 @@ final class StringDistancesTest {
                     "Test '%s' failed".formatted(test.name));
         }
     }
+
+    @Test
+    void distancesWithMaximum() {
+        Random random = new Random(42);
+        String alphabet = "abc";
+
+        for (int run = 0; run < 10_000; run++) {
+            String source = randomText(random, alphabet, 8);
+            String destination = randomText(random, alphabet, 8);
+            int maxDistance = random.nextInt(6);
+
+            int editDistance = StringDistances.editDistance(source, destination);
+            int prefixEditDistance = StringDistances.prefixEditDistance(source, destination);
+
+            String message = "'%s' to '%s' with maximum %d".formatted(source, destination,
+                    maxDistance);
+            assertEquals(Math.min(editDistance, maxDistance + 1),
+                    StringDistances.editDistance(source, destination, maxDistance), message);
+            assertEquals(Math.min(prefixEditDistance, maxDistance + 1),
+                    StringDistances.prefixEditDistance(source, destination, maxDistance),
+                    message);
+        }
+    }
+
+    @Test
+    void closestMatch() {
+        record TestCase(String name, Optional<String> expectedMatch, String query,
+                Collection<String> candidates) {
+        }
+
+        List<String> candidates = List.of("java", "javascript", "kotlin", "jav", "lava");
+        List<TestCase> tests = List.of(
+                new TestCase("no_candidates", Optional.empty(), "java", List.of()),
+                new TestCase("exact", Optional.of("java"), "java", candidates),
+                new TestCase("first_on_ties", Optional.of("java"), "xava", candidates),
+                new TestCase("closest", Optional.of("kotlin"), "kottlin", candidates));
+
+        for (TestCase test : tests) {
+            assertEquals(test.expectedMatch,
+                    StringDistances.closestMatch(test.query, test.candidates),
+                    "Test '%s' failed".formatted(test.name));
+        }
+    }
+
+    @Test
+    void closeMatchesIdenticalToSortingAllCandidates() {
+        Random random = new Random(42);
+        String alphabet = "abcd";
+
+        for (int run = 0; run < 5_000; run++) {
+            String prefix = randomText(random, alphabet, 5);
+            List<String> candidates = new ArrayList<>();
+            int candidateCount = random.nextInt(30);
+            for (int i = 0; i < candidateCount; i++) {
+                candidates.add(randomText(random, alphabet, 8));
+            }
+            int limit = random.nextInt(8);
+
+            assertEquals(closeMatchesReference(prefix, candidates, limit),
+                    StringDistances.closeMatches(prefix, candidates, limit),
+                    "Prefix '%s' with limit %d in %s".formatted(prefix, limit, candidates));
+        }
+    }
+
+    /**
+     * The straightforward way of finding close matches, which the selection has to be identical
+     * to. Scores all candidates, sorts them by score and name and takes the first that are close
+     * enough.
+     */
+    private static List<String> closeMatchesReference(String prefix, List<String> candidates,
+            int limit) {
+        Comparator<String> byScore = Comparator
+            .<String>comparingInt(candidate -> StringDistances.prefixEditDistance(prefix,
+                    candidate))
+            .thenComparing(Comparator.naturalOrder());
+
+        return candidates.stream()
+            .sorted(byScore)
+            .limit(limit)
+            .takeWhile(candidate -> prefix.isEmpty() || (double) StringDistances
+                .prefixEditDistance(prefix, candidate) / prefix.length() <= 0.5)
+            .toList();
+    }
+
+    private static String randomText(Random random, String alphabet, int maxLength) {
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
 }
@@ -0,0 +1,69 @@
+package org.togetherjava.tjbot.formatter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Code snippets used as input by the formatter benchmarks.
+ * <p>
+ * Real-world snippets are loaded from the {@code corpus} resource folder. Large and degenerate
+ * inputs are generated, for example {@link #DEGENERATE_LESS_THAN}, which consists of a long row of
+ * {@code <} characters that the formatter has to check for generics.
+ * <p>
+ * The code of an entry is created lazily, use {@link #code()} to get it.
+ */
+public enum CodeCorpus {
+    HELLO_WORLD(() -> loadResource("hello_world.txt")),
+    HELP_QUESTION(() -> loadResource("help_question.txt")),
+    NESTED_GENERICS(() -> loadResource("nested_generics.txt")),
+    LONG_STRING_LITERALS(() -> loadResource("long_string_literals.txt")),
+    COMMENT_HEAVY(() -> loadResource("comment_heavy.txt")),
+    LARGE_5K_LINES(() -> repeatRealWorldSnippets(5_000)),
+    DEGENERATE_LESS_THAN(() -> "<".repeat(10_000)),
+    // Every quote starts a string literal that is only closed by an escaped quote
+    DEGENERATE_ESCAPED_QUOTES(() -> "\"" + "\\\"".repeat(5_000));
+
+    private final Supplier<String> codeSupplier;
+
+    CodeCorpus(Supplier<String> codeSupplier) {
+        this.codeSupplier = codeSupplier;
+    }
+
+    /**
+     * Gets the code of this entry.
+     *
+     * @return the code
+     */
+    public String code() {
+        return codeSupplier.get();
+    }
+
+    private static String loadResource(String name) {
+        String path = "/corpus/" + name;
+        try (InputStream input =
+                Objects.requireNonNull(CodeCorpus.class.getResourceAsStream(path), path)) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String repeatRealWorldSnippets(int lines) {
+        String snippets = Stream.of(HELLO_WORLD, HELP_QUESTION, NESTED_GENERICS,
+                LONG_STRING_LITERALS, COMMENT_HEAVY)
+            .map(CodeCorpus::code)
+            .collect(Collectors.joining("\n"));
+
+        return Stream.generate(snippets::lines)
+            .flatMap(Function.identity())
+            .limit(lines)
+            .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,42 @@
+package org.togetherjava.tjbot.formatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.togetherjava.tjbot.formatter.formatting.CodeSectionFormatter;
+import org.togetherjava.tjbot.formatter.tokenizer.Lexer;
+import org.togetherjava.tjbot.formatter.tokenizer.Token;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link CodeSectionFormatter#format()} over the {@link CodeCorpus}, excluding the time
+ * needed for tokenizing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class CodeSectionFormatterBenchmark {
+    @Param
+    public CodeCorpus corpus;
+
+    private List<Token> tokens;
+
+    @Setup
+    public void setUp() {
+        tokens = new Lexer().tokenize(corpus.code());
+    }
+
+    @Benchmark
+    public String format() {
+        // The formatter is single-use, so creating it is part of the measurement
+        return new CodeSectionFormatter(tokens).format();
+    }
+}
@@ -0,0 +1,38 @@
+package org.togetherjava.tjbot.formatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the full pipeline of {@link Formatter#format(CharSequence)}, i.e. tokenizing and
+ * formatting, over the {@link CodeCorpus}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class FormatterBenchmark {
+    @Param
+    public CodeCorpus corpus;
+
+    private String code;
+    private Formatter formatter;
+
+    @Setup
+    public void setUp() {
+        code = corpus.code();
+        formatter = new Formatter();
+    }
+
+    @Benchmark
+    public String format() {
+        return formatter.format(code);
+    }
+}
@@ -0,0 +1,41 @@
+package org.togetherjava.tjbot.formatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.togetherjava.tjbot.formatter.tokenizer.Lexer;
+import org.togetherjava.tjbot.formatter.tokenizer.Token;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Lexer#tokenize(CharSequence)} over the {@link CodeCorpus}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class LexerBenchmark {
+    @Param
+    public CodeCorpus corpus;
+
+    private String code;
+    private Lexer lexer;
+
+    @Setup
+    public void setUp() {
+        code = corpus.code();
+        lexer = new Lexer();
+    }
+
+    @Benchmark
+    public List<Token> tokenize() {
+        return lexer.tokenize(code);
+    }
+}
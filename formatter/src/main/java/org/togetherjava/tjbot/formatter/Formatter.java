@@ -1,9 +1,12 @@
 package org.togetherjava.tjbot.formatter;
 
 import org.togetherjava.tjbot.formatter.formatting.CodeSectionFormatter;
+import org.togetherjava.tjbot.formatter.formatting.FormattingBudget;
+import org.togetherjava.tjbot.formatter.formatting.FormattingResult;
 import org.togetherjava.tjbot.formatter.tokenizer.Lexer;
 import org.togetherjava.tjbot.formatter.tokenizer.Token;
 
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -28,4 +31,26 @@ public final class Formatter {
 
         return codeFormatter.format();
     }
+
+    /**
+     * Formats the given string within a budget, writing the result to the given output.
+     * <p>
+     * The code is tokenized and formatted incrementally, the output is written in chunks. Once the
+     * budget is exhausted, formatting stops and the output is ended with the truncation marker of
+     * the budget. This makes the method safe to use with huge or malicious input.
+     * <p>
+     * Best results are achieved for Java code.
+     *
+     * @param code the code to format
+     * @param output to write the formatted code to
+     * @param budget the limits for the formatting work
+     * @return whether all code was formatted, or which limit of the budget stopped it
+     * @throws UncheckedIOException if writing to the output failed
+     */
+    public FormattingResult format(CharSequence code, Appendable output, FormattingBudget budget) {
+        CodeSectionFormatter codeFormatter =
+                new CodeSectionFormatter(lexer.tokenizeIncrementally(code), budget);
+
+        return codeFormatter.formatTo(output);
+    }
 }
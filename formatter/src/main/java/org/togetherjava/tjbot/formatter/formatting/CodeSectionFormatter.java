@@ -3,26 +3,49 @@ package org.togetherjava.tjbot.formatter.formatting;
 import org.togetherjava.tjbot.formatter.tokenizer.Token;
 import org.togetherjava.tjbot.formatter.tokenizer.TokenType;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.StreamSupport;
 
 /**
  * Pretty-formats a given list of code tokens.
  * <p>
- * After creation, use {@link #format()}. This is a one-time method.
+ * After creation, use either {@link #format()} or {@link #formatTo(Appendable)}. These are
+ * one-time methods.
+ * <p>
+ * The work done can be limited by a {@link FormattingBudget}. Tokens are then consumed
+ * incrementally and formatting stops as soon as the budget is exhausted.
  */
 // Sonar complains about commented out code on multiple methods.
 // A false-positive, this is intentional explanation.
 @SuppressWarnings("squid:S125")
 public final class CodeSectionFormatter {
     private static final String INDENT = " ".repeat(2);
+    /**
+     * Amount of characters collected before they are written to the output.
+     */
+    private static final int CHUNK_SIZE = 1_024;
 
     private final TokenQueue tokens;
     /**
      * The actual set of rules to apply. For example, it decides when to put a space around a token.
      */
     private final FormatterRules rules;
-    private final StringBuilder result;
+    private final FormattingBudget budget;
+    /**
+     * Formatted code that was not written to the output yet. The last characters before the
+     * character limit are held back until it is clear whether the output has to be truncated, as
+     * they would be replaced by the truncation marker then.
+     */
+    private final StringBuilder result = new StringBuilder(CHUNK_SIZE);
+    /**
+     * Amount of characters already written to the output.
+     */
+    private int writtenCharacters;
 
     /**
      * The current level of indentation, which is applied at the start of each new line.
@@ -47,12 +70,14 @@ public final class CodeSectionFormatter {
 
     private boolean alreadyUsed;
 
-    private static List<Token> patchTokens(List<Token> tokens) {
-        // We rebuild the whitespaces ourselves and ignore existing
-        List<Token> patchedTokens = new ArrayList<>(tokens);
-        patchedTokens.removeIf(token -> token.type() == TokenType.WHITESPACE);
-
-        return patchedTokens;
+    private static Iterator<Token> patchTokens(Iterator<Token> tokens, int maxTokens) {
+        // We rebuild the whitespaces ourselves and ignore existing.
+        // One token more than the limit is taken, to tell whether the limit truncated the code.
+        return StreamSupport
+            .stream(Spliterators.spliteratorUnknownSize(tokens, Spliterator.ORDERED), false)
+            .filter(token -> token.type() != TokenType.WHITESPACE)
+            .limit(maxTokens + 1L)
+            .iterator();
     }
 
     /**
@@ -63,8 +88,21 @@ public final class CodeSectionFormatter {
      * @param tokens to format
      */
     public CodeSectionFormatter(List<Token> tokens) {
-        this.tokens = new TokenQueue(patchTokens(tokens));
-        result = new StringBuilder(this.tokens.remainingSize());
+        this(List.copyOf(tokens).iterator(), FormattingBudget.UNLIMITED);
+    }
+
+    /**
+     * Creates an instance for formatting the given tokens, within the given budget.
+     * <p>
+     * Tokens are pulled from the iterator only as far as needed, so it can be backed by an
+     * incremental lexer. The formatter takes ownership of the iterator.
+     *
+     * @param tokens to format
+     * @param budget the limits for the formatting work
+     */
+    public CodeSectionFormatter(Iterator<Token> tokens, FormattingBudget budget) {
+        this.tokens = new TokenQueue(patchTokens(tokens, budget.maxTokens()));
+        this.budget = budget;
         rules = new FormatterRules(this.tokens);
     }
 
@@ -73,26 +111,91 @@ public final class CodeSectionFormatter {
      * <p>
      * This method must only be used once per instance.
      * 
-     * @return the formatted code
+     * @return the formatted code, ending with the truncation marker if the budget was exhausted
      */
     public String format() {
+        StringBuilder output = new StringBuilder();
+        formatTo(output);
+        return output.toString();
+    }
+
+    /**
+     * Pretty-formats the code tokens of this formatter and writes them to the given output.
+     * <p>
+     * The formatted code is written in chunks while formatting. If the budget is exhausted,
+     * formatting stops and the output is ended with the truncation marker.
+     * <p>
+     * This method must only be used once per instance.
+     *
+     * @param output to write the formatted code to
+     * @return whether all code was formatted, or which limit of the budget stopped it
+     * @throws UncheckedIOException if writing to the output failed
+     */
+    public FormattingResult formatTo(Appendable output) {
         if (alreadyUsed) {
             throw new IllegalStateException(
                     "This method must only be used once, create a new instance instead.");
         }
+        alreadyUsed = true;
+
+        try {
+            FormattingResult formattingResult = formatWithinBudget(output);
+            if (formattingResult.isTruncated()) {
+                output.append(budget.truncationMarker());
+            }
+            return formattingResult;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // Clear the builder to prevent memory leaks
+            result.setLength(0);
+        }
+    }
+
+    private FormattingResult formatWithinBudget(Appendable output) throws IOException {
+        long startNanos = System.nanoTime();
+        long timeoutNanos = budget.timeoutNanos();
+        int maxCharacters = budget.maxCharacters();
+        int maxCharactersBeforeMarker = maxCharacters - budget.truncationMarker().length();
+        int consumedTokens = 0;
 
         while (!tokens.isEmpty()) {
+            if (consumedTokens >= budget.maxTokens()) {
+                writeChunk(output, maxCharactersBeforeMarker);
+                return FormattingResult.TOKEN_LIMIT_REACHED;
+            }
+            if (System.nanoTime() - startNanos >= timeoutNanos) {
+                writeChunk(output, maxCharactersBeforeMarker);
+                return FormattingResult.TIMEOUT_REACHED;
+            }
+
             Token token = tokens.consume();
+            consumedTokens++;
             process(token);
-        }
 
-        String resultText = result.toString();
+            if (writtenCharacters + result.length() > maxCharacters) {
+                writeChunk(output, maxCharactersBeforeMarker);
+                return FormattingResult.CHARACTER_LIMIT_REACHED;
+            }
 
-        // Clear the builder to prevent memory leaks
-        result.setLength(0);
-        alreadyUsed = true;
+            if (result.length() >= CHUNK_SIZE) {
+                writeChunk(output, maxCharactersBeforeMarker);
+            }
+        }
 
-        return resultText;
+        writeChunk(output, maxCharacters);
+        return FormattingResult.COMPLETE;
+    }
+
+    /**
+     * Writes the collected code to the output, but only as much as fits into the given total
+     * amount of characters. Any remaining code is kept.
+     */
+    private void writeChunk(Appendable output, int maxWrittenCharacters) throws IOException {
+        int length = Math.min(result.length(), maxWrittenCharacters - writtenCharacters);
+        output.append(result, 0, length);
+        writtenCharacters += length;
+        result.delete(0, length);
     }
 
     private void process(Token token) {
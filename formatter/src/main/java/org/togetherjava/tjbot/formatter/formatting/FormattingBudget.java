@@ -0,0 +1,79 @@
+package org.togetherjava.tjbot.formatter.formatting;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * Upper bounds for the work done by {@link CodeSectionFormatter}. Formatting stops cleanly once any
+ * of the limits is reached, ending the output with the truncation marker.
+ * <p>
+ * Use {@link #UNLIMITED} to format everything.
+ *
+ * @param maxCharacters the maximal amount of characters to output, including the truncation
+ *        marker
+ * @param maxTokens the maximal amount of tokens to format, whitespace is not counted
+ * @param timeout the maximal time to spend on formatting
+ * @param truncationMarker the text to end the output with, if formatting was stopped early
+ */
+public record FormattingBudget(int maxCharacters, int maxTokens, Duration timeout,
+        String truncationMarker) {
+    /**
+     * The marker used by default to indicate that formatting was stopped early.
+     */
+    public static final String DEFAULT_TRUNCATION_MARKER = "\n...";
+    /**
+     * A budget without any limits.
+     */
+    public static final FormattingBudget UNLIMITED = new FormattingBudget(Integer.MAX_VALUE,
+            Integer.MAX_VALUE, ChronoUnit.FOREVER.getDuration());
+
+    /**
+     * Creates a budget with the given limits.
+     *
+     * @param maxCharacters the maximal amount of characters to output, including the truncation
+     *        marker
+     * @param maxTokens the maximal amount of tokens to format, whitespace is not counted
+     * @param timeout the maximal time to spend on formatting
+     * @param truncationMarker the text to end the output with, if formatting was stopped early
+     */
+    public FormattingBudget {
+        Objects.requireNonNull(timeout);
+        Objects.requireNonNull(truncationMarker);
+
+        if (maxCharacters < truncationMarker.length()) {
+            throw new IllegalArgumentException(
+                    "The character limit (%d) must leave room for the truncation marker (%d)"
+                        .formatted(maxCharacters, truncationMarker.length()));
+        }
+        if (maxTokens < 0) {
+            throw new IllegalArgumentException(
+                    "The token limit must not be negative, but was " + maxTokens);
+        }
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException(
+                    "The timeout must not be negative, but was " + timeout);
+        }
+    }
+
+    /**
+     * Creates a budget with the given limits, using the {@link #DEFAULT_TRUNCATION_MARKER}.
+     *
+     * @param maxCharacters the maximal amount of characters to output, including the truncation
+     *        marker
+     * @param maxTokens the maximal amount of tokens to format, whitespace is not counted
+     * @param timeout the maximal time to spend on formatting
+     */
+    public FormattingBudget(int maxCharacters, int maxTokens, Duration timeout) {
+        this(maxCharacters, maxTokens, timeout, DEFAULT_TRUNCATION_MARKER);
+    }
+
+    long timeoutNanos() {
+        try {
+            return timeout.toNanos();
+        } catch (ArithmeticException e) {
+            // Effectively no timeout, such as the timeout of UNLIMITED
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.togetherjava.tjbot.formatter.formatting;
+
+/**
+ * Outcome of formatting code with a {@link FormattingBudget}.
+ */
+public enum FormattingResult {
+    /**
+     * All code was formatted.
+     */
+    COMPLETE,
+    /**
+     * Formatting stopped since the output reached the character limit.
+     */
+    CHARACTER_LIMIT_REACHED,
+    /**
+     * Formatting stopped since the token limit was reached.
+     */
+    TOKEN_LIMIT_REACHED,
+    /**
+     * Formatting stopped since it took longer than the timeout.
+     */
+    TIMEOUT_REACHED;
+
+    /**
+     * Whether formatting stopped early, i.e. the output does not contain all of the code.
+     *
+     * @return whether the output was truncated
+     */
+    public boolean isTruncated() {
+        return this != COMPLETE;
+    }
+}
@@ -5,6 +5,7 @@ import org.togetherjava.tjbot.formatter.tokenizer.TokenType;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.stream.IntStream;
@@ -18,13 +19,21 @@ import java.util.stream.Stream;
  * The core methods are {@link #consume()} and {@link #isEmpty()}. Further, the queue allows peeking
  * in both directions.
  * <p>
+ * Tokens are pulled lazily from the source, only once they are consumed or peeked at. That way, the
+ * queue can be fed by an incremental lexer (see
+ * {@link org.togetherjava.tjbot.formatter.tokenizer.Lexer#tokenizeIncrementally(CharSequence)}).
+ * <p>
  * The queue does not release tokens upon consumption. To prevent memory leaks, the queue should not
  * be kept alive longer than necessary.
  * <p>
  * The class is not thread-safe.
  */
 final class TokenQueue {
-    private final List<Token> tokens;
+    /**
+     * All tokens pulled from the source so far, consumed or not.
+     */
+    private final List<Token> tokens = new ArrayList<>();
+    private final Iterator<Token> source;
     private int nextTokenIndex;
 
     /**
@@ -36,26 +45,42 @@ final class TokenQueue {
      * @param tokens to consume by the queue
      */
     TokenQueue(Collection<Token> tokens) {
-        this.tokens = new ArrayList<>(tokens);
+        this(new ArrayList<>(tokens).iterator());
     }
 
     /**
-     * Whether there are still tokens to be consumed.
-     * 
-     * @return Whether there are still tokens to be consumed
+     * Creates a new queue that consumes the tokens given by the iterator, in order. Tokens are only
+     * pulled from the iterator once the queue needs them.
+     * <p>
+     * The queue takes ownership of the iterator, it must not be used by anyone else anymore.
+     *
+     * @param tokens to consume by the queue
      */
-    boolean isEmpty() {
-        return nextTokenIndex >= tokens.size();
+    TokenQueue(Iterator<Token> tokens) {
+        source = tokens;
     }
 
     /**
-     * The remaining amount of tokens that can still be consumed, i.e. how often {@link #consume()}
-     * can still be called.
+     * Whether there is a token at the given index, pulling further tokens from the source if
+     * needed.
+     *
+     * @param index the index of the token, relative to the start of the queue
+     * @return whether the token exists
+     */
+    private boolean hasTokenAt(int index) {
+        while (index >= tokens.size() && source.hasNext()) {
+            tokens.add(source.next());
+        }
+        return index < tokens.size();
+    }
+
+    /**
+     * Whether there are still tokens to be consumed.
      * 
-     * @return the remaining amount of tokens
+     * @return Whether there are still tokens to be consumed
      */
-    int remainingSize() {
-        return tokens.size() - nextTokenIndex;
+    boolean isEmpty() {
+        return !hasTokenAt(nextTokenIndex);
     }
 
     /**
@@ -114,10 +139,10 @@ final class TokenQueue {
      * @return the next tokens types, an empty stream if the queue is empty
      */
     Stream<TokenType> peekTypeStream() {
-        if (isEmpty()) {
-            return Stream.of();
-        }
-        return tokens.subList(nextTokenIndex, tokens.size()).stream().map(Token::type);
+        // Lazy, tokens are only pulled from the source as far as the stream is consumed
+        return Stream.iterate(nextTokenIndex, this::hasTokenAt, i -> i + 1)
+            .map(tokens::get)
+            .map(Token::type);
     }
 
     /**
@@ -2,7 +2,9 @@ package org.togetherjava.tjbot.formatter.tokenizer;
 
 import java.nio.CharBuffer;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -22,16 +24,43 @@ public final class Lexer {
         }
 
         List<Token> tokens = new ArrayList<>();
+        tokenizeIncrementally(code).forEachRemaining(tokens::add);
+
+        return tokens;
+    }
+
+    /**
+     * Tokenizes the given code into its individual tokens, one at a time.
+     * <p>
+     * Other than {@link #tokenize(CharSequence)}, the next token is only computed when requested
+     * from the iterator. This allows consumers to stop early, without paying for the rest of the
+     * code.
+     * <p>
+     * The iterator is backed by the given code, which hence must not be changed during iteration.
+     *
+     * @param code code to tokenize
+     * @return iterator over the tokens the code consists of
+     */
+    public Iterator<Token> tokenizeIncrementally(CharSequence code) {
         CharBuffer remainingCode = CharBuffer.wrap(code);
 
-        while (!remainingCode.isEmpty()) {
-            Token token = nextToken(remainingCode);
-            tokens.add(token);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !remainingCode.isEmpty();
+            }
 
-            advancePosition(remainingCode, token.content().length());
-        }
+            @Override
+            public Token next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("All tokens of the code have been lexed");
+                }
 
-        return tokens;
+                Token token = nextToken(remainingCode);
+                advancePosition(remainingCode, token.content().length());
+                return token;
+            }
+        };
     }
 
     private Token nextToken(CharSequence content) {
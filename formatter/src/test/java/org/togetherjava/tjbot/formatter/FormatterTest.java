@@ -1,13 +1,19 @@
 package org.togetherjava.tjbot.formatter;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import org.togetherjava.tjbot.formatter.formatting.FormattingBudget;
+import org.togetherjava.tjbot.formatter.formatting.FormattingResult;
+
+import java.time.Duration;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 final class FormatterTest {
     private Formatter formatter;
@@ -292,4 +298,95 @@ final class FormatterTest {
 
         assertEquals(expectedFormattedCode, actualFormattedCode, testName);
     }
+
+    @ParameterizedTest
+    @MethodSource("provideFormatTests")
+    void formatWithUnlimitedBudget(String testName, String code, String expectedFormattedCode) {
+        StringBuilder output = new StringBuilder();
+
+        FormattingResult result = formatter.format(code, output, FormattingBudget.UNLIMITED);
+
+        assertEquals(FormattingResult.COMPLETE, result, testName);
+        assertEquals(expectedFormattedCode, output.toString(), testName);
+    }
+
+    @Test
+    void formatStopsAtCharacterLimit() {
+        String code = "int x=5;".repeat(1_000);
+        FormattingBudget budget = new FormattingBudget(100, Integer.MAX_VALUE, Duration.ofDays(1));
+        StringBuilder output = new StringBuilder();
+
+        FormattingResult result = formatter.format(code, output, budget);
+
+        assertEquals(FormattingResult.CHARACTER_LIMIT_REACHED, result);
+        assertEquals(100, output.length());
+        assertTrue(output.toString().endsWith(FormattingBudget.DEFAULT_TRUNCATION_MARKER));
+        assertTrue(formatter.format(code).startsWith(output.substring(0,
+                100 - FormattingBudget.DEFAULT_TRUNCATION_MARKER.length())));
+    }
+
+    @Test
+    void formatStopsAtTokenLimit() {
+        String code = "int x=5;int y=6;";
+        // Whitespace is not counted as token
+        FormattingBudget budget =
+                new FormattingBudget(Integer.MAX_VALUE, 5, Duration.ofDays(1), "<truncated>");
+        StringBuilder output = new StringBuilder();
+
+        FormattingResult result = formatter.format(code, output, budget);
+
+        assertEquals(FormattingResult.TOKEN_LIMIT_REACHED, result);
+        assertEquals("int x = 5;\n<truncated>", output.toString());
+    }
+
+    @Test
+    void formatStopsAtTimeout() {
+        String code = "int x=5;";
+        FormattingBudget budget =
+                new FormattingBudget(Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ZERO);
+        StringBuilder output = new StringBuilder();
+
+        FormattingResult result = formatter.format(code, output, budget);
+
+        assertEquals(FormattingResult.TIMEOUT_REACHED, result);
+        assertEquals(FormattingBudget.DEFAULT_TRUNCATION_MARKER, output.toString());
+    }
+
+    @Test
+    void formatWithinBudgetIsComplete() {
+        String code = "int x=5;";
+        FormattingBudget budget = new FormattingBudget(100, 5, Duration.ofDays(1));
+        StringBuilder output = new StringBuilder();
+
+        FormattingResult result = formatter.format(code, output, budget);
+
+        assertEquals(FormattingResult.COMPLETE, result);
+        assertEquals("int x = 5;", output.toString());
+    }
+
+    @Test
+    void formatFittingExactlyIntoCharacterLimitIsComplete() {
+        String code = "int x=5;".repeat(1_000);
+        String formattedCode = formatter.format(code);
+        FormattingBudget budget =
+                new FormattingBudget(formattedCode.length(), Integer.MAX_VALUE, Duration.ofDays(1));
+        StringBuilder output = new StringBuilder();
+
+        FormattingResult result = formatter.format(code, output, budget);
+
+        assertEquals(FormattingResult.COMPLETE, result);
+        assertEquals(formattedCode, output.toString());
+    }
+
+    @Test
+    void formatExceedingCharacterLimitByOneIsTruncated() {
+        String code = "int x=5;";
+        FormattingBudget budget = new FormattingBudget(9, Integer.MAX_VALUE, Duration.ofDays(1));
+        StringBuilder output = new StringBuilder();
+
+        FormattingResult result = formatter.format(code, output, budget);
+
+        assertEquals(FormattingResult.CHARACTER_LIMIT_REACHED, result);
+        assertEquals("int x" + FormattingBudget.DEFAULT_TRUNCATION_MARKER, output.toString());
+    }
 }
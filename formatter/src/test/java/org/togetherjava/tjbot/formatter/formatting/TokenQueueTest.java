@@ -27,20 +27,6 @@ final class TokenQueueTest {
         assertTrue(queue.isEmpty());
     }
 
-    @Test
-    void remainingSize() {
-        TokenQueue queue = provideEmptyTokenQueue();
-        assertEquals(0, queue.remainingSize());
-
-        queue = provide2TokenQueue();
-        assertEquals(2, queue.remainingSize());
-
-        queue.consume();
-        assertEquals(1, queue.remainingSize());
-        queue.consume();
-        assertEquals(0, queue.remainingSize());
-    }
-
     @Test
     void consume() {
         TokenQueue queue = provideEmptyTokenQueue();
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -41,6 +42,19 @@ final class LexerTest {
         assertEquals(expectedTypes, actualTypes);
     }
 
+    @Test
+    void tokenizeIncrementally() {
+        String code = """
+                int x=5;
+                String y =foo("bar");""";
+        List<Token> expectedTokens = lexer.tokenize(code);
+
+        List<Token> actualTokens = new ArrayList<>();
+        lexer.tokenizeIncrementally(code).forEachRemaining(actualTokens::add);
+
+        assertEquals(expectedTokens, actualTokens);
+    }
+
     @Test
     void emptyCode() {
         String emptyCode = "";